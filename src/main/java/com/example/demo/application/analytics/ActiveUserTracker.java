@@ -0,0 +1,173 @@
+package com.example.demo.application.analytics;
+
+import com.example.demo.application.analytics.collection.ConcurrentRoaringBitmap;
+import com.example.demo.application.analytics.ingest.AnalyticsEventSink;
+import com.example.demo.application.analytics.snapshot.AnalyticsSnapshotManager;
+import com.example.demo.application.analytics.snapshot.SnapshotParticipant;
+import com.example.demo.domain.event.AnalyticsEvent;
+import com.example.demo.domain.event.OrderPlacedEvent;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Active User Tracker
+ * Application Layer - Analytics
+ * One compressed bitmap of customer IDs per UTC day, filled from tracked events
+ * that carry a customer and from placed orders. Writers only set bits, without
+ * locks, and the number of distinct active customers over any range of days is
+ * the exact cardinality of the union of its bitmaps, at about 2 bytes per
+ * customer per day (1 bit once a block of 65536 IDs is dense).
+ * Restored from the analytics snapshot, or seeded with one streaming pass over
+ * all orders, before the web server accepts requests, then updated from order
+ * events after each transaction commits and from the event ingestion pipeline
+ * (and its log replay). Adding a customer twice is harmless, so these sources
+ * may overlap.
+ */
+@Component
+public class ActiveUserTracker implements AnalyticsEventSink, SmartInitializingSingleton, SnapshotParticipant {
+    
+    private final OrderScanner orderScanner;
+    private final AnalyticsSnapshotManager snapshotManager;
+    private final ConcurrentNavigableMap<Long, ConcurrentRoaringBitmap> days = new ConcurrentSkipListMap<>();
+    
+    public ActiveUserTracker(OrderScanner orderScanner, AnalyticsSnapshotManager snapshotManager) {
+        this.orderScanner = orderScanner;
+        this.snapshotManager = snapshotManager;
+    }
+    
+    @Override
+    public void afterSingletonsInstantiated() {
+        orderScanner.forEachSummary(snapshotManager.restore(this),
+                summary -> record(summary.getCustomerId(), summary.getCreatedAt()));
+    }
+    
+    @Override
+    public String getSnapshotName() {
+        return "active-users";
+    }
+    
+    @Override
+    public int getSnapshotVersion() {
+        return 1;
+    }
+    
+    @Override
+    public void writeSnapshot(DataOutputStream out) throws IOException {
+        Map<Long, ConcurrentRoaringBitmap> current = new LinkedHashMap<>(days);
+        out.writeInt(current.size());
+        for (Map.Entry<Long, ConcurrentRoaringBitmap> day : current.entrySet()) {
+            out.writeLong(day.getKey());
+            day.getValue().writeTo(out);
+        }
+    }
+    
+    // Merged into the current bitmaps, which may already hold customers replayed from the event log
+    @Override
+    public void readSnapshot(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("Negative day count " + count);
+        }
+        Map<Long, ConcurrentRoaringBitmap> restored = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            long day = in.readLong();
+            restored.put(day, ConcurrentRoaringBitmap.readFrom(in));
+        }
+        restored.forEach((day, bitmap) -> bitmap(day).or(bitmap));
+    }
+    
+    @Override
+    public void accept(List<AnalyticsEvent> batch) {
+        for (AnalyticsEvent event : batch) {
+            record(event.getCustomerId(), event.getOccurredAt());
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        record(event.getCustomerId(), event.getCreatedAt());
+    }
+    
+    /**
+     * Mark a customer active on the day of an activity
+     * @param customerId Customer ID
+     * @param at Activity time
+     */
+    public void record(Long customerId, LocalDateTime at) {
+        if (customerId == null || at == null) {
+            return;
+        }
+        bitmap(TimeBuckets.epochDay(at)).add(customerId);
+    }
+    
+    /**
+     * Count the distinct customers active in an inclusive range of days
+     * @param startDay First day
+     * @param endDay Last day
+     * @return Exact number of active customers
+     */
+    public long countActive(LocalDate startDay, LocalDate endDay) {
+        if (startDay == null || endDay == null) {
+            throw new IllegalArgumentException("Start date and end date cannot be null");
+        }
+        if (startDay.isAfter(endDay)) {
+            throw new IllegalArgumentException("Start date cannot be after end date");
+        }
+        return ConcurrentRoaringBitmap.unionCardinality(
+                days.subMap(startDay.toEpochDay(), true, endDay.toEpochDay(), true).values());
+    }
+    
+    /**
+     * Count the customers active on a day and in the 7 and 30 days ending with it
+     * @param day Last day of every window
+     * @return Daily, weekly and monthly active customers
+     */
+    public ActiveUsers activeUsers(LocalDate day) {
+        return new ActiveUsers(countActive(day, day), countActive(day.minusDays(6), day),
+                countActive(day.minusDays(29), day));
+    }
+    
+    public long getSizeInBytes() {
+        long bytes = 0;
+        for (ConcurrentRoaringBitmap bitmap : days.values()) {
+            bytes += bitmap.getSizeInBytes();
+        }
+        return bytes;
+    }
+    
+    private ConcurrentRoaringBitmap bitmap(long day) {
+        ConcurrentRoaringBitmap bitmap = days.get(day);
+        return bitmap != null ? bitmap : days.computeIfAbsent(day, d -> new ConcurrentRoaringBitmap());
+    }
+    
+    /**
+     * Daily, weekly and monthly active customers ending on one day
+     */
+    public static final class ActiveUsers {
+        private final long daily;
+        private final long weekly;
+        private final long monthly;
+        
+        ActiveUsers(long daily, long weekly, long monthly) {
+            this.daily = daily;
+            this.weekly = weekly;
+            this.monthly = monthly;
+        }
+        
+        public long getDaily() { return daily; }
+        public long getWeekly() { return weekly; }
+        public long getMonthly() { return monthly; }
+    }
+}
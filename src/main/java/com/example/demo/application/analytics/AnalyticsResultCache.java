@@ -0,0 +1,183 @@
+package com.example.demo.application.analytics;
+
+import com.example.demo.domain.event.OrderPlacedEvent;
+import com.example.demo.domain.event.OrderStatusChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Analytics Result Cache
+ * Application Layer - Analytics
+ * Bounded LRU cache of range query results keyed by endpoint, filter and the
+ * range widened to whole minutes, so repeated "last 30 days" requests issued
+ * within the same minute share one computation. The loader always receives
+ * the widened range, which keeps a cached result identical to a fresh one.
+ * A committed order only evicts the entries whose range could see it; that
+ * range includes the preceding window of equal length used for growth figures
+ * and is widened to whole days for the per-day stores. Entries also expire
+ * after a fixed age, which bounds staleness of event-derived fields such as
+ * product views.
+ */
+@Component
+public class AnalyticsResultCache implements MeterBinder {
+    
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Map<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long invalidations;
+    
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter sizeEvictionCounter;
+    private final Counter invalidationEvictionCounter;
+    private final Counter expiryEvictionCounter;
+    
+    public AnalyticsResultCache(MeterRegistry meterRegistry,
+                                @Value("${analytics.cache.max-entries:256}") int maxEntries,
+                                @Value("${analytics.cache.ttl-seconds:60}") long ttlSeconds) {
+        if (maxEntries < 1 || ttlSeconds < 1) {
+            throw new IllegalArgumentException("Cache size and time to live must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = Duration.ofSeconds(ttlSeconds).toNanos();
+        
+        this.hitCounter = Counter.builder("analytics.cache.requests")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("analytics.cache.requests")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.sizeEvictionCounter = Counter.builder("analytics.cache.evictions")
+                .tag("cause", "size")
+                .register(meterRegistry);
+        this.invalidationEvictionCounter = Counter.builder("analytics.cache.evictions")
+                .tag("cause", "invalidated")
+                .register(meterRegistry);
+        this.expiryEvictionCounter = Counter.builder("analytics.cache.evictions")
+                .tag("cause", "expired")
+                .register(meterRegistry);
+    }
+    
+    // Bound by the registry once the bean is fully constructed
+    @Override
+    public void bindTo(MeterRegistry meterRegistry) {
+        Gauge.builder("analytics.cache.size", this, AnalyticsResultCache::size)
+                .description("Cached analytics results")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Get a cached result or compute it over the range widened to whole minutes
+     * @param endpoint Endpoint name
+     * @param startDate Start date (inclusive)
+     * @param endDate End date (inclusive)
+     * @param filter Additional key component, or null
+     * @param loader Computes the result for a (start, inclusive end) range
+     * @return Read-only result
+     */
+    public Map<String, Object> get(String endpoint, LocalDateTime startDate, LocalDateTime endDate, Object filter,
+                                   BiFunction<LocalDateTime, LocalDateTime, Map<String, Object>> loader) {
+        long startMinute = TimeBuckets.epochMinute(startDate);
+        long endMinute = TimeBuckets.epochMinute(endDate);
+        String key = endpoint + '|' + startMinute + '|' + endMinute + '|' + filter;
+        long now = System.nanoTime();
+        long generation;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && now - entry.createdAt < ttlNanos) {
+                hitCounter.increment();
+                return entry.value;
+            }
+            if (entry != null) {
+                entries.remove(key);
+                expiryEvictionCounter.increment();
+            }
+            generation = invalidations;
+        }
+        missCounter.increment();
+        
+        LocalDateTime start = TimeBuckets.minuteStart(startMinute);
+        LocalDateTime end = TimeBuckets.minuteStart(endMinute + 1).minusNanos(1);
+        Map<String, Object> value = Collections.unmodifiableMap(loader.apply(start, end));
+        
+        // Growth figures read the preceding window; per-day stores read whole days
+        long dependencyFrom = TimeBuckets.epochDay(start.minus(Duration.between(start, end)));
+        long dependencyTo = TimeBuckets.epochDay(end);
+        synchronized (this) {
+            // An overlapping commit while loading may have been missed by the loader
+            if (generation == invalidations) {
+                entries.put(key, new Entry(value, dependencyFrom, dependencyTo, now));
+                if (entries.size() > maxEntries) {
+                    Iterator<Entry> eldest = entries.values().iterator();
+                    eldest.next();
+                    eldest.remove();
+                    sizeEvictionCounter.increment();
+                }
+            }
+        }
+        return value;
+    }
+    
+    /**
+     * Evict every entry whose range could include a point in time
+     * @param time Order creation time
+     */
+    public synchronized void invalidate(LocalDateTime time) {
+        if (time == null) {
+            return;
+        }
+        long day = TimeBuckets.epochDay(time);
+        invalidations++;
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (day >= entry.dependencyFrom && day <= entry.dependencyTo) {
+                iterator.remove();
+                invalidationEvictionCounter.increment();
+            }
+        }
+    }
+    
+    // Runs after completion, i.e. once every after-commit listener has updated its engine
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        invalidate(event.getCreatedAt());
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        invalidate(event.getOrderCreatedAt());
+    }
+    
+    public synchronized int size() {
+        return entries.size();
+    }
+    
+    private static final class Entry {
+        private final Map<String, Object> value;
+        private final long dependencyFrom;
+        private final long dependencyTo;
+        private final long createdAt;
+        
+        private Entry(Map<String, Object> value, long dependencyFrom, long dependencyTo, long createdAt) {
+            this.value = value;
+            this.dependencyFrom = dependencyFrom;
+            this.dependencyTo = dependencyTo;
+            this.createdAt = createdAt;
+        }
+    }
+}
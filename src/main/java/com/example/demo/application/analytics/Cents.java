@@ -0,0 +1,34 @@
+package com.example.demo.application.analytics;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Monetary amount helpers for analytics
+ * Analytics state keeps money as long cents so counters stay primitive and exact
+ */
+public final class Cents {
+    
+    private Cents() {}
+    
+    /**
+     * Convert a monetary amount to cents
+     * @param amount Amount (null treated as zero)
+     * @return Amount in cents
+     */
+    public static long of(BigDecimal amount) {
+        if (amount == null) {
+            return 0L;
+        }
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+    }
+    
+    /**
+     * Convert cents back to a monetary amount with scale 2
+     * @param cents Amount in cents
+     * @return Monetary amount
+     */
+    public static BigDecimal toAmount(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+}
@@ -0,0 +1,284 @@
+package com.example.demo.application.analytics;
+
+import com.example.demo.application.analytics.collection.LongLongHashMap;
+import com.example.demo.application.analytics.snapshot.AnalyticsSnapshotManager;
+import com.example.demo.application.analytics.snapshot.SnapshotParticipant;
+import com.example.demo.domain.event.OrderPlacedEvent;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Cohort Engine
+ * Application Layer - Analytics
+ * Groups customers by the month of their first order and keeps, per cohort and
+ * per month since that first order, the number of distinct active customers and
+ * the revenue they spent. Each order touches one cohort cell, so retention
+ * matrices and lifetime value are read straight from the maintained counts and
+ * never require grouping the order history by customer.
+ * Restored from the analytics snapshot, or seeded with one streaming pass over
+ * all orders in ID order, before the web server accepts requests, then updated
+ * from order events after each transaction commits; a customer's cohort is the
+ * month of the first order seen for them.
+ */
+@Component
+public class CohortEngine implements SmartInitializingSingleton, SnapshotParticipant {
+    
+    private static final int MONTH_BITS = 20;
+    private static final long MONTH_MASK = (1L << MONTH_BITS) - 1;
+    private static final long ABSENT = -1;
+    
+    private final OrderScanner orderScanner;
+    private final AnalyticsSnapshotManager snapshotManager;
+    private LongLongHashMap customerCohorts = new LongLongHashMap(1024);
+    private LongLongHashMap activeMonths = new LongLongHashMap(4096);
+    private TreeMap<Long, Cohort> cohorts = new TreeMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    public CohortEngine(OrderScanner orderScanner, AnalyticsSnapshotManager snapshotManager) {
+        this.orderScanner = orderScanner;
+        this.snapshotManager = snapshotManager;
+    }
+    
+    @Override
+    public void afterSingletonsInstantiated() {
+        orderScanner.forEachSummary(snapshotManager.restore(this), summary -> record(summary.getCustomerId(),
+                Cents.of(summary.getTotalAmount()), summary.getCreatedAt()));
+    }
+    
+    @Override
+    public String getSnapshotName() {
+        return "cohorts";
+    }
+    
+    @Override
+    public int getSnapshotVersion() {
+        return 1;
+    }
+    
+    @Override
+    public void writeSnapshot(DataOutputStream out) throws IOException {
+        lock.readLock().lock();
+        try {
+            customerCohorts.writeTo(out);
+            activeMonths.writeTo(out);
+            out.writeInt(cohorts.size());
+            for (Map.Entry<Long, Cohort> entry : cohorts.entrySet()) {
+                Cohort cohort = entry.getValue();
+                out.writeLong(entry.getKey());
+                out.writeLong(cohort.customers);
+                out.writeInt(cohort.months);
+                for (int offset = 0; offset < cohort.months; offset++) {
+                    out.writeLong(cohort.active[offset]);
+                    out.writeLong(cohort.revenueCents[offset]);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    @Override
+    public void readSnapshot(DataInputStream in) throws IOException {
+        LongLongHashMap restoredCustomers = LongLongHashMap.readFrom(in);
+        LongLongHashMap restoredActive = LongLongHashMap.readFrom(in);
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("Negative cohort count " + count);
+        }
+        TreeMap<Long, Cohort> restoredCohorts = new TreeMap<>();
+        for (int i = 0; i < count; i++) {
+            long month = in.readLong();
+            Cohort cohort = new Cohort();
+            cohort.customers = in.readLong();
+            int months = in.readInt();
+            if (months < 0) {
+                throw new IOException("Negative cohort length " + months);
+            }
+            if (months > 0) {
+                cohort.ensureOffset(months - 1);
+            }
+            for (int offset = 0; offset < months; offset++) {
+                cohort.active[offset] = in.readLong();
+                cohort.revenueCents[offset] = in.readLong();
+            }
+            restoredCohorts.put(month, cohort);
+        }
+        lock.writeLock().lock();
+        try {
+            customerCohorts = restoredCustomers;
+            activeMonths = restoredActive;
+            cohorts = restoredCohorts;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        record(event.getCustomerId(), Cents.of(event.getTotalAmount()), event.getCreatedAt());
+    }
+    
+    /**
+     * Record an order against its customer's cohort
+     * @param customerId Customer ID
+     * @param revenueCents Order total in cents
+     * @param createdAt Order creation time
+     */
+    public void record(Long customerId, long revenueCents, LocalDateTime createdAt) {
+        if (customerId == null || createdAt == null) {
+            return;
+        }
+        long month = epochMonth(createdAt);
+        lock.writeLock().lock();
+        try {
+            long cohortMonth = customerCohorts.get(customerId, ABSENT);
+            Cohort cohort;
+            if (cohortMonth == ABSENT) {
+                cohortMonth = month;
+                customerCohorts.put(customerId, cohortMonth);
+                cohort = cohorts.computeIfAbsent(cohortMonth, key -> new Cohort());
+                cohort.customers++;
+            } else {
+                cohort = cohorts.get(cohortMonth);
+            }
+            int offset = (int) Math.max(0, month - cohortMonth);
+            cohort.ensureOffset(offset);
+            long activeKey = (customerId << MONTH_BITS) | (month & MONTH_MASK);
+            if (!activeMonths.containsKey(activeKey)) {
+                activeMonths.put(activeKey, 1);
+                cohort.active[offset]++;
+            }
+            cohort.revenueCents[offset] += revenueCents;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Get the retention and lifetime value matrix of the most recent cohorts
+     * @param months Number of cohorts, counted back from the current month
+     * @return Cohorts in month order, each with one value per month since first order
+     */
+    public List<CohortRow> matrix(int months) {
+        if (months < 1) {
+            throw new IllegalArgumentException("Months must be positive");
+        }
+        long currentMonth = epochMonth(LocalDateTime.now());
+        long firstMonth = currentMonth - months + 1;
+        List<CohortRow> rows = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Map.Entry<Long, Cohort> entry : cohorts.tailMap(firstMonth, true).entrySet()) {
+                rows.add(entry.getValue().toRow(entry.getKey(), currentMonth));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return rows;
+    }
+    
+    /**
+     * Get the average revenue per customer across every cohort
+     * @return Lifetime value, or zero before the first order
+     */
+    public BigDecimal getAverageLifetimeValue() {
+        long customers = 0;
+        long revenueCents = 0;
+        lock.readLock().lock();
+        try {
+            for (Cohort cohort : cohorts.values()) {
+                customers += cohort.customers;
+                revenueCents += cohort.totalRevenueCents();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return customers == 0 ? BigDecimal.ZERO
+                : Cents.toAmount(revenueCents).divide(BigDecimal.valueOf(customers), 2, RoundingMode.HALF_UP);
+    }
+    
+    private static long epochMonth(LocalDateTime time) {
+        return time.getYear() * 12L + time.getMonthValue() - 1;
+    }
+    
+    private static final class Cohort {
+        private long customers;
+        private long[] active = new long[12];
+        private long[] revenueCents = new long[12];
+        private int months;
+        
+        private void ensureOffset(int offset) {
+            if (offset >= active.length) {
+                int length = Math.max(offset + 1, active.length * 2);
+                active = Arrays.copyOf(active, length);
+                revenueCents = Arrays.copyOf(revenueCents, length);
+            }
+            months = Math.max(months, offset + 1);
+        }
+        
+        private long totalRevenueCents() {
+            long total = 0;
+            for (int offset = 0; offset < months; offset++) {
+                total += revenueCents[offset];
+            }
+            return total;
+        }
+        
+        private CohortRow toRow(long epochMonth, long currentMonth) {
+            // Months without activity up to the current one are reported as zero retention
+            int span = (int) Math.max(months, currentMonth - epochMonth + 1);
+            List<Double> retention = new ArrayList<>(span);
+            List<BigDecimal> lifetimeValue = new ArrayList<>(span);
+            long cumulativeCents = 0;
+            for (int offset = 0; offset < span; offset++) {
+                long activeCustomers = offset < months ? active[offset] : 0;
+                retention.add(customers == 0 ? 0.0 : Math.round(activeCustomers * 1000.0 / customers) / 10.0);
+                cumulativeCents += offset < months ? revenueCents[offset] : 0;
+                lifetimeValue.add(Cents.toAmount(cumulativeCents)
+                        .divide(BigDecimal.valueOf(Math.max(1, customers)), 2, RoundingMode.HALF_UP));
+            }
+            YearMonth month = YearMonth.of((int) Math.floorDiv(epochMonth, 12), Math.floorMod(epochMonth, 12) + 1);
+            return new CohortRow(month.toString(), customers, retention, lifetimeValue);
+        }
+    }
+    
+    /**
+     * One cohort of the retention matrix
+     */
+    public static class CohortRow {
+        private final String cohort;
+        private final long customers;
+        private final List<Double> retention;
+        private final List<BigDecimal> lifetimeValue;
+        
+        public CohortRow(String cohort, long customers, List<Double> retention, List<BigDecimal> lifetimeValue) {
+            this.cohort = cohort;
+            this.customers = customers;
+            this.retention = retention;
+            this.lifetimeValue = lifetimeValue;
+        }
+        
+        public String getCohort() { return cohort; }
+        public long getCustomers() { return customers; }
+        /** Percent of the cohort active in each month since their first order */
+        public List<Double> getRetention() { return retention; }
+        /** Cumulative revenue per cohort customer at the end of each month since their first order */
+        public List<BigDecimal> getLifetimeValue() { return lifetimeValue; }
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.demo.application.analytics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Composite Query Executor
+ * Application Layer - Analytics
+ * Runs the independent sections of a composite response (dashboard, real-time
+ * view) concurrently, one virtual thread per section, so the response takes as
+ * long as its slowest section rather than the sum of all of them. Sections that
+ * read the database get a read-only transaction each; sections served from
+ * memory run without one and never hold a connection. Every section has its
+ * own deadline measured from the start of the request; a section that fails or
+ * misses its deadline is left out of the response, which is then flagged as
+ * partial and names the missing sections, while every other section is still
+ * returned.
+ */
+@Component
+public class CompositeQueryExecutor {
+    
+    private static final Logger log = LoggerFactory.getLogger(CompositeQueryExecutor.class);
+    
+    private static final String PARTIAL = "partial";
+    private static final String UNAVAILABLE_SECTIONS = "unavailableSections";
+    
+    private final ExecutorService executor;
+    private final TransactionTemplate readTransaction;
+    private final Duration defaultTimeout;
+    
+    private final Counter completedCounter;
+    private final Counter failedCounter;
+    private final Counter timedOutCounter;
+    
+    public CompositeQueryExecutor(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                                  @Value("${analytics.composite.section-timeout-ms:2000}") long sectionTimeoutMs) {
+        if (sectionTimeoutMs < 1) {
+            throw new IllegalArgumentException("Section timeout must be positive");
+        }
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("analytics-section-", 0).factory());
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.defaultTimeout = Duration.ofMillis(sectionTimeoutMs);
+        
+        this.completedCounter = Counter.builder("analytics.composite.sections")
+                .tag("outcome", "completed")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("analytics.composite.sections")
+                .tag("outcome", "failed")
+                .register(meterRegistry);
+        this.timedOutCounter = Counter.builder("analytics.composite.sections")
+                .tag("outcome", "timeout")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Create a section with the default timeout
+     * @param name Section name, reported when the section is unavailable
+     * @param query Computes the response fields of the section
+     * @return Section
+     */
+    public Section section(String name, Supplier<Map<String, Object>> query) {
+        return new Section(name, defaultTimeout, true, query);
+    }
+    
+    /**
+     * Create a section that only reads in-memory state, with the default timeout
+     * It runs without a transaction, so it never takes a database connection
+     * @param name Section name, reported when the section is unavailable
+     * @param query Computes the response fields of the section
+     * @return Section
+     */
+    public Section memorySection(String name, Supplier<Map<String, Object>> query) {
+        return new Section(name, defaultTimeout, false, query);
+    }
+    
+    /**
+     * Create a section with its own timeout
+     * @param name Section name, reported when the section is unavailable
+     * @param timeout Time allowed from the start of the request
+     * @param query Computes the response fields of the section
+     * @return Section
+     */
+    public Section section(String name, Duration timeout, Supplier<Map<String, Object>> query) {
+        if (timeout == null || timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("Section timeout must be positive");
+        }
+        return new Section(name, timeout, true, query);
+    }
+    
+    /**
+     * Run sections concurrently and merge their fields into one response
+     * @param sections Independent sections
+     * @return Fields of every completed section, the partial flag and, when partial,
+     *         the reason each unavailable section is missing
+     */
+    public Map<String, Object> execute(List<Section> sections) {
+        long started = System.nanoTime();
+        List<Future<Map<String, Object>>> futures = new ArrayList<>(sections.size());
+        for (Section section : sections) {
+            futures.add(executor.submit(() -> section.readsDatabase
+                    ? readTransaction.execute(status -> section.query.get())
+                    : section.query.get()));
+        }
+        
+        Map<String, Object> response = new LinkedHashMap<>();
+        Map<String, String> unavailable = new LinkedHashMap<>();
+        for (int i = 0; i < sections.size(); i++) {
+            Section section = sections.get(i);
+            Future<Map<String, Object>> future = futures.get(i);
+            long remaining = section.timeout.toNanos() - (System.nanoTime() - started);
+            try {
+                Map<String, Object> fields = future.get(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+                if (fields != null) {
+                    response.putAll(fields);
+                }
+                completedCounter.increment();
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                unavailable.put(section.name, "timeout");
+                timedOutCounter.increment();
+            } catch (ExecutionException e) {
+                log.warn("Analytics section {} failed", section.name, e.getCause());
+                unavailable.put(section.name, "failed");
+                failedCounter.increment();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                unavailable.put(section.name, "interrupted");
+            }
+        }
+        
+        response.put(PARTIAL, !unavailable.isEmpty());
+        if (!unavailable.isEmpty()) {
+            response.put(UNAVAILABLE_SECTIONS, unavailable);
+        }
+        return response;
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    /**
+     * Independent part of a composite response
+     */
+    public static final class Section {
+        private final String name;
+        private final Duration timeout;
+        private final boolean readsDatabase;
+        private final Supplier<Map<String, Object>> query;
+        
+        private Section(String name, Duration timeout, boolean readsDatabase, Supplier<Map<String, Object>> query) {
+            this.name = name;
+            this.timeout = timeout;
+            this.readsDatabase = readsDatabase;
+            this.query = query;
+        }
+        
+        public String getName() { return name; }
+        public Duration getTimeout() { return timeout; }
+    }
+}
@@ -0,0 +1,397 @@
+package com.example.demo.application.analytics;
+
+import com.example.demo.application.analytics.ingest.AnalyticsEventSink;
+import com.example.demo.application.analytics.snapshot.AnalyticsSnapshotManager;
+import com.example.demo.application.analytics.snapshot.SnapshotParticipant;
+import com.example.demo.domain.event.AnalyticsEvent;
+import com.example.demo.domain.event.OrderPlacedEvent;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Conversion Funnel Engine
+ * Application Layer - Analytics
+ * Follows every session through the steps view, add to cart, checkout and
+ * order, and counts per hour how many sessions reached each position of every
+ * funnel that can be built from those steps in that order (15 funnels). A
+ * session's progress through all of them fits in one long of 3-bit counters,
+ * kept in an access-ordered map that drops sessions idle for longer than the
+ * session timeout and evicts the least recently active ones beyond its size
+ * limit. A step older than the latest one seen in its session is ignored.
+ * A placed order is attributed to the latest session its customer was seen
+ * in, or to a session of its own. A funnel over any date range is the sum of
+ * its hourly counters, so no raw events are read at query time.
+ * Event-driven steps are rebuilt from the event ingestion pipeline (and its log
+ * replay); order steps are restored from the analytics snapshot, and orders it
+ * does not cover are seeded as sessions of their own, before the web server
+ * accepts requests, then follow order events after each transaction commits.
+ * Seeding never looks at replayed sessions, so the counters do not depend on
+ * whether the event log is replayed before or after it.
+ */
+@Component
+public class ConversionFunnelEngine implements AnalyticsEventSink, SmartInitializingSingleton, SnapshotParticipant {
+    
+    /**
+     * Funnel steps in the order a session passes through them
+     */
+    public enum Step {
+        VIEW, ADD_TO_CART, CHECKOUT, ORDER;
+        
+        /**
+         * Parse a step name, ignoring case
+         * @param name Step name
+         * @return Step
+         * @throws IllegalArgumentException if the name is unknown
+         */
+        public static Step fromName(String name) {
+            try {
+                return valueOf(name.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException | NullPointerException e) {
+                throw new IllegalArgumentException("Unknown funnel step '" + name
+                        + "', expected one of [view, add_to_cart, checkout, order]");
+            }
+        }
+    }
+    
+    private static final int STEPS = Step.values().length;
+    private static final int FUNNELS = 1 << STEPS;
+    private static final int PROGRESS_BITS = 3;
+    private static final long PROGRESS_MASK = (1L << PROGRESS_BITS) - 1;
+    private static final int ORDER_BIT = 1 << Step.ORDER.ordinal();
+    
+    private final OrderScanner orderScanner;
+    private final AnalyticsSnapshotManager snapshotManager;
+    private final long sessionTimeoutSeconds;
+    private final Map<String, Session> sessions;
+    private final Map<Long, String> customerSessions;
+    // Epoch hour -> sessions reaching position p of funnel f, at index f * STEPS + p
+    private final NavigableMap<Long, long[]> hours = new TreeMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    public ConversionFunnelEngine(OrderScanner orderScanner, AnalyticsSnapshotManager snapshotManager,
+                                  @Value("${analytics.funnel.max-sessions:100000}") int maxSessions,
+                                  @Value("${analytics.funnel.session-timeout-minutes:30}") long sessionTimeoutMinutes) {
+        if (maxSessions < 1) {
+            throw new IllegalArgumentException("Maximum session count must be positive");
+        }
+        if (sessionTimeoutMinutes < 1) {
+            throw new IllegalArgumentException("Session timeout must be positive");
+        }
+        this.orderScanner = orderScanner;
+        this.snapshotManager = snapshotManager;
+        this.sessionTimeoutSeconds = sessionTimeoutMinutes * 60;
+        this.sessions = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Session> eldest) {
+                return size() > maxSessions;
+            }
+        };
+        this.customerSessions = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, String> eldest) {
+                return size() > maxSessions;
+            }
+        };
+    }
+    
+    @Override
+    public void afterSingletonsInstantiated() {
+        orderScanner.forEachSummary(snapshotManager.restore(this),
+                summary -> {
+                    if (summary.getCustomerId() != null) {
+                        seedOrder(summary.getCreatedAt());
+                    }
+                });
+    }
+    
+    @Override
+    public String getSnapshotName() {
+        return "funnel-orders";
+    }
+    
+    @Override
+    public int getSnapshotVersion() {
+        return 1;
+    }
+    
+    // Only the order positions are stored; the others are replayed from the event log
+    @Override
+    public void writeSnapshot(DataOutputStream out) throws IOException {
+        lock.readLock().lock();
+        try {
+            out.writeInt(hours.size());
+            for (Map.Entry<Long, long[]> hour : hours.entrySet()) {
+                out.writeLong(hour.getKey());
+                for (int funnel = ORDER_BIT; funnel < FUNNELS; funnel++) {
+                    out.writeLong(hour.getValue()[orderIndex(funnel)]);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    // Adds to the current counters, which may already hold steps replayed from the event log
+    @Override
+    public void readSnapshot(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("Negative hour count " + count);
+        }
+        long[] restored = new long[count * (FUNNELS - ORDER_BIT + 1)];
+        for (int i = 0; i < restored.length; i++) {
+            restored[i] = in.readLong();
+        }
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < restored.length; i += FUNNELS - ORDER_BIT + 1) {
+                long[] counters = hours.computeIfAbsent(restored[i], hour -> new long[FUNNELS * STEPS]);
+                for (int funnel = ORDER_BIT; funnel < FUNNELS; funnel++) {
+                    counters[orderIndex(funnel)] += restored[i + 1 + funnel - ORDER_BIT];
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public void accept(List<AnalyticsEvent> batch) {
+        lock.writeLock().lock();
+        try {
+            for (AnalyticsEvent event : batch) {
+                Step step = switch (event.getType()) {
+                    case AnalyticsEvent.PRODUCT_VIEWED -> Step.VIEW;
+                    case AnalyticsEvent.PRODUCT_ADDED_TO_CART -> Step.ADD_TO_CART;
+                    case AnalyticsEvent.CHECKOUT_STARTED -> Step.CHECKOUT;
+                    default -> null;
+                };
+                if (step == null || event.getSessionId() == null) {
+                    continue;
+                }
+                if (event.getCustomerId() != null) {
+                    customerSessions.put(event.getCustomerId(), event.getSessionId());
+                }
+                advance(event.getSessionId(), step, event.getOccurredAt());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        recordOrder(event.getCustomerId(), event.getCreatedAt());
+    }
+    
+    /**
+     * Record a placed order against its customer's latest session
+     * @param customerId Customer ID
+     * @param placedAt Order creation time
+     */
+    public void recordOrder(Long customerId, LocalDateTime placedAt) {
+        if (customerId == null || placedAt == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            String sessionId = customerSessions.get(customerId);
+            advance(sessionId != null ? sessionId : "customer:" + customerId, Step.ORDER, placedAt);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Record a historical order as a session of its own that reached only the order step
+     * @param placedAt Order creation time
+     */
+    public void seedOrder(LocalDateTime placedAt) {
+        if (placedAt == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            long[] counters = hours.computeIfAbsent(TimeBuckets.epochHour(placedAt), hour -> new long[FUNNELS * STEPS]);
+            counters[orderIndex(ORDER_BIT)]++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    // Caller holds the write lock
+    private void advance(String sessionId, Step step, LocalDateTime occurredAt) {
+        long second = occurredAt.toEpochSecond(ZoneOffset.UTC);
+        expireIdleSessions(second);
+        Session session = sessions.get(sessionId);
+        if (session != null && second < session.lastSeenSecond) {
+            // Out of order for this session; counting it would credit a later step before an earlier one
+            return;
+        }
+        if (session == null || second - session.lastSeenSecond > sessionTimeoutSeconds) {
+            session = new Session();
+            sessions.put(sessionId, session);
+        }
+        session.lastSeenSecond = second;
+        
+        long[] counters = null;
+        int bit = 1 << step.ordinal();
+        for (int funnel = bit; funnel < FUNNELS; funnel = (funnel + 1) | bit) {
+            int position = Integer.bitCount(funnel & (bit - 1));
+            int shift = (funnel - 1) * PROGRESS_BITS;
+            if (((session.progress >>> shift) & PROGRESS_MASK) != position) {
+                continue;
+            }
+            session.progress += 1L << shift;
+            if (counters == null) {
+                counters = hours.computeIfAbsent(TimeBuckets.epochHour(occurredAt), hour -> new long[FUNNELS * STEPS]);
+            }
+            counters[funnel * STEPS + position]++;
+        }
+    }
+    
+    // Access order keeps the least recently active session first
+    private void expireIdleSessions(long nowSecond) {
+        var iterator = sessions.values().iterator();
+        while (iterator.hasNext()) {
+            if (nowSecond - iterator.next().lastSeenSecond <= sessionTimeoutSeconds) {
+                break;
+            }
+            iterator.remove();
+        }
+    }
+    
+    /**
+     * Count the sessions reaching each step of a funnel in an inclusive date range
+     * Sessions are counted in the hour they reached a step, and the range is widened to whole hours
+     * @param steps Funnel steps, distinct and in the order view, add_to_cart, checkout, order
+     * @param startDate Start date (inclusive)
+     * @param endDate End date (inclusive)
+     * @return Sessions and conversion per step
+     * @throws IllegalArgumentException if the steps are empty, repeated or out of order
+     */
+    public Funnel funnel(List<Step> steps, LocalDateTime startDate, LocalDateTime endDate) {
+        if (startDate == null || endDate == null) {
+            throw new IllegalArgumentException("Start date and end date cannot be null");
+        }
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date cannot be after end date");
+        }
+        if (steps == null || steps.isEmpty()) {
+            throw new IllegalArgumentException("At least one funnel step is required");
+        }
+        int funnel = 0;
+        for (int i = 0; i < steps.size(); i++) {
+            if (i > 0 && steps.get(i).ordinal() <= steps.get(i - 1).ordinal()) {
+                throw new IllegalArgumentException(
+                        "Funnel steps must be distinct and in the order view, add_to_cart, checkout, order");
+            }
+            funnel |= 1 << steps.get(i).ordinal();
+        }
+        
+        long[] reached = new long[steps.size()];
+        lock.readLock().lock();
+        try {
+            for (long[] counters : hours.subMap(TimeBuckets.epochHour(startDate), true,
+                    TimeBuckets.epochHour(endDate), true).values()) {
+                for (int position = 0; position < reached.length; position++) {
+                    reached[position] += counters[funnel * STEPS + position];
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        
+        List<StepCount> counts = new ArrayList<>(steps.size());
+        for (int position = 0; position < reached.length; position++) {
+            counts.add(new StepCount(steps.get(position), reached[position],
+                    position == 0 ? 100.0 : percent(reached[position], reached[position - 1]),
+                    percent(reached[position], reached[0])));
+        }
+        return new Funnel(counts);
+    }
+    
+    public int getActiveSessionCount() {
+        lock.readLock().lock();
+        try {
+            return sessions.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private static int orderIndex(int funnel) {
+        return funnel * STEPS + Integer.bitCount(funnel) - 1;
+    }
+    
+    private static double percent(long part, long whole) {
+        return whole > 0 ? Math.round(part * 1000.0 / whole) / 10.0 : 0.0;
+    }
+    
+    /**
+     * Funnel progress of one session: 3 bits per funnel, indexed by funnel bitmask - 1
+     */
+    private static final class Session {
+        private long progress;
+        private long lastSeenSecond = Long.MIN_VALUE;
+    }
+    
+    /**
+     * Sessions and conversion at one step of a funnel
+     */
+    public static final class StepCount {
+        private final Step step;
+        private final long sessions;
+        private final double conversionFromPrevious;
+        private final double conversionFromStart;
+        
+        StepCount(Step step, long sessions, double conversionFromPrevious, double conversionFromStart) {
+            this.step = step;
+            this.sessions = sessions;
+            this.conversionFromPrevious = conversionFromPrevious;
+            this.conversionFromStart = conversionFromStart;
+        }
+        
+        public Step getStep() { return step; }
+        public long getSessions() { return sessions; }
+        /** Percentage of the previous step's sessions that reached this step */
+        public double getConversionFromPrevious() { return conversionFromPrevious; }
+        /** Percentage of the first step's sessions that reached this step */
+        public double getConversionFromStart() { return conversionFromStart; }
+    }
+    
+    /**
+     * Step counts of a funnel in step order
+     */
+    public static final class Funnel {
+        private final List<StepCount> steps;
+        
+        Funnel(List<StepCount> steps) {
+            this.steps = steps;
+        }
+        
+        public List<StepCount> getSteps() { return steps; }
+        
+        /** Percentage of the first step's sessions that reached the last step */
+        public double getConversionRate() {
+            return steps.get(steps.size() - 1).getConversionFromStart();
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.example.demo.application.analytics;
+
+import com.example.demo.application.analytics.collection.LongLongHashMap;
+import com.example.demo.application.analytics.snapshot.AnalyticsSnapshotManager;
+import com.example.demo.application.analytics.snapshot.SnapshotParticipant;
+import com.example.demo.domain.event.OrderPlacedEvent;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Customer First-Seen Index
+ * Application Layer - Analytics
+ * Maps every customer to the epoch second of their first order in a primitive
+ * hash map, and keeps the same first-order times as one sorted array per UTC
+ * day, so "new customers in a range" is an exact count that adds up whole days
+ * and binary-searches the two partial ones, in time proportional to the days
+ * in the range rather than the customers, for about 8 more bytes per customer.
+ * Restored from the analytics snapshot, or seeded with one streaming pass over
+ * all orders, before the web server accepts requests, then updated from order
+ * events after each transaction commits.
+ */
+@Component
+public class CustomerFirstSeenIndex implements SmartInitializingSingleton, SnapshotParticipant {
+    
+    private static final long ABSENT = Long.MAX_VALUE;
+    private static final long SECONDS_PER_DAY = 86400;
+    
+    private final OrderScanner orderScanner;
+    private final AnalyticsSnapshotManager snapshotManager;
+    private LongLongHashMap firstSeen = new LongLongHashMap(1024);
+    private NavigableMap<Long, DaySeconds> days = new TreeMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    public CustomerFirstSeenIndex(OrderScanner orderScanner, AnalyticsSnapshotManager snapshotManager) {
+        this.orderScanner = orderScanner;
+        this.snapshotManager = snapshotManager;
+    }
+    
+    @Override
+    public void afterSingletonsInstantiated() {
+        orderScanner.forEachSummary(snapshotManager.restore(this),
+                summary -> record(summary.getCustomerId(), summary.getCreatedAt()));
+    }
+    
+    @Override
+    public String getSnapshotName() {
+        return "customer-first-seen";
+    }
+    
+    @Override
+    public int getSnapshotVersion() {
+        return 1;
+    }
+    
+    @Override
+    public void writeSnapshot(DataOutputStream out) throws IOException {
+        lock.readLock().lock();
+        try {
+            firstSeen.writeTo(out);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    @Override
+    public void readSnapshot(DataInputStream in) throws IOException {
+        LongLongHashMap restored = LongLongHashMap.readFrom(in);
+        NavigableMap<Long, DaySeconds> restoredDays = new TreeMap<>();
+        restored.forEach((customerId, second) -> daySeconds(restoredDays, second).add(second));
+        lock.writeLock().lock();
+        try {
+            firstSeen = restored;
+            days = restoredDays;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        record(event.getCustomerId(), event.getCreatedAt());
+    }
+    
+    /**
+     * Record an order, keeping the earliest order time per customer
+     * @param customerId Customer ID
+     * @param createdAt Order creation time
+     */
+    public void record(Long customerId, LocalDateTime createdAt) {
+        if (customerId == null || createdAt == null) {
+            return;
+        }
+        long second = createdAt.toEpochSecond(ZoneOffset.UTC);
+        lock.writeLock().lock();
+        try {
+            long previous = firstSeen.get(customerId, ABSENT);
+            if (second < previous) {
+                firstSeen.put(customerId, second);
+                if (previous != ABSENT) {
+                    long previousDay = Math.floorDiv(previous, SECONDS_PER_DAY);
+                    DaySeconds day = days.get(previousDay);
+                    day.remove(previous);
+                    if (day.size == 0) {
+                        days.remove(previousDay);
+                    }
+                }
+                daySeconds(days, second).add(second);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Get the time of a customer's first order
+     * @param customerId Customer ID
+     * @return First order time, or null if the customer has never ordered
+     */
+    public LocalDateTime getFirstSeen(long customerId) {
+        long second;
+        lock.readLock().lock();
+        try {
+            second = firstSeen.get(customerId, ABSENT);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return second == ABSENT ? null : LocalDateTime.ofEpochSecond(second, 0, ZoneOffset.UTC);
+    }
+    
+    /**
+     * Check whether an order was its customer's first
+     * @param customerId Customer ID
+     * @param createdAtSecond Order creation time in epoch seconds
+     * @return true if no earlier order of the customer is known
+     */
+    public boolean isFirstOrder(long customerId, long createdAtSecond) {
+        lock.readLock().lock();
+        try {
+            return firstSeen.get(customerId, ABSENT) >= createdAtSecond;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Count customers whose first order falls in an inclusive date range
+     * @param startDate Start date (inclusive)
+     * @param endDate End date (inclusive)
+     * @return Number of new customers
+     */
+    public long countFirstSeenBetween(LocalDateTime startDate, LocalDateTime endDate) {
+        long from = startDate.toEpochSecond(ZoneOffset.UTC);
+        long to = endDate.toEpochSecond(ZoneOffset.UTC);
+        if (from > to) {
+            return 0;
+        }
+        long count = 0;
+        lock.readLock().lock();
+        try {
+            for (Map.Entry<Long, DaySeconds> entry : days.subMap(Math.floorDiv(from, SECONDS_PER_DAY), true,
+                    Math.floorDiv(to, SECONDS_PER_DAY), true).entrySet()) {
+                long dayStart = entry.getKey() * SECONDS_PER_DAY;
+                DaySeconds day = entry.getValue();
+                count += from <= dayStart && dayStart + SECONDS_PER_DAY - 1 <= to
+                        ? day.size
+                        : day.countBetween(from, to);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return count;
+    }
+    
+    public int getCustomerCount() {
+        lock.readLock().lock();
+        try {
+            return firstSeen.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private static DaySeconds daySeconds(NavigableMap<Long, DaySeconds> days, long second) {
+        return days.computeIfAbsent(Math.floorDiv(second, SECONDS_PER_DAY), day -> new DaySeconds());
+    }
+    
+    /**
+     * Sorted first-order times of the customers first seen on one day
+     */
+    private static final class DaySeconds {
+        private long[] seconds = new long[4];
+        private int size;
+        
+        void add(long second) {
+            // Orders mostly arrive in time order, so this is usually an append
+            int index = size == 0 || seconds[size - 1] <= second ? size : lowerBound(second);
+            if (size == seconds.length) {
+                seconds = Arrays.copyOf(seconds, size * 2);
+            }
+            System.arraycopy(seconds, index, seconds, index + 1, size - index);
+            seconds[index] = second;
+            size++;
+        }
+        
+        void remove(long second) {
+            int index = lowerBound(second);
+            if (index < size && seconds[index] == second) {
+                System.arraycopy(seconds, index + 1, seconds, index, size - index - 1);
+                size--;
+            }
+        }
+        
+        long countBetween(long from, long to) {
+            return lowerBound(to + 1) - lowerBound(from);
+        }
+        
+        // First index whose time is at least the given second
+        private int lowerBound(long second) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (seconds[mid] < second) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.demo.application.analytics;
+
+import com.example.demo.application.analytics.sketch.HyperLogLog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Growth Engine
+ * Application Layer - Analytics
+ * Compares a window with the window of equal length immediately before it.
+ * A window is split into its whole days and the partial days at either edge.
+ * Totals of whole days that are closed (ending before now, minus a grace
+ * period for in-flight commits) can never change, so each span of them is
+ * computed once and kept, with its customer sketch, as an immutable value in a
+ * bounded LRU cache keyed by its epoch days; the partial edges are recomputed
+ * from the rollups on every call. Windows built from the current time thus hit
+ * the cache for the rest of the day, and the open current window is usually
+ * already summarized by the caller.
+ */
+@Component
+public class GrowthEngine {
+    
+    private final ParallelSalesAggregator parallelSalesAggregator;
+    private final Duration closedGrace;
+    private final Map<String, ClosedDays> closedDays;
+    
+    public GrowthEngine(ParallelSalesAggregator parallelSalesAggregator,
+                        @Value("${analytics.growth.cache-size:512}") int cacheSize,
+                        @Value("${analytics.growth.closed-grace-seconds:60}") long closedGraceSeconds) {
+        this.parallelSalesAggregator = parallelSalesAggregator;
+        this.closedGrace = Duration.ofSeconds(closedGraceSeconds);
+        this.closedDays = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ClosedDays> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+    
+    /**
+     * Compare a window with the preceding window of the same length
+     * @param startDate Start date (inclusive)
+     * @param endDate End date (inclusive)
+     * @param current Summary of the window, if the caller already has it
+     * @return Growth of the window over the previous one
+     */
+    public Growth compare(LocalDateTime startDate, LocalDateTime endDate, SalesSummary current) {
+        LocalDateTime endExclusive = TimeBuckets.exclusiveEnd(endDate);
+        Duration length = Duration.between(startDate, endExclusive);
+        WindowTotals currentTotals = current != null ? WindowTotals.of(current) : totals(startDate, endExclusive);
+        WindowTotals previousTotals = totals(startDate.minus(length), startDate);
+        return new Growth(currentTotals, previousTotals);
+    }
+    
+    /**
+     * Get the totals of a half-open window, taking its closed whole days from the cache
+     * @param startDate Start date (inclusive)
+     * @param endDate End date (exclusive)
+     * @return Window totals
+     */
+    public WindowTotals totals(LocalDateTime startDate, LocalDateTime endDate) {
+        LocalDateTime firstDay = TimeBuckets.ceilDay(startDate);
+        LocalDateTime lastDay = endDate.truncatedTo(ChronoUnit.DAYS);
+        if (!firstDay.isBefore(lastDay) || !lastDay.isBefore(LocalDateTime.now().minus(closedGrace))) {
+            return WindowTotals.of(summarize(startDate, endDate));
+        }
+        SalesSummary edges = summarize(startDate, firstDay);
+        edges.merge(summarize(lastDay, endDate));
+        return closedDays(firstDay, lastDay).plus(edges);
+    }
+    
+    public int getCachedSpanCount() {
+        synchronized (closedDays) {
+            return closedDays.size();
+        }
+    }
+    
+    private ClosedDays closedDays(LocalDateTime firstDay, LocalDateTime lastDay) {
+        String key = TimeBuckets.epochDay(firstDay) + "/" + TimeBuckets.epochDay(lastDay);
+        synchronized (closedDays) {
+            ClosedDays cached = closedDays.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        ClosedDays days = new ClosedDays(summarize(firstDay, lastDay));
+        synchronized (closedDays) {
+            closedDays.put(key, days);
+        }
+        return days;
+    }
+    
+    private SalesSummary summarize(LocalDateTime startDate, LocalDateTime endDate) {
+        if (!startDate.isBefore(endDate)) {
+            return new SalesSummary();
+        }
+        return parallelSalesAggregator.summarize(startDate, endDate.minusNanos(1)).getSummary();
+    }
+    
+    /**
+     * Immutable totals and customer sketch of a span of closed whole days
+     */
+    private static final class ClosedDays {
+        private final long orderCount;
+        private final long revenueCents;
+        private final HyperLogLog customers;
+        
+        ClosedDays(SalesSummary summary) {
+            this.orderCount = summary.getOrderCount();
+            this.revenueCents = summary.getRevenueCents();
+            this.customers = summary.getCustomerSketch().copy();
+        }
+        
+        WindowTotals plus(SalesSummary edges) {
+            HyperLogLog merged = customers.copy();
+            merged.merge(edges.getCustomerSketch());
+            return new WindowTotals(orderCount + edges.getOrderCount(),
+                    revenueCents + edges.getRevenueCents(), merged.estimate());
+        }
+    }
+    
+    /**
+     * Immutable totals of one window
+     */
+    public static final class WindowTotals {
+        private final long orderCount;
+        private final long revenueCents;
+        private final long customers;
+        
+        private WindowTotals(long orderCount, long revenueCents, long customers) {
+            this.orderCount = orderCount;
+            this.revenueCents = revenueCents;
+            this.customers = customers;
+        }
+        
+        static WindowTotals of(SalesSummary summary) {
+            return new WindowTotals(summary.getOrderCount(), summary.getRevenueCents(), summary.getDistinctCustomers());
+        }
+        
+        public long getOrderCount() { return orderCount; }
+        public long getRevenueCents() { return revenueCents; }
+        public BigDecimal getRevenue() { return Cents.toAmount(revenueCents); }
+        public long getCustomers() { return customers; }
+    }
+    
+    /**
+     * Period-over-period change of a window
+     * Each growth is a percentage rounded to one decimal, or null when the
+     * previous window is empty and growth is undefined
+     */
+    public static final class Growth {
+        private final WindowTotals current;
+        private final WindowTotals previous;
+        
+        Growth(WindowTotals current, WindowTotals previous) {
+            this.current = current;
+            this.previous = previous;
+        }
+        
+        public WindowTotals getCurrent() { return current; }
+        public WindowTotals getPrevious() { return previous; }
+        
+        public Double getRevenueGrowth() {
+            return percentChange(current.revenueCents, previous.revenueCents);
+        }
+        
+        public Double getOrderGrowth() {
+            return percentChange(current.orderCount, previous.orderCount);
+        }
+        
+        public Double getCustomerGrowth() {
+            return percentChange(current.customers, previous.customers);
+        }
+        
+        private static Double percentChange(long current, long previous) {
+            if (previous == 0) {
+                return current == 0 ? 0.0 : null;
+            }
+            return Math.round((current - previous) * 1000.0 / previous) / 10.0;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.example.demo.application.analytics;
+
+import com.example.demo.application.analytics.sketch.LogHistogram;
+import com.example.demo.application.analytics.snapshot.AnalyticsSnapshotManager;
+import com.example.demo.application.analytics.snapshot.OrderReplay;
+import com.example.demo.application.analytics.snapshot.SnapshotParticipant;
+import com.example.demo.domain.entity.Order;
+import com.example.demo.domain.event.OrderPlacedEvent;
+import com.example.demo.domain.event.OrderStatusChangedEvent;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Order Distribution Store
+ * Application Layer - Analytics
+ * Log-bucketed histograms of order value, items per order and time from
+ * placement to delivery, kept per UTC day and rolled up into aligned 32-day
+ * blocks. A range query merges whole blocks plus at most 31 days at either
+ * edge, so its cost depends on the number of buckets and never on the number
+ * of orders in the range.
+ * Restored from the analytics snapshot, or seeded with one streaming pass over
+ * all order lines and one over delivered orders, before the web server accepts
+ * requests, then updated from order events after each transaction commits.
+ * After a restore only the orders placed, and deliveries made, since the
+ * checkpoint are replayed.
+ */
+@Component
+public class OrderDistributionStore implements SmartInitializingSingleton, SnapshotParticipant {
+    
+    private static final int BLOCK_BITS = 5;
+    private static final long BLOCK_MASK = (1L << BLOCK_BITS) - 1;
+    
+    /**
+     * Distributions tracked per day
+     */
+    public enum Metric {
+        /** Order total in cents, on the day the order was placed */
+        ORDER_VALUE,
+        /** Units per order, on the day the order was placed */
+        BASKET_SIZE,
+        /** Seconds from placement to delivery, on the day the order was delivered */
+        FULFILMENT_TIME
+    }
+    
+    private final OrderScanner orderScanner;
+    private final AnalyticsSnapshotManager snapshotManager;
+    private final int precision;
+    private Map<Long, EnumMap<Metric, LogHistogram>> days = new HashMap<>();
+    private Map<Long, EnumMap<Metric, LogHistogram>> blocks = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    public OrderDistributionStore(OrderScanner orderScanner, AnalyticsSnapshotManager snapshotManager,
+                                  @Value("${analytics.distribution.precision-bits:7}") int precision) {
+        if (precision < 1 || precision > 16) {
+            throw new IllegalArgumentException("Histogram precision must be between 1 and 16 bits");
+        }
+        this.orderScanner = orderScanner;
+        this.snapshotManager = snapshotManager;
+        this.precision = precision;
+    }
+    
+    @Override
+    public void afterSingletonsInstantiated() {
+        OrderReplay replay = snapshotManager.restore(this);
+        long[] current = {Long.MIN_VALUE, 0, 0};
+        LocalDateTime[] placedAt = new LocalDateTime[1];
+        orderScanner.forEachLine(replay, line -> {
+            if (line.getOrderId() != current[0]) {
+                if (placedAt[0] != null) {
+                    recordOrder(current[1], current[2], placedAt[0]);
+                }
+                current[0] = line.getOrderId();
+                current[1] = 0;
+                current[2] = 0;
+                placedAt[0] = line.getCreatedAt();
+            }
+            current[1] += Cents.of(line.getSubtotal());
+            current[2] += line.getQuantity();
+        });
+        if (placedAt[0] != null) {
+            recordOrder(current[1], current[2], placedAt[0]);
+        }
+        if (replay.isFull()) {
+            orderScanner.forEachDelivery(delivery -> recordDelivery(delivery.getCreatedAt(), delivery.getDeliveredAt()));
+        } else {
+            orderScanner.forEachDelivery(replay.getCheckpointTime(),
+                    delivery -> recordDelivery(delivery.getCreatedAt(), delivery.getDeliveredAt()));
+        }
+    }
+    
+    @Override
+    public String getSnapshotName() {
+        return "order-distributions";
+    }
+    
+    @Override
+    public int getSnapshotVersion() {
+        return 1;
+    }
+    
+    @Override
+    public void writeSnapshot(DataOutputStream out) throws IOException {
+        lock.readLock().lock();
+        try {
+            out.writeInt(days.size());
+            for (Map.Entry<Long, EnumMap<Metric, LogHistogram>> day : days.entrySet()) {
+                out.writeLong(day.getKey());
+                for (Metric metric : Metric.values()) {
+                    day.getValue().get(metric).writeTo(out);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    // Only days are stored; blocks are rebuilt by merging them
+    @Override
+    public void readSnapshot(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("Negative day count " + count);
+        }
+        Map<Long, EnumMap<Metric, LogHistogram>> restoredDays = new HashMap<>();
+        Map<Long, EnumMap<Metric, LogHistogram>> restoredBlocks = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            long day = in.readLong();
+            EnumMap<Metric, LogHistogram> histograms = new EnumMap<>(Metric.class);
+            for (Metric metric : Metric.values()) {
+                LogHistogram histogram = LogHistogram.readFrom(in);
+                if (histogram.getPrecision() != precision) {
+                    throw new IOException("Snapshot was written with another histogram precision");
+                }
+                histograms.put(metric, histogram);
+                histograms(restoredBlocks, day >> BLOCK_BITS).get(metric).merge(histogram);
+            }
+            restoredDays.put(day, histograms);
+        }
+        lock.writeLock().lock();
+        try {
+            days = restoredDays;
+            blocks = restoredBlocks;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        long units = 0;
+        for (OrderPlacedEvent.Line line : event.getLines()) {
+            units += line.getQuantity();
+        }
+        recordOrder(Cents.of(event.getTotalAmount()), units, event.getCreatedAt());
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (event.getNewStatus() == Order.OrderStatus.DELIVERED) {
+            recordDelivery(event.getOrderCreatedAt(), event.getChangedAt());
+        }
+    }
+    
+    /**
+     * Record a placed order
+     * @param valueCents Order total in cents
+     * @param units Units across all of the order's items
+     * @param placedAt Order creation time
+     */
+    public void recordOrder(long valueCents, long units, LocalDateTime placedAt) {
+        if (placedAt == null) {
+            return;
+        }
+        long day = TimeBuckets.epochDay(placedAt);
+        lock.writeLock().lock();
+        try {
+            record(day, Metric.ORDER_VALUE, Math.max(0, valueCents));
+            record(day, Metric.BASKET_SIZE, Math.max(0, units));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Record a delivered order
+     * @param placedAt Order creation time
+     * @param deliveredAt Delivery time
+     */
+    public void recordDelivery(LocalDateTime placedAt, LocalDateTime deliveredAt) {
+        if (placedAt == null || deliveredAt == null) {
+            return;
+        }
+        long seconds = Math.max(0, Duration.between(placedAt, deliveredAt).getSeconds());
+        long day = TimeBuckets.epochDay(deliveredAt);
+        lock.writeLock().lock();
+        try {
+            record(day, Metric.FULFILMENT_TIME, seconds);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Merge a distribution over an inclusive date range
+     * Days are whole calendar days, so a partial first or last day is counted in full
+     * @param metric Distribution to read
+     * @param startDate Start date
+     * @param endDate End date
+     * @return Merged histogram, empty if nothing was recorded in the range
+     */
+    public LogHistogram histogram(Metric metric, LocalDateTime startDate, LocalDateTime endDate) {
+        long firstDay = TimeBuckets.epochDay(startDate);
+        long lastDay = TimeBuckets.epochDay(endDate);
+        LogHistogram merged = new LogHistogram(precision);
+        lock.readLock().lock();
+        try {
+            long day = firstDay;
+            while (day <= lastDay) {
+                if ((day & BLOCK_MASK) == 0 && day + BLOCK_MASK <= lastDay) {
+                    mergeInto(merged, blocks.get(day >> BLOCK_BITS), metric);
+                    day += BLOCK_MASK + 1;
+                } else {
+                    mergeInto(merged, days.get(day), metric);
+                    day++;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return merged;
+    }
+    
+    private void record(long day, Metric metric, long value) {
+        histograms(days, day).get(metric).record(value);
+        histograms(blocks, day >> BLOCK_BITS).get(metric).record(value);
+    }
+    
+    private EnumMap<Metric, LogHistogram> histograms(Map<Long, EnumMap<Metric, LogHistogram>> level, long key) {
+        return level.computeIfAbsent(key, k -> {
+            EnumMap<Metric, LogHistogram> histograms = new EnumMap<>(Metric.class);
+            for (Metric metric : Metric.values()) {
+                histograms.put(metric, new LogHistogram(precision));
+            }
+            return histograms;
+        });
+    }
+    
+    private static void mergeInto(LogHistogram target, EnumMap<Metric, LogHistogram> histograms, Metric metric) {
+        if (histograms != null) {
+            target.merge(histograms.get(metric));
+        }
+    }
+}
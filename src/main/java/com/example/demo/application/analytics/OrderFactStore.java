@@ -0,0 +1,400 @@
+package com.example.demo.application.analytics;
+
+import com.example.demo.application.analytics.collection.LongLongHashMap;
+import com.example.demo.domain.entity.Order;
+import com.example.demo.domain.event.OrderPlacedEvent;
+import com.example.demo.domain.event.OrderStatusChangedEvent;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Order Fact Store
+ * Application Layer - Analytics
+ * Column-oriented in-memory copy of every order: parallel primitive arrays for
+ * the creation time (epoch nanoseconds, so range edges match the database
+ * exactly), customer, amount in cents and status of each order, and a second
+ * set for its lines (product, dictionary-encoded category, units and cents).
+ * Columns are split into fixed-size chunks so growth never copies data, and
+ * each chunk records its minimum and maximum time so range scans skip chunks
+ * that cannot match. Scans are tight loops over primitives with no per-order
+ * allocation.
+ * Rows are appended and statuses updated under the store's lock, and new rows
+ * are published through volatile row counts, so readers scan concurrently with
+ * the writer without locking. Seeded with two
+ * streaming passes (orders, then lines) before the web server accepts requests,
+ * then appended from order events after each transaction commits.
+ */
+@Component
+public class OrderFactStore implements SmartInitializingSingleton {
+    
+    private static final int CHUNK_BITS = 14;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final Order.OrderStatus[] STATUSES = Order.OrderStatus.values();
+    
+    private final OrderScanner orderScanner;
+    private final ProductCategoryLookup productCategoryLookup;
+    
+    // Order columns
+    private long[][] times = new long[1][];
+    private long[][] customers = new long[1][];
+    private long[][] amounts = new long[1][];
+    private byte[][] statuses = new byte[1][];
+    private int[][] lineStarts = new int[1][];
+    private int[][] lineCounts = new int[1][];
+    private long[] chunkMinTime = new long[1];
+    private long[] chunkMaxTime = new long[1];
+    private final LongLongHashMap rowsByOrderId = new LongLongHashMap(CHUNK_SIZE);
+    private volatile int orderCount;
+    
+    // Line columns
+    private long[][] lineProducts = new long[1][];
+    private int[][] lineCategories = new int[1][];
+    private int[][] lineUnits = new int[1][];
+    private long[][] lineAmounts = new long[1][];
+    private volatile int lineCount;
+    
+    // Category dictionary and the latest name each product was sold under
+    private final Map<String, Integer> categoryIds = new HashMap<>();
+    private volatile String[] categoryNames = new String[0];
+    private final Map<Long, String> productNames = new ConcurrentHashMap<>();
+    
+    public OrderFactStore(OrderScanner orderScanner, ProductCategoryLookup productCategoryLookup) {
+        this.orderScanner = orderScanner;
+        this.productCategoryLookup = productCategoryLookup;
+    }
+    
+    @Override
+    public void afterSingletonsInstantiated() {
+        orderScanner.forEachSummary(order -> appendOrder(order.getId(), order.getCustomerId(),
+                Cents.of(order.getTotalAmount()), order.getStatus(), order.getCreatedAt()));
+        orderScanner.forEachLine(line -> appendLine(line.getOrderId(), line.getProductId(), line.getProductName(),
+                line.getQuantity(), Cents.of(line.getSubtotal())));
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        synchronized (this) {
+            appendOrder(event.getOrderId(), event.getCustomerId(), Cents.of(event.getTotalAmount()),
+                    event.getStatus(), event.getCreatedAt());
+            for (OrderPlacedEvent.Line line : event.getLines()) {
+                appendLine(event.getOrderId(), line.getProductId(), line.getProductName(), line.getQuantity(),
+                        Cents.of(line.getSubtotal()));
+            }
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        int row = rowOf(event.getOrderId());
+        if (row >= 0) {
+            statuses[row >>> CHUNK_BITS][row & CHUNK_MASK] = (byte) event.getNewStatus().ordinal();
+        }
+    }
+    
+    /**
+     * Append an order row
+     * @param orderId Order ID
+     * @param customerId Customer ID
+     * @param amountCents Order total in cents
+     * @param status Order status
+     * @param createdAt Order creation time
+     */
+    public synchronized void appendOrder(Long orderId, Long customerId, long amountCents,
+                                         Order.OrderStatus status, LocalDateTime createdAt) {
+        if (orderId == null || createdAt == null || rowsByOrderId.containsKey(orderId)) {
+            return;
+        }
+        int row = orderCount;
+        int chunk = row >>> CHUNK_BITS;
+        int offset = row & CHUNK_MASK;
+        if (offset == 0) {
+            addOrderChunk(chunk);
+        }
+        long time = TimeBuckets.epochNano(createdAt);
+        times[chunk][offset] = time;
+        customers[chunk][offset] = customerId != null ? customerId : -1;
+        amounts[chunk][offset] = amountCents;
+        statuses[chunk][offset] = (byte) (status != null ? status : Order.OrderStatus.PENDING).ordinal();
+        lineStarts[chunk][offset] = lineCount;
+        chunkMinTime[chunk] = Math.min(chunkMinTime[chunk], time);
+        chunkMaxTime[chunk] = Math.max(chunkMaxTime[chunk], time);
+        rowsByOrderId.put(orderId, row);
+        orderCount = row + 1;
+    }
+    
+    /**
+     * Append a line to a previously appended order
+     * Lines of one order must be appended consecutively
+     * @param orderId Order ID
+     * @param productId Product ID
+     * @param productName Product name at the time of the order
+     * @param units Units
+     * @param amountCents Line subtotal in cents
+     */
+    public synchronized void appendLine(Long orderId, Long productId, String productName, int units, long amountCents) {
+        int row = orderId != null ? rowOf(orderId) : -1;
+        if (row < 0) {
+            return;
+        }
+        int index = lineCount;
+        int chunk = index >>> CHUNK_BITS;
+        int offset = index & CHUNK_MASK;
+        if (offset == 0) {
+            addLineChunk(chunk);
+        }
+        lineProducts[chunk][offset] = productId != null ? productId : -1;
+        lineCategories[chunk][offset] = categoryId(productCategoryLookup.categoryOf(productId));
+        lineUnits[chunk][offset] = units;
+        lineAmounts[chunk][offset] = amountCents;
+        if (productId != null && productName != null) {
+            productNames.put(productId, productName);
+        }
+        int orderChunk = row >>> CHUNK_BITS;
+        int orderOffset = row & CHUNK_MASK;
+        if (lineCounts[orderChunk][orderOffset] == 0) {
+            lineStarts[orderChunk][orderOffset] = index;
+        }
+        lineCounts[orderChunk][orderOffset]++;
+        lineCount = index + 1;
+    }
+    
+    /**
+     * Visit every order created in a half-open time range
+     * @param start Start time (inclusive)
+     * @param end End time (exclusive)
+     * @param visitor Order visitor
+     */
+    public void scan(LocalDateTime start, LocalDateTime end, OrderVisitor visitor) {
+        long from = TimeBuckets.epochNano(start);
+        long to = TimeBuckets.epochNano(end);
+        int rows = orderCount;
+        long[][] timeChunks = times;
+        long[][] customerChunks = customers;
+        long[][] amountChunks = amounts;
+        byte[][] statusChunks = statuses;
+        int chunks = (rows + CHUNK_MASK) >>> CHUNK_BITS;
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            if (chunkMaxTime[chunk] < from || chunkMinTime[chunk] >= to) {
+                continue;
+            }
+            int rowsInChunk = Math.min(CHUNK_SIZE, rows - (chunk << CHUNK_BITS));
+            long[] timeChunk = timeChunks[chunk];
+            for (int offset = 0; offset < rowsInChunk; offset++) {
+                long time = timeChunk[offset];
+                if (time >= from && time < to) {
+                    visitor.visit(Math.floorDiv(time, 1_000_000_000L), customerChunks[chunk][offset], amountChunks[chunk][offset],
+                            STATUSES[statusChunks[chunk][offset]]);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Count orders and sum their amounts per status in a half-open time range
+     * @param start Start time (inclusive)
+     * @param end End time (exclusive)
+     * @return Totals per status
+     */
+    public StatusTotals totalsByStatus(LocalDateTime start, LocalDateTime end) {
+        long[] counts = new long[STATUSES.length];
+        long[] cents = new long[STATUSES.length];
+        scan(start, end, (second, customerId, amountCents, status) -> {
+            counts[status.ordinal()]++;
+            cents[status.ordinal()] += amountCents;
+        });
+        return new StatusTotals(counts, cents);
+    }
+    
+    /**
+     * Sum line amounts per product category for orders in a half-open time range
+     * @param start Start time (inclusive)
+     * @param end End time (exclusive)
+     * @return Revenue in cents per category, largest first
+     */
+    public Map<String, Long> revenueByCategory(LocalDateTime start, LocalDateTime end) {
+        String[] names = categoryNames;
+        long[] cents = new long[names.length];
+        forEachLine(start, end, (productId, categoryId, units, amountCents) -> {
+            if (categoryId < cents.length) {
+                cents[categoryId] += amountCents;
+            }
+        });
+        List<Integer> ids = new ArrayList<>();
+        for (int id = 0; id < names.length; id++) {
+            if (cents[id] != 0) {
+                ids.add(id);
+            }
+        }
+        ids.sort((a, b) -> Long.compare(cents[b], cents[a]));
+        Map<String, Long> revenueByCategory = new LinkedHashMap<>();
+        ids.forEach(id -> revenueByCategory.put(names[id], cents[id]));
+        return revenueByCategory;
+    }
+    
+    /**
+     * Sum line amounts per product for orders in a half-open time range
+     * @param start Start time (inclusive)
+     * @param end End time (exclusive)
+     * @return Revenue in cents keyed by product ID
+     */
+    public LongLongHashMap revenueByProduct(LocalDateTime start, LocalDateTime end) {
+        LongLongHashMap revenueByProduct = new LongLongHashMap();
+        forEachLine(start, end, (productId, categoryId, units, amountCents) ->
+                revenueByProduct.addTo(productId, amountCents));
+        return revenueByProduct;
+    }
+    
+    /**
+     * Get the name a product was last sold under
+     * @param productId Product ID
+     * @return Product name, or null if no line of the product has been stored
+     */
+    public String productName(long productId) {
+        return productNames.get(productId);
+    }
+    
+    public int getOrderCount() {
+        return orderCount;
+    }
+    
+    public int getLineCount() {
+        return lineCount;
+    }
+    
+    private void forEachLine(LocalDateTime start, LocalDateTime end, LineVisitor visitor) {
+        int rows = orderCount;
+        int lines = lineCount;
+        long from = TimeBuckets.epochNano(start);
+        long to = TimeBuckets.epochNano(end);
+        long[][] timeChunks = times;
+        int[][] startChunks = lineStarts;
+        int[][] countChunks = lineCounts;
+        long[][] productChunks = lineProducts;
+        int[][] categoryChunks = lineCategories;
+        int[][] unitChunks = lineUnits;
+        long[][] amountChunks = lineAmounts;
+        int chunks = (rows + CHUNK_MASK) >>> CHUNK_BITS;
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            if (chunkMaxTime[chunk] < from || chunkMinTime[chunk] >= to) {
+                continue;
+            }
+            int rowsInChunk = Math.min(CHUNK_SIZE, rows - (chunk << CHUNK_BITS));
+            for (int offset = 0; offset < rowsInChunk; offset++) {
+                long time = timeChunks[chunk][offset];
+                if (time < from || time >= to) {
+                    continue;
+                }
+                int first = startChunks[chunk][offset];
+                int last = Math.min(first + countChunks[chunk][offset], lines);
+                for (int line = first; line < last; line++) {
+                    int lineChunk = line >>> CHUNK_BITS;
+                    int lineOffset = line & CHUNK_MASK;
+                    visitor.visit(productChunks[lineChunk][lineOffset], categoryChunks[lineChunk][lineOffset],
+                            unitChunks[lineChunk][lineOffset], amountChunks[lineChunk][lineOffset]);
+                }
+            }
+        }
+    }
+    
+    private int rowOf(long orderId) {
+        synchronized (this) {
+            return (int) rowsByOrderId.get(orderId, -1);
+        }
+    }
+    
+    private int categoryId(String category) {
+        Integer id = categoryIds.get(category);
+        if (id == null) {
+            id = categoryIds.size();
+            categoryIds.put(category, id);
+            String[] names = Arrays.copyOf(categoryNames, id + 1);
+            names[id] = category;
+            categoryNames = names;
+        }
+        return id;
+    }
+    
+    private void addOrderChunk(int chunk) {
+        if (chunk == times.length) {
+            int capacity = chunk * 2;
+            times = Arrays.copyOf(times, capacity);
+            customers = Arrays.copyOf(customers, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+            lineStarts = Arrays.copyOf(lineStarts, capacity);
+            lineCounts = Arrays.copyOf(lineCounts, capacity);
+            chunkMinTime = Arrays.copyOf(chunkMinTime, capacity);
+            chunkMaxTime = Arrays.copyOf(chunkMaxTime, capacity);
+        }
+        times[chunk] = new long[CHUNK_SIZE];
+        customers[chunk] = new long[CHUNK_SIZE];
+        amounts[chunk] = new long[CHUNK_SIZE];
+        statuses[chunk] = new byte[CHUNK_SIZE];
+        lineStarts[chunk] = new int[CHUNK_SIZE];
+        lineCounts[chunk] = new int[CHUNK_SIZE];
+        chunkMinTime[chunk] = Long.MAX_VALUE;
+        chunkMaxTime[chunk] = Long.MIN_VALUE;
+    }
+    
+    private void addLineChunk(int chunk) {
+        if (chunk == lineProducts.length) {
+            int capacity = chunk * 2;
+            lineProducts = Arrays.copyOf(lineProducts, capacity);
+            lineCategories = Arrays.copyOf(lineCategories, capacity);
+            lineUnits = Arrays.copyOf(lineUnits, capacity);
+            lineAmounts = Arrays.copyOf(lineAmounts, capacity);
+        }
+        lineProducts[chunk] = new long[CHUNK_SIZE];
+        lineCategories[chunk] = new int[CHUNK_SIZE];
+        lineUnits[chunk] = new int[CHUNK_SIZE];
+        lineAmounts[chunk] = new long[CHUNK_SIZE];
+    }
+    
+    /**
+     * Primitive order row visitor
+     */
+    @FunctionalInterface
+    public interface OrderVisitor {
+        void visit(long epochSecond, long customerId, long amountCents, Order.OrderStatus status);
+    }
+    
+    @FunctionalInterface
+    private interface LineVisitor {
+        void visit(long productId, int categoryId, int units, long amountCents);
+    }
+    
+    /**
+     * Order count and amount per status
+     */
+    public static class StatusTotals {
+        private final long[] counts;
+        private final long[] cents;
+        
+        StatusTotals(long[] counts, long[] cents) {
+            this.counts = counts;
+            this.cents = cents;
+        }
+        
+        public long getCount(Order.OrderStatus status) { return counts[status.ordinal()]; }
+        public long getCents(Order.OrderStatus status) { return cents[status.ordinal()]; }
+        
+        public long getTotalCount() {
+            return Arrays.stream(counts).sum();
+        }
+        
+        public long getTotalCents() {
+            return Arrays.stream(cents).sum();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.demo.application.analytics;
+
+import com.example.demo.domain.entity.Order;
+import com.example.demo.domain.event.OrderPlacedEvent;
+import com.example.demo.domain.event.OrderStatusChangedEvent;
+import com.example.demo.domain.repository.OrderRepository;
+import com.example.demo.domain.repository.projection.OrderStatusSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Order Metrics Aggregator
+ * Application Layer - Analytics
+ * Keeps running totals of revenue, order count and orders per status so the
+ * dashboard never has to scan the orders table.
+ * Seeded once from a single GROUP BY query before the web server accepts
+ * requests, then updated from order events after each transaction commits.
+ * The same query runs periodically to reconcile the counters with the database;
+ * a difference is only corrected once two consecutive passes observe it, so an
+ * order whose commit races with the query is never counted twice.
+ */
+@Component
+public class OrderMetricsAggregator implements SmartInitializingSingleton {
+    
+    private static final Logger log = LoggerFactory.getLogger(OrderMetricsAggregator.class);
+    private static final Order.OrderStatus[] STATUSES = Order.OrderStatus.values();
+    private static final int ORDER_COUNT_SLOT = STATUSES.length;
+    private static final int REVENUE_SLOT = STATUSES.length + 1;
+    
+    private final OrderRepository orderRepository;
+    
+    private final LongAdder revenueCents = new LongAdder();
+    private final LongAdder orderCount = new LongAdder();
+    private final EnumMap<Order.OrderStatus, LongAdder> statusCounts = new EnumMap<>(Order.OrderStatus.class);
+    private long[] lastDrift;
+    
+    public OrderMetricsAggregator(OrderRepository orderRepository) {
+        this.orderRepository = orderRepository;
+        for (Order.OrderStatus status : Order.OrderStatus.values()) {
+            statusCounts.put(status, new LongAdder());
+        }
+    }
+    
+    @Override
+    public void afterSingletonsInstantiated() {
+        seed();
+    }
+    
+    /**
+     * Seed the running totals from the database
+     */
+    public void seed() {
+        for (OrderStatusSummary summary : orderRepository.summarizeByStatus()) {
+            orderCount.add(summary.getOrderCount());
+            revenueCents.add(Cents.of(summary.getTotalAmount()));
+            statusCounts.get(summary.getStatus()).add(summary.getOrderCount());
+        }
+    }
+    
+    /**
+     * Compare the counters with the database and correct drift seen on two consecutive passes
+     * @return true if a correction was applied
+     */
+    @Scheduled(fixedDelayString = "${analytics.order-metrics.reconcile-interval-ms:300000}",
+               initialDelayString = "${analytics.order-metrics.reconcile-interval-ms:300000}")
+    public synchronized boolean reconcile() {
+        long[] drift = new long[STATUSES.length + 2];
+        long databaseCents = 0;
+        for (OrderStatusSummary summary : orderRepository.summarizeByStatus()) {
+            drift[summary.getStatus().ordinal()] = summary.getOrderCount();
+            drift[ORDER_COUNT_SLOT] += summary.getOrderCount();
+            databaseCents += Cents.of(summary.getTotalAmount());
+        }
+        for (Order.OrderStatus status : STATUSES) {
+            drift[status.ordinal()] -= statusCounts.get(status).sum();
+        }
+        drift[ORDER_COUNT_SLOT] -= orderCount.sum();
+        drift[REVENUE_SLOT] = databaseCents - revenueCents.sum();
+        
+        boolean confirmed = Arrays.equals(drift, lastDrift) && Arrays.stream(drift).anyMatch(delta -> delta != 0);
+        lastDrift = drift;
+        if (!confirmed) {
+            return false;
+        }
+        for (Order.OrderStatus status : STATUSES) {
+            statusCounts.get(status).add(drift[status.ordinal()]);
+        }
+        orderCount.add(drift[ORDER_COUNT_SLOT]);
+        revenueCents.add(drift[REVENUE_SLOT]);
+        lastDrift = null;
+        log.warn("Corrected order metrics drift {}", Arrays.toString(drift));
+        return true;
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        orderCount.increment();
+        revenueCents.add(Cents.of(event.getTotalAmount()));
+        statusCounts.get(event.getStatus()).increment();
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (event.getPreviousStatus() == event.getNewStatus()) {
+            return;
+        }
+        statusCounts.get(event.getPreviousStatus()).decrement();
+        statusCounts.get(event.getNewStatus()).increment();
+    }
+    
+    /**
+     * Get total revenue over all orders
+     * @return Total revenue
+     */
+    public BigDecimal getTotalRevenue() {
+        return Cents.toAmount(revenueCents.sum());
+    }
+    
+    /**
+     * Get total number of orders
+     * @return Order count
+     */
+    public long getOrderCount() {
+        return orderCount.sum();
+    }
+    
+    /**
+     * Get number of orders currently in a status
+     * @param status Order status
+     * @return Order count for the status
+     */
+    public long getStatusCount(Order.OrderStatus status) {
+        return statusCounts.get(status).sum();
+    }
+    
+    /**
+     * Get order counts for every status
+     * @return Order count per status
+     */
+    public Map<Order.OrderStatus, Long> getStatusCounts() {
+        Map<Order.OrderStatus, Long> counts = new EnumMap<>(Order.OrderStatus.class);
+        statusCounts.forEach((status, adder) -> counts.put(status, adder.sum()));
+        return counts;
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.demo.application.analytics;
+
+import com.example.demo.application.analytics.snapshot.OrderReplay;
+import com.example.demo.domain.entity.Order;
+import com.example.demo.domain.repository.OrderRepository;
+import com.example.demo.domain.repository.projection.OrderDeliverySummary;
+import com.example.demo.domain.repository.projection.OrderLineSummary;
+import com.example.demo.domain.repository.projection.OrderSummary;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Order Scanner
+ * Application Layer - Analytics
+ * Runs constant-memory, single-pass scans over the orders table. Each scan holds
+ * a read-only transaction open for the lifetime of the underlying cursor, and
+ * entity scans detach every order after it has been handed to the consumer so
+ * the persistence context never grows with the range length.
+ */
+@Component
+public class OrderScanner {
+    
+    private final OrderRepository orderRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readTransaction;
+    
+    public OrderScanner(OrderRepository orderRepository, EntityManager entityManager,
+                        PlatformTransactionManager transactionManager) {
+        this.orderRepository = orderRepository;
+        this.entityManager = entityManager;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+    }
+    
+    /**
+     * Visit every order created in an inclusive date range
+     * Lazy associations can be read inside the consumer, before the order is detached
+     * @param startDate Start date (inclusive)
+     * @param endDate End date (inclusive)
+     * @param consumer Order consumer
+     */
+    public void forEachOrder(LocalDateTime startDate, LocalDateTime endDate, Consumer<Order> consumer) {
+        readTransaction.executeWithoutResult(status -> {
+            try (Stream<Order> orders = orderRepository.streamByDateRange(startDate, endDate)) {
+                orders.forEach(order -> {
+                    consumer.accept(order);
+                    entityManager.detach(order);
+                });
+            }
+        });
+    }
+    
+    /**
+     * Visit the scalar summary of every order in a half-open date range
+     * @param startDate Start date (inclusive)
+     * @param endDate End date (exclusive)
+     * @param consumer Summary consumer
+     */
+    public void forEachSummary(LocalDateTime startDate, LocalDateTime endDate, Consumer<OrderSummary> consumer) {
+        readTransaction.executeWithoutResult(status -> {
+            try (Stream<OrderSummary> summaries = orderRepository.streamSummariesInRange(startDate, endDate)) {
+                summaries.forEach(consumer);
+            }
+        });
+    }
+    
+    /**
+     * Visit the scalar summary of every order in ID order
+     * @param consumer Summary consumer
+     */
+    public void forEachSummary(Consumer<OrderSummary> consumer) {
+        readTransaction.executeWithoutResult(status -> {
+            try (Stream<OrderSummary> summaries = orderRepository.streamAllSummaries()) {
+                summaries.forEach(consumer);
+            }
+        });
+    }
+    
+    /**
+     * Visit the scalar summary of every order a restored engine still has to apply, in ID order
+     * @param replay Orders to apply
+     * @param consumer Summary consumer
+     */
+    public void forEachSummary(OrderReplay replay, Consumer<OrderSummary> consumer) {
+        if (replay.isFull()) {
+            forEachSummary(consumer);
+            return;
+        }
+        readTransaction.executeWithoutResult(status -> {
+            try (Stream<OrderSummary> summaries = orderRepository.streamSummariesAfter(replay.getAfterOrderId())) {
+                summaries.filter(summary -> replay.includes(summary.getId())).forEach(consumer);
+            }
+        });
+    }
+    
+    /**
+     * Visit every order item together with its order's scalar columns in order ID order
+     * @param consumer Line consumer
+     */
+    public void forEachLine(Consumer<OrderLineSummary> consumer) {
+        readTransaction.executeWithoutResult(status -> {
+            try (Stream<OrderLineSummary> lines = orderRepository.streamAllLines()) {
+                lines.forEach(consumer);
+            }
+        });
+    }
+    
+    /**
+     * Visit every order item of the orders a restored engine still has to apply, in order ID order
+     * @param replay Orders to apply
+     * @param consumer Line consumer
+     */
+    public void forEachLine(OrderReplay replay, Consumer<OrderLineSummary> consumer) {
+        if (replay.isFull()) {
+            forEachLine(consumer);
+            return;
+        }
+        readTransaction.executeWithoutResult(status -> {
+            try (Stream<OrderLineSummary> lines = orderRepository.streamLinesAfter(replay.getAfterOrderId())) {
+                lines.filter(line -> replay.includes(line.getOrderId())).forEach(consumer);
+            }
+        });
+    }
+    
+    /**
+     * Visit every order item of the orders in a half-open date range
+     * @param startDate Start date (inclusive)
+     * @param endDate End date (exclusive)
+     * @param consumer Line consumer
+     */
+    public void forEachLine(LocalDateTime startDate, LocalDateTime endDate, Consumer<OrderLineSummary> consumer) {
+        readTransaction.executeWithoutResult(status -> {
+            try (Stream<OrderLineSummary> lines = orderRepository.streamLinesInRange(startDate, endDate)) {
+                lines.forEach(consumer);
+            }
+        });
+    }
+    
+    /**
+     * Visit the creation and delivery time of every delivered order
+     * @param consumer Delivery consumer
+     */
+    public void forEachDelivery(Consumer<OrderDeliverySummary> consumer) {
+        readTransaction.executeWithoutResult(status -> {
+            try (Stream<OrderDeliverySummary> deliveries = orderRepository.streamDeliveries()) {
+                deliveries.forEach(consumer);
+            }
+        });
+    }
+    
+    /**
+     * Visit the creation and delivery time of every order delivered at or after a point in time
+     * @param since Earliest delivery time (inclusive)
+     * @param consumer Delivery consumer
+     */
+    public void forEachDelivery(LocalDateTime since, Consumer<OrderDeliverySummary> consumer) {
+        readTransaction.executeWithoutResult(status -> {
+            try (Stream<OrderDeliverySummary> deliveries = orderRepository.streamDeliveriesSince(since)) {
+                deliveries.forEach(consumer);
+            }
+        });
+    }
+}
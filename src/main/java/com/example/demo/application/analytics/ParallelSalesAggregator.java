@@ -0,0 +1,192 @@
+package com.example.demo.application.analytics;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Parallel Sales Aggregator
+ * Application Layer - Analytics
+ * Splits long date ranges into day-aligned partitions and summarizes them
+ * concurrently on a bounded fork-join pool, each partition reading its own
+ * rollup rows in its own transaction. Partial summaries are merged left to
+ * right in partition order on exact cent totals, so the result is identical to
+ * a serial run. Short ranges, or a concurrency of one, run serially on the
+ * calling thread.
+ */
+@Component
+public class ParallelSalesAggregator {
+    
+    private static final int MAX_EXPLAINED_PARTITIONS = 16;
+    
+    private final SalesRollupService salesRollupService;
+    private final ForkJoinPool pool;
+    private final int concurrency;
+    private final int partitionDays;
+    private final int minParallelDays;
+    
+    public ParallelSalesAggregator(SalesRollupService salesRollupService,
+                                   @Value("${analytics.parallel.concurrency:4}") int concurrency,
+                                   @Value("${analytics.parallel.partition-days:7}") int partitionDays,
+                                   @Value("${analytics.parallel.min-range-days:62}") int minParallelDays) {
+        if (concurrency < 1 || partitionDays < 1) {
+            throw new IllegalArgumentException("Concurrency and partition size must be positive");
+        }
+        this.salesRollupService = salesRollupService;
+        this.concurrency = concurrency;
+        this.partitionDays = partitionDays;
+        this.minParallelDays = minParallelDays;
+        this.pool = concurrency > 1 ? new ForkJoinPool(concurrency) : null;
+    }
+    
+    /**
+     * Summarize sales for an inclusive date range
+     * @param startDate Start date (inclusive)
+     * @param endDate End date (inclusive)
+     * @return Summary together with the plan that produced it
+     */
+    public Result summarize(LocalDateTime startDate, LocalDateTime endDate) {
+        if (startDate == null || endDate == null) {
+            throw new IllegalArgumentException("Start date and end date cannot be null");
+        }
+        long started = System.nanoTime();
+        LocalDateTime endExclusive = TimeBuckets.exclusiveEnd(endDate);
+        List<LocalDateTime> bounds = partitionBounds(startDate, endExclusive);
+        int partitions = bounds.size() - 1;
+        
+        SalesSummary summary;
+        String mode;
+        if (pool == null || partitions < 2 || !startDate.plusDays(minParallelDays).isBefore(endExclusive)) {
+            summary = salesRollupService.summarizeBetween(startDate, endExclusive);
+            mode = "serial";
+            bounds = List.of(startDate, endExclusive);
+        } else {
+            summary = pool.invoke(new PartitionTask(bounds, 0, partitions));
+            mode = "parallel";
+        }
+        return new Result(summary, new Plan(mode, bounds, partitionDays,
+                "parallel".equals(mode) ? Math.min(concurrency, partitions) : 1,
+                (System.nanoTime() - started) / 1_000_000));
+    }
+    
+    public int getConcurrency() {
+        return concurrency;
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+    
+    private List<LocalDateTime> partitionBounds(LocalDateTime start, LocalDateTime endExclusive) {
+        List<LocalDateTime> bounds = new ArrayList<>();
+        bounds.add(start);
+        LocalDateTime next = TimeBuckets.ceilDay(start.plusNanos(1)).plusDays(partitionDays - 1);
+        while (next.isBefore(endExclusive)) {
+            bounds.add(next);
+            next = next.plusDays(partitionDays);
+        }
+        if (start.isBefore(endExclusive)) {
+            bounds.add(endExclusive);
+        }
+        return bounds;
+    }
+    
+    /**
+     * Summarizes partitions [from, to) by splitting in halves and merging left to right
+     */
+    private final class PartitionTask extends RecursiveTask<SalesSummary> {
+        // Tasks only run inside the pool and are never serialized
+        private static final long serialVersionUID = 1L;
+        
+        private final transient List<LocalDateTime> bounds;
+        private final int from;
+        private final int to;
+        
+        PartitionTask(List<LocalDateTime> bounds, int from, int to) {
+            this.bounds = bounds;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected SalesSummary compute() {
+            if (to - from == 1) {
+                return salesRollupService.summarizeBetween(bounds.get(from), bounds.get(to));
+            }
+            int middle = (from + to) >>> 1;
+            PartitionTask left = new PartitionTask(bounds, from, middle);
+            PartitionTask right = new PartitionTask(bounds, middle, to);
+            right.fork();
+            SalesSummary summary = left.compute();
+            summary.merge(right.join());
+            return summary;
+        }
+    }
+    
+    /**
+     * Summary and the plan that produced it
+     */
+    public static class Result {
+        private final SalesSummary summary;
+        private final Plan plan;
+        
+        Result(SalesSummary summary, Plan plan) {
+            this.summary = summary;
+            this.plan = plan;
+        }
+        
+        public SalesSummary getSummary() { return summary; }
+        public Plan getPlan() { return plan; }
+    }
+    
+    /**
+     * Execution plan of one aggregation
+     */
+    public static class Plan {
+        private final String mode;
+        private final List<LocalDateTime> bounds;
+        private final int partitionDays;
+        private final int concurrency;
+        private final long elapsedMs;
+        
+        Plan(String mode, List<LocalDateTime> bounds, int partitionDays, int concurrency, long elapsedMs) {
+            this.mode = mode;
+            this.bounds = bounds;
+            this.partitionDays = partitionDays;
+            this.concurrency = concurrency;
+            this.elapsedMs = elapsedMs;
+        }
+        
+        /**
+         * Describe the plan for API responses
+         * @return Plan as a map, listing at most the first partitions
+         */
+        public Map<String, Object> toMap() {
+            Map<String, Object> plan = new LinkedHashMap<>();
+            plan.put("mode", mode);
+            plan.put("partitions", bounds.size() - 1);
+            plan.put("partitionDays", "parallel".equals(mode) ? partitionDays : null);
+            plan.put("concurrency", concurrency);
+            plan.put("elapsedMs", elapsedMs);
+            List<String> ranges = new ArrayList<>();
+            for (int i = 0; i < bounds.size() - 1 && i < MAX_EXPLAINED_PARTITIONS; i++) {
+                ranges.add("[" + bounds.get(i) + ", " + bounds.get(i + 1) + ")");
+            }
+            plan.put("ranges", ranges);
+            return plan;
+        }
+        
+        public String getMode() { return mode; }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.demo.application.analytics;
+
+import com.example.demo.domain.entity.Product;
+import com.example.demo.domain.repository.ProductRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Product Category Lookup
+ * Application Layer - Analytics
+ * Caches the category of each product so analytics listeners can attribute
+ * order lines to a category without a query per line. Unknown products are
+ * loaded on first use and keep that category for the life of the process;
+ * products without a category map to {@link #UNCATEGORIZED}.
+ */
+@Component
+public class ProductCategoryLookup {
+    
+    public static final String UNCATEGORIZED = "uncategorized";
+    
+    private final ProductRepository productRepository;
+    private final Map<Long, String> categories = new ConcurrentHashMap<>();
+    
+    public ProductCategoryLookup(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+    
+    /**
+     * Get the category of a product
+     * @param productId Product ID
+     * @return Category name, never null
+     */
+    public String categoryOf(Long productId) {
+        if (productId == null) {
+            return UNCATEGORIZED;
+        }
+        String category = categories.get(productId);
+        if (category == null) {
+            category = productRepository.findById(productId)
+                    .map(Product::getCategory)
+                    .filter(name -> !name.isBlank())
+                    .orElse(UNCATEGORIZED);
+            categories.put(productId, category);
+        }
+        return category;
+    }
+}
@@ -0,0 +1,293 @@
+package com.example.demo.application.analytics;
+
+import com.example.demo.application.analytics.collection.LongLongHashMap;
+import com.example.demo.application.analytics.ingest.AnalyticsEventSink;
+import com.example.demo.application.analytics.snapshot.AnalyticsSnapshotManager;
+import com.example.demo.application.analytics.snapshot.SnapshotParticipant;
+import com.example.demo.domain.event.AnalyticsEvent;
+import com.example.demo.domain.event.OrderPlacedEvent;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Product Stats Store
+ * Application Layer - Analytics
+ * Daily orders, units, revenue, views and add-to-cart counts per product held
+ * in parallel long columns. A (product, day) pair is packed into one long key
+ * and mapped to its row by a primitive hash map, so the store allocates only
+ * when its arrays grow and a catalogue of any size adds no per-entry objects
+ * for the garbage collector to trace.
+ * Sales are restored from the analytics snapshot, or seeded with one streaming
+ * pass over all order lines, before the web server accepts requests and then
+ * follow order events; views and add-to-cart counts come from the event
+ * ingestion pipeline (and its log replay), so they are not part of the snapshot.
+ */
+@Component
+public class ProductStatsStore implements AnalyticsEventSink, SmartInitializingSingleton, SnapshotParticipant {
+    
+    private static final int DAY_BITS = 24;
+    private static final long DAY_MASK = (1L << DAY_BITS) - 1;
+    private static final int ORDERS = 0;
+    private static final int UNITS = 1;
+    private static final int REVENUE_CENTS = 2;
+    private static final int VIEWS = 3;
+    private static final int ADD_TO_CARTS = 4;
+    private static final int COLUMNS = 5;
+    
+    private final OrderScanner orderScanner;
+    private final AnalyticsSnapshotManager snapshotManager;
+    private final LongLongHashMap rows = new LongLongHashMap(4096);
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long[][] columns = new long[COLUMNS][4096];
+    private int rowCount;
+    
+    public ProductStatsStore(OrderScanner orderScanner, AnalyticsSnapshotManager snapshotManager) {
+        this.orderScanner = orderScanner;
+        this.snapshotManager = snapshotManager;
+    }
+    
+    @Override
+    public void afterSingletonsInstantiated() {
+        orderScanner.forEachLine(snapshotManager.restore(this), line -> recordSale(line.getProductId(),
+                line.getQuantity(), Cents.of(line.getSubtotal()), line.getCreatedAt()));
+    }
+    
+    @Override
+    public String getSnapshotName() {
+        return "product-sales";
+    }
+    
+    @Override
+    public int getSnapshotVersion() {
+        return 1;
+    }
+    
+    @Override
+    public void writeSnapshot(DataOutputStream out) throws IOException {
+        long[] keys;
+        long[][] sales = new long[3][];
+        lock.readLock().lock();
+        try {
+            keys = new long[rowCount];
+            rows.forEach((key, row) -> keys[(int) row] = key);
+            sales[0] = Arrays.copyOf(columns[ORDERS], rowCount);
+            sales[1] = Arrays.copyOf(columns[UNITS], rowCount);
+            sales[2] = Arrays.copyOf(columns[REVENUE_CENTS], rowCount);
+        } finally {
+            lock.readLock().unlock();
+        }
+        int sold = 0;
+        for (long orders : sales[0]) {
+            sold += orders > 0 ? 1 : 0;
+        }
+        out.writeInt(sold);
+        for (int row = 0; row < keys.length; row++) {
+            if (sales[0][row] > 0) {
+                out.writeLong(keys[row]);
+                out.writeLong(sales[0][row]);
+                out.writeLong(sales[1][row]);
+                out.writeLong(sales[2][row]);
+            }
+        }
+    }
+    
+    // Adds to the current rows, which may already hold views replayed from the event log
+    @Override
+    public void readSnapshot(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("Negative row count " + count);
+        }
+        long[] sales = new long[count * 4];
+        for (int i = 0; i < sales.length; i++) {
+            sales[i] = in.readLong();
+        }
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < sales.length; i += 4) {
+                int row = row(sales[i]);
+                columns[ORDERS][row] += sales[i + 1];
+                columns[UNITS][row] += sales[i + 2];
+                columns[REVENUE_CENTS][row] += sales[i + 3];
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        for (OrderPlacedEvent.Line line : event.getLines()) {
+            recordSale(line.getProductId(), line.getQuantity(), Cents.of(line.getSubtotal()), event.getCreatedAt());
+        }
+    }
+    
+    @Override
+    public void accept(List<AnalyticsEvent> batch) {
+        lock.writeLock().lock();
+        try {
+            for (AnalyticsEvent event : batch) {
+                if (event.getProductId() == null) {
+                    continue;
+                }
+                if (AnalyticsEvent.PRODUCT_VIEWED.equals(event.getType())) {
+                    columns[VIEWS][row(event.getProductId(), event.getOccurredAt())]++;
+                } else if (AnalyticsEvent.PRODUCT_ADDED_TO_CART.equals(event.getType())) {
+                    columns[ADD_TO_CARTS][row(event.getProductId(), event.getOccurredAt())]++;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Record one order line
+     * @param productId Product ID
+     * @param units Units sold
+     * @param revenueCents Line revenue in cents
+     * @param soldAt Order creation time
+     */
+    public void recordSale(Long productId, int units, long revenueCents, LocalDateTime soldAt) {
+        if (productId == null || soldAt == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            int row = row(productId, soldAt);
+            columns[ORDERS][row]++;
+            columns[UNITS][row] += units;
+            columns[REVENUE_CENTS][row] += revenueCents;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Get a product's daily statistics over an inclusive date range
+     * Days are whole calendar days, so a partial first or last day is counted in full
+     * @param productId Product ID
+     * @param startDate Start date
+     * @param endDate End date
+     * @return Totals and days with activity in date order
+     */
+    public ProductStats getStats(long productId, LocalDateTime startDate, LocalDateTime endDate) {
+        long firstDay = TimeBuckets.epochDay(startDate);
+        long lastDay = TimeBuckets.epochDay(endDate);
+        ProductStats stats = new ProductStats();
+        lock.readLock().lock();
+        try {
+            for (long day = firstDay; day <= lastDay; day++) {
+                int row = (int) rows.get(key(productId, day), -1);
+                if (row >= 0) {
+                    stats.add(LocalDate.ofEpochDay(day), columns[ORDERS][row], columns[UNITS][row],
+                            columns[REVENUE_CENTS][row], columns[VIEWS][row], columns[ADD_TO_CARTS][row]);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return stats;
+    }
+    
+    private int row(long productId, LocalDateTime time) {
+        return row(key(productId, TimeBuckets.epochDay(time)));
+    }
+    
+    private int row(long key) {
+        int row = (int) rows.get(key, -1);
+        if (row < 0) {
+            if (rowCount == columns[0].length) {
+                long[][] grown = new long[COLUMNS][];
+                for (int column = 0; column < COLUMNS; column++) {
+                    grown[column] = Arrays.copyOf(columns[column], rowCount * 2);
+                }
+                columns = grown;
+            }
+            row = rowCount++;
+            rows.put(key, row);
+        }
+        return row;
+    }
+    
+    private static long key(long productId, long epochDay) {
+        return (productId << DAY_BITS) | (epochDay & DAY_MASK);
+    }
+    
+    /**
+     * Per-product totals and daily breakdown for a date range
+     */
+    public static class ProductStats {
+        private long orders;
+        private long units;
+        private long revenueCents;
+        private long views;
+        private long addToCarts;
+        private final List<Day> days = new ArrayList<>();
+        
+        void add(LocalDate date, long orders, long units, long revenueCents, long views, long addToCarts) {
+            this.orders += orders;
+            this.units += units;
+            this.revenueCents += revenueCents;
+            this.views += views;
+            this.addToCarts += addToCarts;
+            days.add(new Day(date, orders, units, Cents.toAmount(revenueCents), views, addToCarts));
+        }
+        
+        public long getOrders() { return orders; }
+        public long getUnits() { return units; }
+        public BigDecimal getRevenue() { return Cents.toAmount(revenueCents); }
+        public long getViews() { return views; }
+        public long getAddToCarts() { return addToCarts; }
+        public List<Day> getDays() { return days; }
+        
+        /**
+         * Orders containing the product per hundred product views
+         * @return Conversion rate in percent, or 0 without views
+         */
+        public double getConversionRate() {
+            return views > 0 ? Math.round(orders * 1000.0 / views) / 10.0 : 0.0;
+        }
+    }
+    
+    /**
+     * One day of product activity
+     */
+    public static class Day {
+        private final LocalDate date;
+        private final long orders;
+        private final long units;
+        private final BigDecimal revenue;
+        private final long views;
+        private final long addToCarts;
+        
+        public Day(LocalDate date, long orders, long units, BigDecimal revenue, long views, long addToCarts) {
+            this.date = date;
+            this.orders = orders;
+            this.units = units;
+            this.revenue = revenue;
+            this.views = views;
+            this.addToCarts = addToCarts;
+        }
+        
+        public LocalDate getDate() { return date; }
+        public long getOrders() { return orders; }
+        public long getUnits() { return units; }
+        public BigDecimal getRevenue() { return revenue; }
+        public long getViews() { return views; }
+        public long getAddToCarts() { return addToCarts; }
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.demo.application.analytics;
+
+import com.example.demo.application.analytics.ingest.AnalyticsEventSink;
+import com.example.demo.application.analytics.sketch.ConcurrentHyperLogLog;
+import com.example.demo.application.analytics.sketch.HyperLogLog;
+import com.example.demo.application.analytics.sketch.Hashing;
+import com.example.demo.domain.event.AnalyticsEvent;
+import com.example.demo.domain.event.OrderPlacedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Real-Time Metrics Engine
+ * Application Layer - Analytics
+ * Sliding-window counters over the last hour held in lock-free ring buffers:
+ * one slot per second for orders, revenue and events, one slot per minute for
+ * a distinct-session sketch. Nothing is evicted on a timer; the first write
+ * for a newer second or minute claims its slot by swapping in a fresh bucket
+ * with compare-and-set, writes for a unit older than the slot's current one
+ * are dropped, and readers skip any bucket whose unit is outside the window.
+ * Writers never block and readers never touch the database.
+ */
+@Component
+public class RealTimeMetricsEngine implements AnalyticsEventSink {
+    
+    public static final int MAX_WINDOW_SECONDS = 3600;
+    
+    private static final int MAX_WINDOW_MINUTES = MAX_WINDOW_SECONDS / 60;
+    private static final int SESSION_SKETCH_PRECISION = 10;
+    
+    private final AtomicReferenceArray<SecondBucket> seconds = new AtomicReferenceArray<>(MAX_WINDOW_SECONDS);
+    private final AtomicReferenceArray<MinuteBucket> minutes = new AtomicReferenceArray<>(MAX_WINDOW_MINUTES);
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        long now = nowEpochSecond();
+        SecondBucket bucket = secondBucket(now);
+        bucket.orders.increment();
+        bucket.revenueCents.add(Cents.of(event.getTotalAmount()));
+        if (event.getCustomerId() != null) {
+            minuteBucket(now).sessions.addHash(Hashing.hash("customer:" + event.getCustomerId()));
+        }
+    }
+    
+    /**
+     * Record a tracked clickstream event
+     * @param event Analytics event
+     */
+    public void recordEvent(AnalyticsEvent event) {
+        long second = event.getOccurredAt().toEpochSecond(ZoneOffset.UTC);
+        if (second <= nowEpochSecond() - MAX_WINDOW_SECONDS) {
+            return;
+        }
+        secondBucket(second).events.increment();
+        String sessionKey = sessionKey(event);
+        if (sessionKey != null) {
+            minuteBucket(second).sessions.addHash(Hashing.hash(sessionKey));
+        }
+    }
+    
+    @Override
+    public void accept(List<AnalyticsEvent> batch) {
+        for (AnalyticsEvent event : batch) {
+            recordEvent(event);
+        }
+    }
+    
+    /**
+     * Summarize the trailing window ending now
+     * @param windowSeconds Window length in seconds (1 to 3600)
+     * @return Window summary
+     */
+    public WindowSummary window(int windowSeconds) {
+        if (windowSeconds < 1 || windowSeconds > MAX_WINDOW_SECONDS) {
+            throw new IllegalArgumentException("Window must be between 1 and " + MAX_WINDOW_SECONDS + " seconds");
+        }
+        long now = nowEpochSecond();
+        long orders = 0;
+        long revenueCents = 0;
+        long events = 0;
+        for (long second = now - windowSeconds + 1; second <= now; second++) {
+            SecondBucket bucket = seconds.get(slot(second, MAX_WINDOW_SECONDS));
+            if (bucket != null && bucket.epochSecond == second) {
+                orders += bucket.orders.sum();
+                revenueCents += bucket.revenueCents.sum();
+                events += bucket.events.sum();
+            }
+        }
+        
+        // Session sketches are per minute: merge the ceil(windowSeconds / 60) minutes ending
+        // with the current, partly elapsed one, so the sessions cover whole minutes whose span
+        // may start up to 59 seconds before or after the start of the exact window
+        HyperLogLog sessions = new HyperLogLog(SESSION_SKETCH_PRECISION);
+        long nowMinute = Math.floorDiv(now, 60L);
+        long windowMinutes = (windowSeconds + 59) / 60;
+        for (long minute = nowMinute - windowMinutes + 1; minute <= nowMinute; minute++) {
+            MinuteBucket bucket = minutes.get(slot(minute, MAX_WINDOW_MINUTES));
+            if (bucket != null && bucket.epochMinute == minute) {
+                bucket.sessions.mergeInto(sessions);
+            }
+        }
+        return new WindowSummary(windowSeconds, orders, Cents.toAmount(revenueCents), events, sessions.estimate());
+    }
+    
+    private SecondBucket secondBucket(long epochSecond) {
+        int slot = slot(epochSecond, MAX_WINDOW_SECONDS);
+        while (true) {
+            SecondBucket current = seconds.get(slot);
+            if (current != null && current.epochSecond == epochSecond) {
+                return current;
+            }
+            if (current != null && current.epochSecond > epochSecond) {
+                // A late write for a second that has already been recycled; count it nowhere
+                return new SecondBucket(epochSecond);
+            }
+            SecondBucket fresh = new SecondBucket(epochSecond);
+            if (seconds.compareAndSet(slot, current, fresh)) {
+                return fresh;
+            }
+        }
+    }
+    
+    private MinuteBucket minuteBucket(long epochSecond) {
+        long epochMinute = Math.floorDiv(epochSecond, 60L);
+        int slot = slot(epochMinute, MAX_WINDOW_MINUTES);
+        while (true) {
+            MinuteBucket current = minutes.get(slot);
+            if (current != null && current.epochMinute == epochMinute) {
+                return current;
+            }
+            if (current != null && current.epochMinute > epochMinute) {
+                return new MinuteBucket(epochMinute);
+            }
+            MinuteBucket fresh = new MinuteBucket(epochMinute);
+            if (minutes.compareAndSet(slot, current, fresh)) {
+                return fresh;
+            }
+        }
+    }
+    
+    private static int slot(long unit, int size) {
+        return (int) Math.floorMod(unit, (long) size);
+    }
+    
+    private static String sessionKey(AnalyticsEvent event) {
+        if (event.getSessionId() != null && !event.getSessionId().isBlank()) {
+            return "session:" + event.getSessionId();
+        }
+        if (event.getCustomerId() != null) {
+            return "customer:" + event.getCustomerId();
+        }
+        return null;
+    }
+    
+    private static long nowEpochSecond() {
+        return LocalDateTime.now().toEpochSecond(ZoneOffset.UTC);
+    }
+    
+    private static final class SecondBucket {
+        final long epochSecond;
+        final LongAdder orders = new LongAdder();
+        final LongAdder revenueCents = new LongAdder();
+        final LongAdder events = new LongAdder();
+        
+        SecondBucket(long epochSecond) {
+            this.epochSecond = epochSecond;
+        }
+    }
+    
+    private static final class MinuteBucket {
+        final long epochMinute;
+        final ConcurrentHyperLogLog sessions = new ConcurrentHyperLogLog(SESSION_SKETCH_PRECISION);
+        
+        MinuteBucket(long epochMinute) {
+            this.epochMinute = epochMinute;
+        }
+    }
+    
+    /**
+     * Totals for one trailing window
+     */
+    public static class WindowSummary {
+        private final int windowSeconds;
+        private final long orders;
+        private final BigDecimal revenue;
+        private final long events;
+        private final long activeSessions;
+        
+        public WindowSummary(int windowSeconds, long orders, BigDecimal revenue, long events, long activeSessions) {
+            this.windowSeconds = windowSeconds;
+            this.orders = orders;
+            this.revenue = revenue;
+            this.events = events;
+            this.activeSessions = activeSessions;
+        }
+        
+        public int getWindowSeconds() { return windowSeconds; }
+        public long getOrders() { return orders; }
+        public BigDecimal getRevenue() { return revenue; }
+        public long getEvents() { return events; }
+        public long getActiveSessions() { return activeSessions; }
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.demo.application.analytics;
+
+import com.example.demo.application.analytics.sketch.HyperLogLog;
+import com.example.demo.domain.entity.SalesRollup;
+import com.example.demo.domain.entity.SalesRollupDaily;
+import com.example.demo.domain.entity.SalesRollupHourly;
+import com.example.demo.domain.event.OrderPlacedEvent;
+import com.example.demo.domain.repository.OrderRepository;
+import com.example.demo.domain.repository.SalesRollupDailyRepository;
+import com.example.demo.domain.repository.SalesRollupHourlyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sales Rollup Service
+ * Application Layer - Analytics
+ * Maintains the sales_rollup_hourly and sales_rollup_daily tables on order commit
+ * and answers range queries from them. A range is split into whole days, whole
+ * hours and the unaligned minutes at either edge, so a query reads at most a few
+ * hundred rollup rows plus the orders of two partial hours, which are scanned
+ * exactly from the in-memory fact store.
+ */
+@Service
+public class SalesRollupService implements SmartInitializingSingleton {
+    
+    private static final Logger log = LoggerFactory.getLogger(SalesRollupService.class);
+    
+    private final SalesRollupHourlyRepository hourlyRepository;
+    private final SalesRollupDailyRepository dailyRepository;
+    private final OrderRepository orderRepository;
+    private final OrderScanner orderScanner;
+    private final OrderFactStore orderFactStore;
+    private final TransactionTemplate writeTransaction;
+    private final TransactionTemplate readTransaction;
+    
+    public SalesRollupService(SalesRollupHourlyRepository hourlyRepository,
+                              SalesRollupDailyRepository dailyRepository,
+                              OrderRepository orderRepository,
+                              OrderScanner orderScanner,
+                              OrderFactStore orderFactStore,
+                              PlatformTransactionManager transactionManager) {
+        this.hourlyRepository = hourlyRepository;
+        this.dailyRepository = dailyRepository;
+        this.orderRepository = orderRepository;
+        this.orderScanner = orderScanner;
+        this.orderFactStore = orderFactStore;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+    }
+    
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (hourlyRepository.count() == 0 && orderRepository.count() > 0) {
+            rebuild();
+        }
+    }
+    
+    /**
+     * Add a committed order to its hourly and daily rollup rows
+     * @param event Order placed event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        try {
+            try {
+                writeTransaction.executeWithoutResult(status -> addOrder(event));
+            } catch (DataIntegrityViolationException e) {
+                // Another transaction created the bucket row first; it now exists, so lock and update it
+                writeTransaction.executeWithoutResult(status -> addOrder(event));
+            }
+        } catch (RuntimeException e) {
+            // The order itself is already committed; a rebuild restores the rollups
+            log.error("Failed to update sales rollups for order {}", event.getOrderId(), e);
+        }
+    }
+    
+    private void addOrder(OrderPlacedEvent event) {
+        LocalDateTime createdAt = event.getCreatedAt();
+        long hour = TimeBuckets.epochHour(createdAt);
+        long day = TimeBuckets.epochDay(createdAt);
+        
+        SalesRollupHourly hourly = hourlyRepository.findForUpdate(hour)
+                .orElseGet(() -> new SalesRollupHourly(hour, TimeBuckets.hourStart(hour), new HyperLogLog().toBytes()));
+        addToRollup(hourly, event.getCustomerId(), event.getTotalAmount());
+        hourlyRepository.save(hourly);
+        
+        SalesRollupDaily daily = dailyRepository.findForUpdate(day)
+                .orElseGet(() -> new SalesRollupDaily(day, TimeBuckets.dayStart(day), new HyperLogLog().toBytes()));
+        addToRollup(daily, event.getCustomerId(), event.getTotalAmount());
+        dailyRepository.save(daily);
+    }
+    
+    private void addToRollup(SalesRollup rollup, Long customerId, BigDecimal amount) {
+        HyperLogLog sketch = HyperLogLog.fromBytes(rollup.getCustomerSketch());
+        sketch.add(customerId);
+        rollup.addOrder(amount, sketch.toBytes());
+    }
+    
+    /**
+     * Summarize sales for an inclusive date range
+     * @param startDate Start date (inclusive)
+     * @param endDate End date (inclusive)
+     * @return Sales summary
+     */
+    public SalesSummary summarize(LocalDateTime startDate, LocalDateTime endDate) {
+        if (startDate == null || endDate == null) {
+            throw new IllegalArgumentException("Start date and end date cannot be null");
+        }
+        return summarizeBetween(startDate, TimeBuckets.exclusiveEnd(endDate));
+    }
+    
+    /**
+     * Summarize sales for a half-open date range
+     * @param startDate Start date (inclusive)
+     * @param endDate End date (exclusive)
+     * @return Sales summary
+     */
+    public SalesSummary summarizeBetween(LocalDateTime startDate, LocalDateTime endDate) {
+        return readTransaction.execute(status -> summarizeRange(startDate, endDate));
+    }
+    
+    private SalesSummary summarizeRange(LocalDateTime start, LocalDateTime end) {
+        SalesSummary summary = new SalesSummary();
+        if (!start.isBefore(end)) {
+            return summary;
+        }
+        
+        LocalDateTime firstHour = TimeBuckets.ceilHour(start);
+        LocalDateTime lastHour = end.truncatedTo(ChronoUnit.HOURS);
+        if (!firstHour.isBefore(lastHour)) {
+            addRawOrders(summary, start, end);
+            return summary;
+        }
+        
+        addRawOrders(summary, start, firstHour);
+        LocalDateTime firstDay = TimeBuckets.ceilDay(firstHour);
+        LocalDateTime lastDay = lastHour.truncatedTo(ChronoUnit.DAYS);
+        if (firstDay.isBefore(lastDay)) {
+            addHourly(summary, firstHour, firstDay);
+            addDaily(summary, firstDay, lastDay);
+            addHourly(summary, lastDay, lastHour);
+        } else {
+            addHourly(summary, firstHour, lastHour);
+        }
+        addRawOrders(summary, lastHour, end);
+        return summary;
+    }
+    
+    private void addRawOrders(SalesSummary summary, LocalDateTime start, LocalDateTime end) {
+        if (!start.isBefore(end)) {
+            return;
+        }
+        orderFactStore.scan(start, end, (second, customerId, amountCents, status) ->
+                summary.addOrder(LocalDate.ofEpochDay(Math.floorDiv(second, 86400L)), customerId, amountCents));
+    }
+    
+    private void addHourly(SalesSummary summary, LocalDateTime start, LocalDateTime end) {
+        if (!start.isBefore(end)) {
+            return;
+        }
+        long fromBucket = TimeBuckets.epochHour(start);
+        long toBucket = TimeBuckets.epochHour(end) - 1;
+        for (SalesRollupHourly rollup : hourlyRepository.findByBucketBetweenOrderByBucket(fromBucket, toBucket)) {
+            addRollup(summary, rollup);
+        }
+    }
+    
+    private void addDaily(SalesSummary summary, LocalDateTime start, LocalDateTime end) {
+        long fromBucket = TimeBuckets.epochDay(start);
+        long toBucket = TimeBuckets.epochDay(end) - 1;
+        for (SalesRollupDaily rollup : dailyRepository.findByBucketBetweenOrderByBucket(fromBucket, toBucket)) {
+            addRollup(summary, rollup);
+        }
+    }
+    
+    private void addRollup(SalesSummary summary, SalesRollup rollup) {
+        summary.addBucket(rollup.getBucketStart().toLocalDate(), rollup.getOrderCount(),
+                Cents.of(rollup.getRevenue()), HyperLogLog.fromBytes(rollup.getCustomerSketch()));
+    }
+    
+    /**
+     * Rebuild all rollup rows from the orders table
+     * Reads orders in a single streaming pass over scalar projections
+     */
+    public void rebuild() {
+        Map<Long, long[]> hourTotals = new HashMap<>();
+        Map<Long, HyperLogLog> hourSketches = new HashMap<>();
+        Map<Long, long[]> dayTotals = new HashMap<>();
+        Map<Long, HyperLogLog> daySketches = new HashMap<>();
+        
+        orderScanner.forEachSummary(order -> {
+            long cents = Cents.of(order.getTotalAmount());
+            accumulate(hourTotals, hourSketches, TimeBuckets.epochHour(order.getCreatedAt()), cents, order.getCustomerId());
+            accumulate(dayTotals, daySketches, TimeBuckets.epochDay(order.getCreatedAt()), cents, order.getCustomerId());
+        });
+        
+        writeTransaction.executeWithoutResult(status -> {
+            hourlyRepository.deleteAllInBatch();
+            dailyRepository.deleteAllInBatch();
+            hourTotals.forEach((hour, totals) -> hourlyRepository.save(fill(
+                    new SalesRollupHourly(hour, TimeBuckets.hourStart(hour), hourSketches.get(hour).toBytes()), totals)));
+            dayTotals.forEach((day, totals) -> dailyRepository.save(fill(
+                    new SalesRollupDaily(day, TimeBuckets.dayStart(day), daySketches.get(day).toBytes()), totals)));
+        });
+    }
+    
+    private static void accumulate(Map<Long, long[]> totals, Map<Long, HyperLogLog> sketches,
+                                   long bucket, long cents, Long customerId) {
+        long[] bucketTotals = totals.computeIfAbsent(bucket, b -> new long[2]);
+        bucketTotals[0]++;
+        bucketTotals[1] += cents;
+        sketches.computeIfAbsent(bucket, b -> new HyperLogLog()).add(customerId);
+    }
+    
+    private static <T extends SalesRollup> T fill(T rollup, long[] totals) {
+        rollup.setTotals(totals[0], Cents.toAmount(totals[1]));
+        return rollup;
+    }
+}
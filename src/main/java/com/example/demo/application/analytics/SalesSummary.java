@@ -0,0 +1,108 @@
+package com.example.demo.application.analytics;
+
+import com.example.demo.application.analytics.sketch.HyperLogLog;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Sales Summary
+ * Order count, revenue, distinct customers and per-day sales for a date range,
+ * assembled from rollup rows plus the raw orders at the unaligned range edges
+ */
+public class SalesSummary {
+    
+    private long orderCount;
+    private long revenueCents;
+    private final HyperLogLog customers = new HyperLogLog();
+    private final TreeMap<LocalDate, long[]> daily = new TreeMap<>();
+    
+    /**
+     * Add a pre-aggregated bucket
+     * @param day Day the bucket belongs to
+     * @param orders Number of orders in the bucket
+     * @param cents Revenue in cents
+     * @param customerSketch Distinct customer sketch of the bucket
+     */
+    public void addBucket(LocalDate day, long orders, long cents, HyperLogLog customerSketch) {
+        orderCount += orders;
+        revenueCents += cents;
+        customers.merge(customerSketch);
+        long[] totals = daily.computeIfAbsent(day, d -> new long[2]);
+        totals[0] += orders;
+        totals[1] += cents;
+    }
+    
+    /**
+     * Add a single raw order
+     * @param day Day the order was created
+     * @param customerId Customer ID
+     * @param cents Order amount in cents
+     */
+    public void addOrder(LocalDate day, long customerId, long cents) {
+        orderCount++;
+        revenueCents += cents;
+        customers.add(customerId);
+        long[] totals = daily.computeIfAbsent(day, d -> new long[2]);
+        totals[0]++;
+        totals[1] += cents;
+    }
+    
+    /**
+     * Fold another summary into this one
+     * Amounts are exact cents, so the result does not depend on merge order
+     * @param other Summary to merge
+     */
+    public void merge(SalesSummary other) {
+        orderCount += other.orderCount;
+        revenueCents += other.revenueCents;
+        customers.merge(other.customers);
+        other.daily.forEach((day, totals) -> {
+            long[] merged = daily.computeIfAbsent(day, d -> new long[2]);
+            merged[0] += totals[0];
+            merged[1] += totals[1];
+        });
+    }
+    
+    public long getOrderCount() {
+        return orderCount;
+    }
+    
+    public BigDecimal getRevenue() {
+        return Cents.toAmount(revenueCents);
+    }
+    
+    public long getRevenueCents() {
+        return revenueCents;
+    }
+    
+    public long getDistinctCustomers() {
+        return customers.estimate();
+    }
+    
+    public HyperLogLog getCustomerSketch() {
+        return customers;
+    }
+    
+    /**
+     * Get sales per day in date order
+     * @return Revenue per day
+     */
+    public Map<LocalDate, BigDecimal> getRevenueByDay() {
+        Map<LocalDate, BigDecimal> revenueByDay = new TreeMap<>();
+        daily.forEach((day, totals) -> revenueByDay.put(day, Cents.toAmount(totals[1])));
+        return revenueByDay;
+    }
+    
+    /**
+     * Get order count per day in date order
+     * @return Orders per day
+     */
+    public Map<LocalDate, Long> getOrdersByDay() {
+        Map<LocalDate, Long> ordersByDay = new TreeMap<>();
+        daily.forEach((day, totals) -> ordersByDay.put(day, totals[0]));
+        return ordersByDay;
+    }
+}
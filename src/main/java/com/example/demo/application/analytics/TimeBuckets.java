@@ -0,0 +1,81 @@
+package com.example.demo.application.analytics;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Time bucket helpers for analytics
+ * Order timestamps are zone-less LocalDateTime values, so buckets are computed
+ * on the wall-clock value as if it were UTC; this keeps bucket numbers stable
+ * and consistent with the timestamps stored in the database
+ */
+public final class TimeBuckets {
+    
+    private TimeBuckets() {}
+    
+    /**
+     * Convert a time to epoch nanoseconds, saturating outside the years 1677 to 2262
+     * @param time Time
+     * @return Nanoseconds since the epoch
+     */
+    public static long epochNano(LocalDateTime time) {
+        long second = time.toEpochSecond(ZoneOffset.UTC);
+        if (second >= Long.MAX_VALUE / 1_000_000_000L) {
+            return Long.MAX_VALUE;
+        }
+        if (second < Long.MIN_VALUE / 1_000_000_000L) {
+            return Long.MIN_VALUE;
+        }
+        return second * 1_000_000_000L + time.getNano();
+    }
+    
+    public static long epochMinute(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60L);
+    }
+    
+    public static long epochHour(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 3600L);
+    }
+    
+    public static long epochDay(LocalDateTime time) {
+        return time.toLocalDate().toEpochDay();
+    }
+    
+    public static LocalDateTime hourStart(long epochHour) {
+        return LocalDateTime.ofEpochSecond(epochHour * 3600L, 0, ZoneOffset.UTC);
+    }
+    
+    public static LocalDateTime dayStart(long epochDay) {
+        return LocalDate.ofEpochDay(epochDay).atStartOfDay();
+    }
+    
+    public static LocalDateTime minuteStart(long epochMinute) {
+        return LocalDateTime.ofEpochSecond(epochMinute * 60L, 0, ZoneOffset.UTC);
+    }
+    
+    public static LocalDateTime ceilMinute(LocalDateTime time) {
+        LocalDateTime floor = time.truncatedTo(ChronoUnit.MINUTES);
+        return floor.equals(time) ? floor : floor.plusMinutes(1);
+    }
+    
+    public static LocalDateTime ceilHour(LocalDateTime time) {
+        LocalDateTime floor = time.truncatedTo(ChronoUnit.HOURS);
+        return floor.equals(time) ? floor : floor.plusHours(1);
+    }
+    
+    public static LocalDateTime ceilDay(LocalDateTime time) {
+        LocalDateTime floor = time.truncatedTo(ChronoUnit.DAYS);
+        return floor.equals(time) ? floor : floor.plusDays(1);
+    }
+    
+    /**
+     * Convert an inclusive range end (as used by BETWEEN queries) to an exclusive one
+     * @param inclusiveEnd Inclusive end
+     * @return Exclusive end
+     */
+    public static LocalDateTime exclusiveEnd(LocalDateTime inclusiveEnd) {
+        return inclusiveEnd.plusNanos(1);
+    }
+}
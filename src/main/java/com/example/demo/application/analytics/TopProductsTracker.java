@@ -0,0 +1,314 @@
+package com.example.demo.application.analytics;
+
+import com.example.demo.application.analytics.sketch.SpaceSaving;
+import com.example.demo.application.analytics.snapshot.AnalyticsSnapshotManager;
+import com.example.demo.application.analytics.snapshot.SnapshotParticipant;
+import com.example.demo.domain.event.OrderPlacedEvent;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Top Products Tracker
+ * Application Layer - Analytics
+ * Heavy-hitter products by units sold and by revenue, kept in Space-Saving
+ * summaries per category and overall: one set for all time and one per hour in
+ * a ring covering the last week. All-time queries read a single summary; window
+ * queries merge the hourly summaries of the window. Either way the cost depends
+ * on the summary capacity, never on the number of orders or products.
+ * Restored from the analytics snapshot, or seeded with one streaming pass over
+ * all order lines, before the web server accepts requests, then updated from
+ * order events after each transaction commits.
+ */
+@Component
+public class TopProductsTracker implements SmartInitializingSingleton, SnapshotParticipant {
+    
+    public static final int MAX_WINDOW_HOURS = 168;
+    
+    private static final String ALL_CATEGORIES = "";
+    
+    /**
+     * Ranking measure
+     */
+    public enum Metric { UNITS, REVENUE }
+    
+    private final OrderScanner orderScanner;
+    private final ProductCategoryLookup productCategoryLookup;
+    private final AnalyticsSnapshotManager snapshotManager;
+    private final int capacity;
+    private final HourBucket[] hours = new HourBucket[MAX_WINDOW_HOURS];
+    private final Map<String, Summaries> allTime = new HashMap<>();
+    private final Map<Long, String> productNames = new ConcurrentHashMap<>();
+    
+    public TopProductsTracker(OrderScanner orderScanner, ProductCategoryLookup productCategoryLookup,
+                              AnalyticsSnapshotManager snapshotManager,
+                              @Value("${analytics.top-products.capacity:128}") int capacity) {
+        this.orderScanner = orderScanner;
+        this.productCategoryLookup = productCategoryLookup;
+        this.snapshotManager = snapshotManager;
+        this.capacity = capacity;
+    }
+    
+    @Override
+    public void afterSingletonsInstantiated() {
+        orderScanner.forEachLine(snapshotManager.restore(this), line -> record(line.getProductId(),
+                line.getProductName(), line.getQuantity(), Cents.of(line.getSubtotal()), line.getCreatedAt()));
+    }
+    
+    @Override
+    public String getSnapshotName() {
+        return "top-products";
+    }
+    
+    @Override
+    public int getSnapshotVersion() {
+        return 1;
+    }
+    
+    @Override
+    public void writeSnapshot(DataOutputStream out) throws IOException {
+        synchronized (this) {
+            writeSummaries(out, allTime);
+            int buckets = 0;
+            for (HourBucket bucket : hours) {
+                buckets += bucket != null ? 1 : 0;
+            }
+            out.writeInt(buckets);
+            for (HourBucket bucket : hours) {
+                if (bucket != null) {
+                    out.writeLong(bucket.epochHour);
+                    writeSummaries(out, bucket.byCategory);
+                }
+            }
+        }
+        Map<Long, String> names = new HashMap<>(productNames);
+        out.writeInt(names.size());
+        for (Map.Entry<Long, String> name : names.entrySet()) {
+            out.writeLong(name.getKey());
+            out.writeUTF(name.getValue());
+        }
+    }
+    
+    @Override
+    public void readSnapshot(DataInputStream in) throws IOException {
+        Map<String, Summaries> restoredAllTime = readSummaries(in);
+        HourBucket[] restoredHours = new HourBucket[MAX_WINDOW_HOURS];
+        int buckets = in.readInt();
+        if (buckets < 0 || buckets > MAX_WINDOW_HOURS) {
+            throw new IOException("Malformed hour bucket count " + buckets);
+        }
+        for (int i = 0; i < buckets; i++) {
+            HourBucket bucket = new HourBucket(in.readLong());
+            bucket.byCategory.putAll(readSummaries(in));
+            restoredHours[slot(bucket.epochHour)] = bucket;
+        }
+        Map<Long, String> restoredNames = new HashMap<>();
+        int names = in.readInt();
+        for (int i = 0; i < names; i++) {
+            restoredNames.put(in.readLong(), in.readUTF());
+        }
+        synchronized (this) {
+            allTime.clear();
+            allTime.putAll(restoredAllTime);
+            System.arraycopy(restoredHours, 0, hours, 0, MAX_WINDOW_HOURS);
+        }
+        productNames.putAll(restoredNames);
+    }
+    
+    private static void writeSummaries(DataOutputStream out, Map<String, Summaries> byCategory) throws IOException {
+        out.writeInt(byCategory.size());
+        for (Map.Entry<String, Summaries> entry : byCategory.entrySet()) {
+            out.writeUTF(entry.getKey());
+            entry.getValue().units.writeTo(out);
+            entry.getValue().revenue.writeTo(out);
+        }
+    }
+    
+    private Map<String, Summaries> readSummaries(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("Negative category count " + count);
+        }
+        Map<String, Summaries> byCategory = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            String category = in.readUTF();
+            SpaceSaving units = SpaceSaving.readFrom(in);
+            SpaceSaving revenue = SpaceSaving.readFrom(in);
+            if (units.getCapacity() != capacity || revenue.getCapacity() != capacity) {
+                throw new IOException("Snapshot was written with another summary capacity");
+            }
+            byCategory.put(category, new Summaries(units, revenue));
+        }
+        return byCategory;
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        for (OrderPlacedEvent.Line line : event.getLines()) {
+            record(line.getProductId(), line.getProductName(), line.getQuantity(),
+                    Cents.of(line.getSubtotal()), event.getCreatedAt());
+        }
+    }
+    
+    /**
+     * Record units and revenue sold for a product
+     * @param productId Product ID
+     * @param productName Product name at the time of the order
+     * @param units Units sold
+     * @param revenueCents Revenue in cents
+     * @param soldAt Order creation time
+     */
+    public void record(Long productId, String productName, int units, long revenueCents, LocalDateTime soldAt) {
+        if (productId == null || units <= 0 || soldAt == null) {
+            return;
+        }
+        String category = productCategoryLookup.categoryOf(productId);
+        if (productName != null) {
+            productNames.put(productId, productName);
+        }
+        long hour = TimeBuckets.epochHour(soldAt);
+        long currentHour = TimeBuckets.epochHour(LocalDateTime.now());
+        synchronized (this) {
+            add(allTime, category, productId, units, revenueCents);
+            if (hour > currentHour - MAX_WINDOW_HOURS && hour <= currentHour) {
+                HourBucket bucket = hours[slot(hour)];
+                if (bucket == null || bucket.epochHour < hour) {
+                    bucket = new HourBucket(hour);
+                    hours[slot(hour)] = bucket;
+                }
+                if (bucket.epochHour == hour) {
+                    add(bucket.byCategory, category, productId, units, revenueCents);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Get the top products for a window and category
+     * @param metric Ranking measure
+     * @param windowHours Number of most recent hour buckets including the current one,
+     *                    or 0 for all time
+     * @param category Category to restrict to, or null for all categories
+     * @param limit Maximum number of products
+     * @return Products ordered by the ranking measure
+     * @throws IllegalArgumentException if the window or limit is out of range
+     */
+    public List<ProductRank> top(Metric metric, int windowHours, String category, int limit) {
+        if (windowHours < 0 || windowHours > MAX_WINDOW_HOURS) {
+            throw new IllegalArgumentException("Window must be between 0 and " + MAX_WINDOW_HOURS + " hours");
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        String key = category == null || category.isBlank() ? ALL_CATEGORIES : category;
+        Summaries source;
+        synchronized (this) {
+            source = windowHours == 0 ? allTime.get(key) : mergeWindow(key, windowHours);
+            if (source == null) {
+                return List.of();
+            }
+            SpaceSaving ranked = metric == Metric.UNITS ? source.units : source.revenue;
+            List<ProductRank> ranks = new ArrayList<>();
+            for (SpaceSaving.Counter counter : ranked.top(limit)) {
+                long productId = counter.getItem();
+                ranks.add(new ProductRank(productId, productNames.get(productId),
+                        productCategoryLookup.categoryOf(productId),
+                        source.units.count(productId), Cents.toAmount(source.revenue.count(productId))));
+            }
+            return ranks;
+        }
+    }
+    
+    private Summaries mergeWindow(String category, int windowHours) {
+        long currentHour = TimeBuckets.epochHour(LocalDateTime.now());
+        Summaries merged = null;
+        for (long hour = currentHour - windowHours + 1; hour <= currentHour; hour++) {
+            HourBucket bucket = hours[slot(hour)];
+            if (bucket == null || bucket.epochHour != hour) {
+                continue;
+            }
+            Summaries summaries = bucket.byCategory.get(category);
+            if (summaries != null) {
+                if (merged == null) {
+                    merged = new Summaries(capacity);
+                }
+                merged.units.merge(summaries.units);
+                merged.revenue.merge(summaries.revenue);
+            }
+        }
+        return merged;
+    }
+    
+    private static int slot(long epochHour) {
+        return (int) Math.floorMod(epochHour, (long) MAX_WINDOW_HOURS);
+    }
+    
+    private void add(Map<String, Summaries> byCategory, String category, long productId, int units, long revenueCents) {
+        for (String key : new String[] {ALL_CATEGORIES, category}) {
+            Summaries summaries = byCategory.computeIfAbsent(key, k -> new Summaries(capacity));
+            summaries.units.add(productId, units);
+            summaries.revenue.add(productId, Math.max(0, revenueCents));
+        }
+    }
+    
+    private static final class HourBucket {
+        final long epochHour;
+        final Map<String, Summaries> byCategory = new HashMap<>();
+        
+        HourBucket(long epochHour) {
+            this.epochHour = epochHour;
+        }
+    }
+    
+    private static final class Summaries {
+        final SpaceSaving units;
+        final SpaceSaving revenue;
+        
+        Summaries(int capacity) {
+            this(new SpaceSaving(capacity), new SpaceSaving(capacity));
+        }
+        
+        Summaries(SpaceSaving units, SpaceSaving revenue) {
+            this.units = units;
+            this.revenue = revenue;
+        }
+    }
+    
+    /**
+     * Ranked product with its estimated units and revenue
+     * Estimates may exceed the true values by at most total / capacity
+     */
+    public static class ProductRank {
+        private final long productId;
+        private final String productName;
+        private final String category;
+        private final long units;
+        private final BigDecimal revenue;
+        
+        public ProductRank(long productId, String productName, String category, long units, BigDecimal revenue) {
+            this.productId = productId;
+            this.productName = productName;
+            this.category = category;
+            this.units = units;
+            this.revenue = revenue;
+        }
+        
+        public long getProductId() { return productId; }
+        public String getProductName() { return productName; }
+        public String getCategory() { return category; }
+        public long getUnits() { return units; }
+        public BigDecimal getRevenue() { return revenue; }
+    }
+}
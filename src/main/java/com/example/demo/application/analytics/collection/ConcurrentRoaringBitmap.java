@@ -0,0 +1,355 @@
+package com.example.demo.application.analytics.collection;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongConsumer;
+
+/**
+ * Lock-free compressed bitmap of long values
+ * Values are split roaring-style into a 48-bit high key and a 16-bit low part,
+ * and every high key owns a container: a sorted char array while it holds at
+ * most 4096 values (2 bytes per value), or a 65536-bit bitmap (8 KB, 1 bit per
+ * possible value) once it is denser. Array containers are immutable and
+ * replaced by compare-and-set, bitmap words are set by compare-and-set, and
+ * adding a value that is already present never writes, so writers never block
+ * each other or readers.
+ */
+public class ConcurrentRoaringBitmap {
+    
+    static final int ARRAY_MAX = 4096;
+    private static final int BITMAP_WORDS = 1024;
+    
+    private final ConcurrentHashMap<Long, AtomicReference<Container>> containers = new ConcurrentHashMap<>();
+    
+    /**
+     * Add a value
+     * @param value Value
+     * @return true if the value was not present
+     */
+    public boolean add(long value) {
+        long key = value >>> 16;
+        char low = (char) value;
+        AtomicReference<Container> slot = containers.get(key);
+        if (slot == null) {
+            slot = containers.computeIfAbsent(key, k -> new AtomicReference<>(ArrayContainer.EMPTY));
+        }
+        while (true) {
+            Container current = slot.get();
+            if (current instanceof BitmapContainer bitmap) {
+                return bitmap.add(low);
+            }
+            ArrayContainer array = (ArrayContainer) current;
+            int index = Arrays.binarySearch(array.values, low);
+            if (index >= 0) {
+                return false;
+            }
+            Container next = array.values.length < ARRAY_MAX
+                    ? array.insert(-index - 1, low)
+                    : BitmapContainer.of(array, low);
+            if (slot.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+    
+    public boolean contains(long value) {
+        AtomicReference<Container> slot = containers.get(value >>> 16);
+        return slot != null && slot.get().contains((char) value);
+    }
+    
+    /**
+     * Add every value of another bitmap
+     * @param other Bitmap to merge
+     */
+    public void or(ConcurrentRoaringBitmap other) {
+        other.forEach(this::add);
+    }
+    
+    public long cardinality() {
+        long cardinality = 0;
+        for (AtomicReference<Container> slot : containers.values()) {
+            cardinality += slot.get().cardinality();
+        }
+        return cardinality;
+    }
+    
+    public boolean isEmpty() {
+        return cardinality() == 0;
+    }
+    
+    /**
+     * Approximate heap footprint of the containers' payloads
+     * @return Bytes used by arrays and bitmap words
+     */
+    public long getSizeInBytes() {
+        long bytes = 0;
+        for (AtomicReference<Container> slot : containers.values()) {
+            Container container = slot.get();
+            bytes += container instanceof ArrayContainer array ? 2L * array.values.length : 8L * BITMAP_WORDS;
+        }
+        return bytes;
+    }
+    
+    /**
+     * Visit every value, in no particular order of high keys
+     * @param consumer Value consumer
+     */
+    public void forEach(LongConsumer consumer) {
+        containers.forEach((key, slot) -> slot.get().forEach(key << 16, consumer));
+    }
+    
+    /**
+     * Count the distinct values of a union of bitmaps without materializing it
+     * Containers of the same high key are OR-ed into one scratch bitmap; a key
+     * present in only one bitmap contributes its cardinality directly
+     * @param bitmaps Bitmaps to union
+     * @return Cardinality of the union
+     */
+    public static long unionCardinality(Collection<ConcurrentRoaringBitmap> bitmaps) {
+        Map<Long, List<Container>> byKey = new HashMap<>();
+        for (ConcurrentRoaringBitmap bitmap : bitmaps) {
+            bitmap.containers.forEach((key, slot) -> byKey.computeIfAbsent(key, k -> new ArrayList<>(2)).add(slot.get()));
+        }
+        long cardinality = 0;
+        long[] scratch = new long[BITMAP_WORDS];
+        for (List<Container> group : byKey.values()) {
+            if (group.size() == 1) {
+                cardinality += group.get(0).cardinality();
+                continue;
+            }
+            Arrays.fill(scratch, 0);
+            for (Container container : group) {
+                container.orInto(scratch);
+            }
+            for (long word : scratch) {
+                cardinality += Long.bitCount(word);
+            }
+        }
+        return cardinality;
+    }
+    
+    /**
+     * Serialize the bitmap
+     * Layout: container count, then per container its high key, cardinality and
+     * either the sorted low parts or all 1024 bitmap words
+     * @param out Output
+     * @throws IOException if writing fails
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        List<Map.Entry<Long, Container>> entries = new ArrayList<>();
+        containers.forEach((key, slot) -> entries.add(Map.entry(key, slot.get())));
+        out.writeInt(entries.size());
+        for (Map.Entry<Long, Container> entry : entries) {
+            out.writeLong(entry.getKey());
+            if (entry.getValue() instanceof ArrayContainer array) {
+                out.writeInt(array.values.length);
+                for (char low : array.values) {
+                    out.writeChar(low);
+                }
+            } else {
+                // Copy first so the written cardinality matches the written words
+                long[] words = new long[BITMAP_WORDS];
+                entry.getValue().orInto(words);
+                int cardinality = 0;
+                for (long word : words) {
+                    cardinality += Long.bitCount(word);
+                }
+                out.writeInt(cardinality);
+                if (cardinality <= ARRAY_MAX) {
+                    writeBitsAsArray(out, words);
+                } else {
+                    for (long word : words) {
+                        out.writeLong(word);
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Read a bitmap written by {@link #writeTo(DataOutput)}
+     * @param in Input
+     * @return Bitmap
+     * @throws IOException if the input is truncated or malformed
+     */
+    public static ConcurrentRoaringBitmap readFrom(DataInput in) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("Negative container count " + count);
+        }
+        ConcurrentRoaringBitmap bitmap = new ConcurrentRoaringBitmap();
+        for (int i = 0; i < count; i++) {
+            long key = in.readLong();
+            int cardinality = in.readInt();
+            if (cardinality < 0 || cardinality > 1 << 16) {
+                throw new IOException("Invalid container cardinality " + cardinality);
+            }
+            Container container;
+            if (cardinality <= ARRAY_MAX) {
+                char[] values = new char[cardinality];
+                for (int j = 0; j < cardinality; j++) {
+                    values[j] = in.readChar();
+                    if (j > 0 && values[j] <= values[j - 1]) {
+                        throw new IOException("Unsorted array container");
+                    }
+                }
+                container = new ArrayContainer(values);
+            } else {
+                long[] words = new long[BITMAP_WORDS];
+                int bits = 0;
+                for (int j = 0; j < BITMAP_WORDS; j++) {
+                    words[j] = in.readLong();
+                    bits += Long.bitCount(words[j]);
+                }
+                if (bits != cardinality) {
+                    throw new IOException("Bitmap container holds " + bits + " values, expected " + cardinality);
+                }
+                container = new BitmapContainer(new AtomicLongArray(words), cardinality);
+            }
+            if (bitmap.containers.put(key, new AtomicReference<>(container)) != null) {
+                throw new IOException("Duplicate container key " + key);
+            }
+        }
+        return bitmap;
+    }
+    
+    private static void writeBitsAsArray(DataOutput out, long[] words) throws IOException {
+        for (int word = 0; word < BITMAP_WORDS; word++) {
+            long bits = words[word];
+            while (bits != 0) {
+                out.writeChar((word << 6) + Long.numberOfTrailingZeros(bits));
+                bits &= bits - 1;
+            }
+        }
+    }
+    
+    private sealed interface Container permits ArrayContainer, BitmapContainer {
+        boolean contains(char low);
+        
+        int cardinality();
+        
+        void orInto(long[] words);
+        
+        void forEach(long base, LongConsumer consumer);
+    }
+    
+    /**
+     * Immutable sorted low parts of a sparse container
+     */
+    private static final class ArrayContainer implements Container {
+        
+        static final ArrayContainer EMPTY = new ArrayContainer(new char[0]);
+        
+        private final char[] values;
+        
+        ArrayContainer(char[] values) {
+            this.values = values;
+        }
+        
+        ArrayContainer insert(int index, char low) {
+            char[] next = new char[values.length + 1];
+            System.arraycopy(values, 0, next, 0, index);
+            next[index] = low;
+            System.arraycopy(values, index, next, index + 1, values.length - index);
+            return new ArrayContainer(next);
+        }
+        
+        @Override
+        public boolean contains(char low) {
+            return Arrays.binarySearch(values, low) >= 0;
+        }
+        
+        @Override
+        public int cardinality() {
+            return values.length;
+        }
+        
+        @Override
+        public void orInto(long[] words) {
+            for (char low : values) {
+                words[low >>> 6] |= 1L << low;
+            }
+        }
+        
+        @Override
+        public void forEach(long base, LongConsumer consumer) {
+            for (char low : values) {
+                consumer.accept(base | low);
+            }
+        }
+    }
+    
+    /**
+     * Dense container with one bit per possible low part
+     */
+    private static final class BitmapContainer implements Container {
+        
+        private final AtomicLongArray words;
+        private final AtomicInteger cardinality;
+        
+        BitmapContainer(AtomicLongArray words, int cardinality) {
+            this.words = words;
+            this.cardinality = new AtomicInteger(cardinality);
+        }
+        
+        static BitmapContainer of(ArrayContainer array, char low) {
+            long[] words = new long[BITMAP_WORDS];
+            array.orInto(words);
+            words[low >>> 6] |= 1L << low;
+            return new BitmapContainer(new AtomicLongArray(words), array.values.length + 1);
+        }
+        
+        boolean add(char low) {
+            int index = low >>> 6;
+            long bit = 1L << low;
+            long word = words.get(index);
+            while ((word & bit) == 0) {
+                if (words.compareAndSet(index, word, word | bit)) {
+                    cardinality.incrementAndGet();
+                    return true;
+                }
+                word = words.get(index);
+            }
+            return false;
+        }
+        
+        @Override
+        public boolean contains(char low) {
+            return (words.get(low >>> 6) & (1L << low)) != 0;
+        }
+        
+        @Override
+        public int cardinality() {
+            return cardinality.get();
+        }
+        
+        @Override
+        public void orInto(long[] target) {
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                target[i] |= words.get(i);
+            }
+        }
+        
+        @Override
+        public void forEach(long base, LongConsumer consumer) {
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                long bits = words.get(i);
+                while (bits != 0) {
+                    consumer.accept(base | ((long) i << 6) + Long.numberOfTrailingZeros(bits));
+                    bits &= bits - 1;
+                }
+            }
+        }
+    }
+}
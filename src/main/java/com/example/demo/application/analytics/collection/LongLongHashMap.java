@@ -0,0 +1,259 @@
+package com.example.demo.application.analytics.collection;
+
+import com.example.demo.application.analytics.sketch.Hashing;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from long to long
+ * Keys and values live in two parallel primitive arrays with linear probing, so
+ * an entry costs 16 bytes plus load-factor slack instead of two boxed objects
+ * and a node. One key value is reserved as the empty marker and stored out of
+ * band. Not thread-safe.
+ */
+public class LongLongHashMap {
+    
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final float LOAD_FACTOR = 0.6f;
+    
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+    private boolean hasEmptyKey;
+    private long emptyKeyValue;
+    
+    public LongLongHashMap() {
+        this(16);
+    }
+    
+    public LongLongHashMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+    
+    /**
+     * Get the value of a key
+     * @param key Key
+     * @param defaultValue Value returned when the key is absent
+     * @return Stored value or the default
+     */
+    public long get(long key, long defaultValue) {
+        if (key == EMPTY) {
+            return hasEmptyKey ? emptyKeyValue : defaultValue;
+        }
+        int slot = slot(key);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return defaultValue;
+    }
+    
+    public boolean containsKey(long key) {
+        if (key == EMPTY) {
+            return hasEmptyKey;
+        }
+        int slot = slot(key);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+    
+    /**
+     * Associate a value with a key, replacing any previous value
+     * @param key Key
+     * @param value Value
+     */
+    public void put(long key, long value) {
+        if (key == EMPTY) {
+            if (!hasEmptyKey) {
+                hasEmptyKey = true;
+                size++;
+            }
+            emptyKeyValue = value;
+            return;
+        }
+        int slot = slot(key);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size >= resizeAt) {
+            rehash(keys.length << 1);
+        }
+    }
+    
+    /**
+     * Add a delta to the value of a key, starting from zero when absent
+     * @param key Key
+     * @param delta Amount to add
+     * @return New value
+     */
+    public long addTo(long key, long delta) {
+        long value = get(key, 0) + delta;
+        put(key, value);
+        return value;
+    }
+    
+    /**
+     * Remove a key
+     * Later entries of the probe run are shifted back so lookups never need tombstones
+     * @param key Key
+     * @return true if the key was present
+     */
+    public boolean remove(long key) {
+        if (key == EMPTY) {
+            if (!hasEmptyKey) {
+                return false;
+            }
+            hasEmptyKey = false;
+            size--;
+            return true;
+        }
+        int slot = slot(key);
+        while (keys[slot] != key) {
+            if (keys[slot] == EMPTY) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int home = slot(keys[next]);
+            // Move the entry into the gap unless its home lies cyclically in (gap, next]
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = EMPTY;
+        size--;
+        return true;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+        hasEmptyKey = false;
+    }
+    
+    /**
+     * Visit every entry in unspecified order
+     * @param consumer Entry consumer
+     */
+    public void forEach(EntryConsumer consumer) {
+        if (hasEmptyKey) {
+            consumer.accept(EMPTY, emptyKeyValue);
+        }
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                consumer.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+    
+    /**
+     * Write the entry count followed by every key and value
+     * @param out Data output
+     * @throws IOException if writing fails
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(size);
+        if (hasEmptyKey) {
+            out.writeLong(EMPTY);
+            out.writeLong(emptyKeyValue);
+        }
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                out.writeLong(keys[slot]);
+                out.writeLong(values[slot]);
+            }
+        }
+    }
+    
+    /**
+     * Read a map written by {@link #writeTo}
+     * @param in Data input
+     * @return New map
+     * @throws IOException if reading fails or the data is malformed
+     */
+    public static LongLongHashMap readFrom(DataInput in) throws IOException {
+        int size = in.readInt();
+        if (size < 0) {
+            throw new IOException("Negative map size " + size);
+        }
+        LongLongHashMap map = new LongLongHashMap(size);
+        for (int i = 0; i < size; i++) {
+            map.put(in.readLong(), in.readLong());
+        }
+        return map;
+    }
+    
+    private int slot(long key) {
+        return (int) Hashing.mix(key) & mask;
+    }
+    
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(capacity);
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            long key = oldKeys[slot];
+            if (key != EMPTY) {
+                int target = slot(key);
+                while (keys[target] != EMPTY) {
+                    target = (target + 1) & mask;
+                }
+                keys[target] = key;
+                values[target] = oldValues[slot];
+            }
+        }
+    }
+    
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+    
+    private static int capacityFor(int expectedSize) {
+        int needed = (int) Math.ceil(Math.max(expectedSize, 4) / LOAD_FACTOR);
+        return Integer.highestOneBit(needed - 1) << 1;
+    }
+    
+    /**
+     * Primitive entry visitor
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, long value);
+    }
+}
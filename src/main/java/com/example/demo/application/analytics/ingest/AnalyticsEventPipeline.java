@@ -0,0 +1,150 @@
+package com.example.demo.application.analytics.ingest;
+
+import com.example.demo.domain.event.AnalyticsEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Analytics Event Pipeline
+ * Application Layer - Event Ingestion
+ * Request threads only offer events to a bounded lock-free queue and never block:
+ * a full queue is reported back so the caller can shed load. A single writer
+ * thread drains the queue into batches and hands each batch to every
+ * {@link AnalyticsEventSink} once it reaches the batch size or the flush interval
+ * has elapsed since its first event.
+ */
+@Component
+public class AnalyticsEventPipeline {
+    
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsEventPipeline.class);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    
+    private final MpscBoundedQueue<AnalyticsEvent> queue;
+    private final List<AnalyticsEventSink> sinks;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Thread writer;
+    private volatile boolean running = true;
+    
+    private final Counter acceptedCounter;
+    private final Counter rejectedCounter;
+    private final Counter sinkErrorCounter;
+    private final DistributionSummary batchSizeSummary;
+    private final Timer flushTimer;
+    
+    public AnalyticsEventPipeline(List<AnalyticsEventSink> sinks, MeterRegistry meterRegistry,
+                                  @Value("${analytics.ingest.queue-capacity:65536}") int queueCapacity,
+                                  @Value("${analytics.ingest.batch-size:512}") int batchSize,
+                                  @Value("${analytics.ingest.flush-interval-ms:50}") long flushIntervalMs) {
+        if (batchSize < 1 || flushIntervalMs < 1) {
+            throw new IllegalArgumentException("Batch size and flush interval must be positive");
+        }
+        this.queue = new MpscBoundedQueue<>(queueCapacity);
+        this.sinks = List.copyOf(sinks);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        
+        Gauge.builder("analytics.ingest.queue.depth", queue, MpscBoundedQueue::size)
+                .description("Events waiting in the ingestion queue")
+                .register(meterRegistry);
+        this.acceptedCounter = Counter.builder("analytics.ingest.events")
+                .tag("outcome", "accepted")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("analytics.ingest.events")
+                .tag("outcome", "rejected")
+                .register(meterRegistry);
+        this.sinkErrorCounter = Counter.builder("analytics.ingest.sink.errors")
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("analytics.ingest.batch.size")
+                .description("Events per flushed batch")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("analytics.ingest.flush.latency")
+                .description("Time to hand one batch to every sink")
+                .register(meterRegistry);
+        
+        this.writer = new Thread(this::runWriter, "analytics-ingest-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+    
+    /**
+     * Enqueue an event without blocking
+     * @param event Analytics event
+     * @return false if the queue is full and the event was rejected
+     */
+    public boolean submit(AnalyticsEvent event) {
+        if (!running || !queue.offer(event)) {
+            rejectedCounter.increment();
+            return false;
+        }
+        acceptedCounter.increment();
+        return true;
+    }
+    
+    public int getQueueDepth() {
+        return queue.size();
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void runWriter() {
+        List<AnalyticsEvent> batch = new ArrayList<>(batchSize);
+        long batchStartedAt = 0;
+        while (running) {
+            if (batch.isEmpty() && !queue.isEmpty()) {
+                batchStartedAt = System.nanoTime();
+            }
+            queue.drain(batch::add, batchSize - batch.size());
+            if (batch.size() >= batchSize
+                    || (!batch.isEmpty() && System.nanoTime() - batchStartedAt >= flushIntervalNanos)) {
+                flush(batch);
+            } else if (queue.isEmpty()) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        // Drain whatever was accepted before shutdown
+        while (queue.drain(batch::add, batchSize - batch.size()) > 0 || !batch.isEmpty()) {
+            flush(batch);
+        }
+    }
+    
+    private void flush(List<AnalyticsEvent> batch) {
+        List<AnalyticsEvent> view = Collections.unmodifiableList(batch);
+        long start = System.nanoTime();
+        for (AnalyticsEventSink sink : sinks) {
+            try {
+                sink.accept(view);
+            } catch (RuntimeException e) {
+                sinkErrorCounter.increment();
+                log.warn("Analytics event sink {} failed on a batch of {} events",
+                        sink.getClass().getSimpleName(), batch.size(), e);
+            }
+        }
+        flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        batchSizeSummary.record(batch.size());
+        batch.clear();
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.demo.application.analytics.ingest;
+
+import com.example.demo.domain.event.AnalyticsEvent;
+
+import java.util.List;
+
+/**
+ * Analytics Event Sink
+ * Receives batches of tracked events from the ingestion pipeline's writer thread
+ * Every sink bean is picked up by the pipeline automatically
+ */
+public interface AnalyticsEventSink {
+    
+    /**
+     * Consume a batch of events
+     * Called from a single writer thread; must not block for long
+     * @param batch Events in arrival order
+     */
+    void accept(List<AnalyticsEvent> batch);
+}
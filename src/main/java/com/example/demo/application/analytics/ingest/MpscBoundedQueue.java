@@ -0,0 +1,101 @@
+package com.example.demo.application.analytics.ingest;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free multi-producer single-consumer queue
+ * Producers claim a slot by compare-and-set on the producer index and then
+ * publish the element into the ring with an ordered store; the single consumer
+ * owns the consumer index and clears each slot after reading it. A full queue
+ * rejects the offer instead of blocking the producer.
+ * @param <E> Element type
+ */
+public class MpscBoundedQueue<E> {
+    
+    private final AtomicReferenceArray<E> buffer;
+    private final int mask;
+    private final int capacity;
+    private final AtomicLong producerIndex = new AtomicLong();
+    private final AtomicLong consumerIndex = new AtomicLong();
+    
+    public MpscBoundedQueue(int requestedCapacity) {
+        if (requestedCapacity < 2) {
+            throw new IllegalArgumentException("Capacity must be at least 2");
+        }
+        int size = Integer.highestOneBit(requestedCapacity - 1) << 1;
+        this.buffer = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.capacity = size;
+    }
+    
+    /**
+     * Offer an element without blocking (safe from any thread)
+     * @param element Element to enqueue
+     * @return false if the queue is full
+     */
+    public boolean offer(E element) {
+        if (element == null) {
+            throw new NullPointerException("Element cannot be null");
+        }
+        while (true) {
+            long producer = producerIndex.get();
+            if (producer - consumerIndex.get() >= capacity) {
+                return false;
+            }
+            if (producerIndex.compareAndSet(producer, producer + 1)) {
+                buffer.lazySet((int) (producer & mask), element);
+                return true;
+            }
+        }
+    }
+    
+    /**
+     * Remove the head element (consumer thread only)
+     * @return Head element, or null if the queue is empty or the head is not yet published
+     */
+    public E poll() {
+        long consumer = consumerIndex.get();
+        int slot = (int) (consumer & mask);
+        E element = buffer.get(slot);
+        if (element == null) {
+            return null;
+        }
+        buffer.lazySet(slot, null);
+        consumerIndex.lazySet(consumer + 1);
+        return element;
+    }
+    
+    /**
+     * Move up to a limit of elements to a consumer (consumer thread only)
+     * @param consumer Element consumer
+     * @param limit Maximum number of elements to drain
+     * @return Number of elements drained
+     */
+    public int drain(Consumer<E> consumer, int limit) {
+        int drained = 0;
+        while (drained < limit) {
+            E element = poll();
+            if (element == null) {
+                break;
+            }
+            consumer.accept(element);
+            drained++;
+        }
+        return drained;
+    }
+    
+    public int size() {
+        long size = producerIndex.get() - consumerIndex.get();
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+    
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+    
+    public int capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.demo.application.analytics.query;
+
+import com.example.demo.domain.entity.Order;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Analytics Query
+ * Application Layer - Analytics
+ * Measures to aggregate over the orders created in an inclusive date range,
+ * grouped by zero or more dimensions and narrowed by optional category,
+ * product and status filters
+ */
+public final class AnalyticsQuery {
+    
+    /**
+     * Aggregated values
+     */
+    public enum Measure {
+        /** Order revenue, or line revenue when lines are filtered or grouped */
+        REVENUE,
+        /** Units across order lines */
+        UNITS,
+        /** Distinct orders */
+        ORDERS;
+        
+        /**
+         * Parse a measure name, ignoring case
+         * @param name Measure name
+         * @return Measure
+         * @throws IllegalArgumentException if the name is unknown
+         */
+        public static Measure fromName(String name) {
+            return parse(Measure.class, name);
+        }
+    }
+    
+    /**
+     * Grouping keys
+     */
+    public enum Dimension {
+        DAY, HOUR, CATEGORY, PRODUCT, STATUS;
+        
+        /**
+         * Parse a dimension name, ignoring case
+         * @param name Dimension name
+         * @return Dimension
+         * @throws IllegalArgumentException if the name is unknown
+         */
+        public static Dimension fromName(String name) {
+            return parse(Dimension.class, name);
+        }
+    }
+    
+    private final LocalDateTime startDate;
+    private final LocalDateTime endDate;
+    private final List<Measure> measures;
+    private final List<Dimension> dimensions;
+    private final String category;
+    private final Long productId;
+    private final Order.OrderStatus status;
+    
+    /**
+     * Create a query
+     * @param startDate Start date (inclusive)
+     * @param endDate End date (inclusive)
+     * @param measures Measures in output order, at least one
+     * @param dimensions Dimensions in grouping order, possibly empty
+     * @param category Category filter, or null
+     * @param productId Product filter, or null
+     * @param status Status filter, or null
+     * @throws IllegalArgumentException if the range is invalid or a measure or dimension repeats
+     */
+    public AnalyticsQuery(LocalDateTime startDate, LocalDateTime endDate, List<Measure> measures,
+                          List<Dimension> dimensions, String category, Long productId, Order.OrderStatus status) {
+        if (startDate == null || endDate == null) {
+            throw new IllegalArgumentException("Start date and end date cannot be null");
+        }
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date cannot be after end date");
+        }
+        if (measures == null || measures.isEmpty()) {
+            throw new IllegalArgumentException("At least one measure is required");
+        }
+        if (new LinkedHashSet<>(measures).size() != measures.size()) {
+            throw new IllegalArgumentException("Measures must not repeat");
+        }
+        List<Dimension> grouping = dimensions != null ? dimensions : List.of();
+        if (new LinkedHashSet<>(grouping).size() != grouping.size()) {
+            throw new IllegalArgumentException("Dimensions must not repeat");
+        }
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.measures = List.copyOf(measures);
+        this.dimensions = List.copyOf(grouping);
+        this.category = category == null || category.isBlank() ? null : category;
+        this.productId = productId;
+        this.status = status;
+    }
+    
+    /**
+     * Check whether the query has to read order lines rather than whole orders
+     * @return true if it measures units or groups or filters by category or product
+     */
+    public boolean readsLines() {
+        return measures.contains(Measure.UNITS)
+                || dimensions.contains(Dimension.CATEGORY) || dimensions.contains(Dimension.PRODUCT)
+                || category != null || productId != null;
+    }
+    
+    public boolean hasFilters() {
+        return category != null || productId != null || status != null;
+    }
+    
+    public LocalDateTime getStartDate() { return startDate; }
+    public LocalDateTime getEndDate() { return endDate; }
+    public List<Measure> getMeasures() { return measures; }
+    public List<Dimension> getDimensions() { return dimensions; }
+    public String getCategory() { return category; }
+    public Long getProductId() { return productId; }
+    public Order.OrderStatus getStatus() { return status; }
+    
+    private static <E extends Enum<E>> E parse(Class<E> type, String name) {
+        try {
+            return Enum.valueOf(type, name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            List<String> allowed = new ArrayList<>();
+            for (E value : type.getEnumConstants()) {
+                allowed.add(value.name().toLowerCase(Locale.ROOT));
+            }
+            Collections.sort(allowed);
+            throw new IllegalArgumentException("Unknown " + type.getSimpleName().toLowerCase(Locale.ROOT)
+                    + " '" + name + "', expected one of " + allowed);
+        }
+    }
+}
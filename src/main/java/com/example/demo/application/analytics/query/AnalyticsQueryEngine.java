@@ -0,0 +1,345 @@
+package com.example.demo.application.analytics.query;
+
+import com.example.demo.application.analytics.Cents;
+import com.example.demo.application.analytics.OrderFactStore;
+import com.example.demo.application.analytics.ProductCategoryLookup;
+import com.example.demo.application.analytics.SalesRollupService;
+import com.example.demo.application.analytics.SalesSummary;
+import com.example.demo.application.analytics.TimeBuckets;
+import com.example.demo.domain.entity.Order;
+import com.example.demo.domain.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Analytics Query Engine
+ * Application Layer - Analytics
+ * Answers dimensional analytics queries without aggregating entities in Java.
+ * Unfiltered order and revenue totals, overall or per day, are read from the
+ * sales rollups; order totals per status and revenue per category or product
+ * are group-bys over the columns of the in-memory order fact store; everything
+ * else becomes a single JPQL GROUP BY over orders, joined to their lines and
+ * products only when a measure, dimension or filter needs them, with every
+ * filter in the WHERE clause. Before running, the number of groups is
+ * estimated from the range length and the catalogue size, and queries above the
+ * configured limit are rejected.
+ */
+@Component
+public class AnalyticsQueryEngine {
+    
+    private static final String DAY_EXPRESSION = "cast(o.createdAt as LocalDate)";
+    // ORDER BY o.status sorts the stored enum names
+    private static final List<Order.OrderStatus> STATUSES_BY_NAME = Arrays.stream(Order.OrderStatus.values())
+            .sorted(Comparator.comparing(Order.OrderStatus::name))
+            .toList();
+    
+    private final SalesRollupService salesRollupService;
+    private final OrderFactStore orderFactStore;
+    private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readTransaction;
+    private final long maxGroups;
+    
+    public AnalyticsQueryEngine(SalesRollupService salesRollupService, OrderFactStore orderFactStore,
+                                ProductRepository productRepository,
+                                EntityManager entityManager, PlatformTransactionManager transactionManager,
+                                @Value("${analytics.query.max-groups:10000}") long maxGroups) {
+        if (maxGroups < 1) {
+            throw new IllegalArgumentException("Maximum group count must be positive");
+        }
+        this.salesRollupService = salesRollupService;
+        this.orderFactStore = orderFactStore;
+        this.productRepository = productRepository;
+        this.entityManager = entityManager;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.maxGroups = maxGroups;
+    }
+    
+    /**
+     * Run a query
+     * @param query Query
+     * @return Result rows in dimension order
+     * @throws QueryTooWideException if the estimated number of groups exceeds the limit
+     */
+    public QueryResult execute(AnalyticsQuery query) {
+        long estimatedGroups = estimateGroups(query);
+        if (estimatedGroups > maxGroups) {
+            throw new QueryTooWideException(estimatedGroups, maxGroups);
+        }
+        long started = System.nanoTime();
+        boolean fromRollups = !query.hasFilters() && !query.readsLines()
+                && (query.getDimensions().isEmpty() || query.getDimensions().equals(List.of(AnalyticsQuery.Dimension.DAY)));
+        boolean fromFacts = !fromRollups && answersFromFacts(query);
+        List<Map<String, Object>> rows = fromRollups ? fromRollups(query) : fromFacts ? fromFacts(query) : fromOrders(query);
+        return new QueryResult(fromRollups ? "rollup" : fromFacts ? "memory" : "sql", estimatedGroups, rows,
+                (System.nanoTime() - started) / 1_000_000);
+    }
+    
+    /**
+     * Estimate the number of result groups as the product of the dimension cardinalities
+     * @param query Query
+     * @return Upper bound on the number of rows
+     */
+    public long estimateGroups(AnalyticsQuery query) {
+        long groups = 1;
+        boolean hourly = query.getDimensions().contains(AnalyticsQuery.Dimension.HOUR);
+        for (AnalyticsQuery.Dimension dimension : query.getDimensions()) {
+            if (dimension == AnalyticsQuery.Dimension.DAY && hourly) {
+                // HOUR is grouped as (day, hour of day), so DAY adds no groups of its own
+                continue;
+            }
+            long cardinality = switch (dimension) {
+                case DAY -> TimeBuckets.epochDay(query.getEndDate()) - TimeBuckets.epochDay(query.getStartDate()) + 1;
+                case HOUR -> TimeBuckets.epochHour(query.getEndDate()) - TimeBuckets.epochHour(query.getStartDate()) + 1;
+                // Products without a category form one more group
+                case CATEGORY -> query.getCategory() != null ? 1 : productRepository.countDistinctCategories() + 1;
+                case PRODUCT -> query.getProductId() != null ? 1 : productRepository.count();
+                case STATUS -> query.getStatus() != null ? 1 : Order.OrderStatus.values().length;
+            };
+            groups = multiplySaturated(groups, Math.max(1, cardinality));
+        }
+        return groups;
+    }
+    
+    private List<Map<String, Object>> fromRollups(AnalyticsQuery query) {
+        SalesSummary summary = salesRollupService.summarizeBetween(query.getStartDate(),
+                TimeBuckets.exclusiveEnd(query.getEndDate()));
+        List<Map<String, Object>> rows = new ArrayList<>();
+        if (query.getDimensions().isEmpty()) {
+            rows.add(measureRow(new LinkedHashMap<>(), query, summary.getRevenue(), null, summary.getOrderCount()));
+            return rows;
+        }
+        Map<LocalDate, Long> ordersByDay = summary.getOrdersByDay();
+        summary.getRevenueByDay().forEach((day, revenue) -> {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("day", day);
+            rows.add(measureRow(row, query, revenue, null, ordersByDay.getOrDefault(day, 0L)));
+        });
+        return rows;
+    }
+    
+    // Order totals overall or per status, optionally for one status, and unfiltered revenue per category or product
+    private static boolean answersFromFacts(AnalyticsQuery query) {
+        List<AnalyticsQuery.Dimension> dimensions = query.getDimensions();
+        if (!query.readsLines()) {
+            return dimensions.isEmpty() || dimensions.equals(List.of(AnalyticsQuery.Dimension.STATUS));
+        }
+        return !query.hasFilters() && query.getMeasures().equals(List.of(AnalyticsQuery.Measure.REVENUE))
+                && (dimensions.equals(List.of(AnalyticsQuery.Dimension.CATEGORY))
+                        || dimensions.equals(List.of(AnalyticsQuery.Dimension.PRODUCT)));
+    }
+    
+    private List<Map<String, Object>> fromFacts(AnalyticsQuery query) {
+        LocalDateTime start = query.getStartDate();
+        LocalDateTime end = TimeBuckets.exclusiveEnd(query.getEndDate());
+        List<Map<String, Object>> rows = new ArrayList<>();
+        if (query.getDimensions().contains(AnalyticsQuery.Dimension.CATEGORY)) {
+            new TreeMap<>(orderFactStore.revenueByCategory(start, end)).forEach((category, cents) -> {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("category", category);
+                rows.add(measureRow(row, query, Cents.toAmount(cents), null, null));
+            });
+            return rows;
+        }
+        if (query.getDimensions().contains(AnalyticsQuery.Dimension.PRODUCT)) {
+            Map<Long, Long> revenueByProduct = new TreeMap<>();
+            orderFactStore.revenueByProduct(start, end).forEach(revenueByProduct::put);
+            revenueByProduct.forEach((productId, cents) -> {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("productId", productId >= 0 ? productId : null);
+                row.put("productName", orderFactStore.productName(productId));
+                rows.add(measureRow(row, query, Cents.toAmount(cents), null, null));
+            });
+            return rows;
+        }
+        
+        OrderFactStore.StatusTotals totals = orderFactStore.totalsByStatus(start, end);
+        if (query.getDimensions().isEmpty()) {
+            Order.OrderStatus status = query.getStatus();
+            rows.add(measureRow(new LinkedHashMap<>(), query,
+                    Cents.toAmount(status != null ? totals.getCents(status) : totals.getTotalCents()), null,
+                    status != null ? totals.getCount(status) : totals.getTotalCount()));
+            return rows;
+        }
+        for (Order.OrderStatus status : STATUSES_BY_NAME) {
+            if (totals.getCount(status) > 0 && (query.getStatus() == null || query.getStatus() == status)) {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("status", status.name());
+                rows.add(measureRow(row, query, Cents.toAmount(totals.getCents(status)), null, totals.getCount(status)));
+            }
+        }
+        return rows;
+    }
+    
+    private List<Map<String, Object>> fromOrders(AnalyticsQuery query) {
+        boolean lines = query.readsLines();
+        boolean products = query.getCategory() != null || query.getDimensions().contains(AnalyticsQuery.Dimension.CATEGORY);
+        
+        // HOUR is grouped as (day, hour of day), so DAY and HOUR share the day column
+        List<String> groupBy = new ArrayList<>();
+        Map<AnalyticsQuery.Dimension, int[]> columns = new EnumMap<>(AnalyticsQuery.Dimension.class);
+        for (AnalyticsQuery.Dimension dimension : query.getDimensions()) {
+            columns.put(dimension, switch (dimension) {
+                case DAY -> new int[] {groupColumn(groupBy, DAY_EXPRESSION)};
+                case HOUR -> new int[] {groupColumn(groupBy, DAY_EXPRESSION), groupColumn(groupBy, "extract(hour from o.createdAt)")};
+                case CATEGORY -> new int[] {groupColumn(groupBy, "p.category")};
+                case PRODUCT -> new int[] {groupColumn(groupBy, "i.productId")};
+                case STATUS -> new int[] {groupColumn(groupBy, "o.status")};
+            });
+        }
+        List<String> select = new ArrayList<>(groupBy);
+        if (columns.containsKey(AnalyticsQuery.Dimension.PRODUCT)) {
+            select.add("max(i.productName)");
+        }
+        int firstMeasure = select.size();
+        for (AnalyticsQuery.Measure measure : query.getMeasures()) {
+            select.add(switch (measure) {
+                case REVENUE -> lines ? "sum(i.subtotal)" : "sum(o.totalAmount)";
+                case UNITS -> "sum(i.quantity)";
+                case ORDERS -> lines ? "count(distinct o.id)" : "count(o.id)";
+            });
+        }
+        
+        StringBuilder jpql = new StringBuilder("SELECT ").append(String.join(", ", select)).append(" FROM Order o");
+        if (lines) {
+            jpql.append(" JOIN o.orderItems i");
+        }
+        if (products) {
+            jpql.append(" LEFT JOIN Product p ON p.id = i.productId");
+        }
+        jpql.append(" WHERE o.createdAt >= :startDate AND o.createdAt < :endDate");
+        if (query.getCategory() != null) {
+            jpql.append(" AND p.category = :category");
+        }
+        if (query.getProductId() != null) {
+            jpql.append(" AND i.productId = :productId");
+        }
+        if (query.getStatus() != null) {
+            jpql.append(" AND o.status = :status");
+        }
+        if (!groupBy.isEmpty()) {
+            String keys = String.join(", ", groupBy);
+            jpql.append(" GROUP BY ").append(keys).append(" ORDER BY ").append(keys);
+        }
+        
+        List<Object[]> tuples = readTransaction.execute(status -> {
+            TypedQuery<Object[]> typed = entityManager.createQuery(jpql.toString(), Object[].class)
+                    .setHint(HibernateHints.HINT_READ_ONLY, true)
+                    .setParameter("startDate", query.getStartDate())
+                    .setParameter("endDate", TimeBuckets.exclusiveEnd(query.getEndDate()));
+            if (query.getCategory() != null) {
+                typed.setParameter("category", query.getCategory());
+            }
+            if (query.getProductId() != null) {
+                typed.setParameter("productId", query.getProductId());
+            }
+            if (query.getStatus() != null) {
+                typed.setParameter("status", query.getStatus());
+            }
+            return typed.getResultList();
+        });
+        
+        List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+        for (Object[] tuple : tuples) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (AnalyticsQuery.Dimension dimension : query.getDimensions()) {
+                int[] at = columns.get(dimension);
+                switch (dimension) {
+                    case DAY -> row.put("day", tuple[at[0]]);
+                    case HOUR -> row.put("hour", ((LocalDate) tuple[at[0]]).atTime(((Number) tuple[at[1]]).intValue(), 0));
+                    case CATEGORY -> row.put("category", tuple[at[0]] != null ? tuple[at[0]] : ProductCategoryLookup.UNCATEGORIZED);
+                    case PRODUCT -> {
+                        row.put("productId", tuple[at[0]]);
+                        row.put("productName", tuple[groupBy.size()]);
+                    }
+                    case STATUS -> row.put("status", ((Order.OrderStatus) tuple[at[0]]).name());
+                }
+            }
+            int column = firstMeasure;
+            BigDecimal revenue = null;
+            Long units = null;
+            Long orders = null;
+            for (AnalyticsQuery.Measure measure : query.getMeasures()) {
+                Object value = tuple[column++];
+                switch (measure) {
+                    case REVENUE -> revenue = value != null ? (BigDecimal) value : BigDecimal.ZERO;
+                    case UNITS -> units = value != null ? ((Number) value).longValue() : 0L;
+                    case ORDERS -> orders = value != null ? ((Number) value).longValue() : 0L;
+                }
+            }
+            rows.add(measureRow(row, query, revenue, units, orders));
+        }
+        return rows;
+    }
+    
+    private static int groupColumn(List<String> groupBy, String expression) {
+        int column = groupBy.indexOf(expression);
+        if (column < 0) {
+            groupBy.add(expression);
+            column = groupBy.size() - 1;
+        }
+        return column;
+    }
+    
+    private static Map<String, Object> measureRow(Map<String, Object> row, AnalyticsQuery query,
+                                                  BigDecimal revenue, Long units, Long orders) {
+        for (AnalyticsQuery.Measure measure : query.getMeasures()) {
+            String name = measure.name().toLowerCase(Locale.ROOT);
+            switch (measure) {
+                case REVENUE -> row.put(name, (revenue != null ? revenue : BigDecimal.ZERO).setScale(2, RoundingMode.HALF_UP));
+                case UNITS -> row.put(name, units != null ? units : 0L);
+                case ORDERS -> row.put(name, orders != null ? orders : 0L);
+            }
+        }
+        return row;
+    }
+    
+    private static long multiplySaturated(long a, long b) {
+        long high = Math.multiplyHigh(a, b);
+        long product = a * b;
+        return high != 0 || product < 0 ? Long.MAX_VALUE : product;
+    }
+    
+    /**
+     * Rows of a query together with how they were produced
+     */
+    public static class QueryResult {
+        private final String source;
+        private final long estimatedGroups;
+        private final List<Map<String, Object>> rows;
+        private final long elapsedMs;
+        
+        public QueryResult(String source, long estimatedGroups, List<Map<String, Object>> rows, long elapsedMs) {
+            this.source = source;
+            this.estimatedGroups = estimatedGroups;
+            this.rows = rows;
+            this.elapsedMs = elapsedMs;
+        }
+        
+        /** "rollup" when read from the sales rollups, "memory" from the order fact store, "sql" for a GROUP BY over orders */
+        public String getSource() { return source; }
+        public long getEstimatedGroups() { return estimatedGroups; }
+        public List<Map<String, Object>> getRows() { return rows; }
+        public long getElapsedMs() { return elapsedMs; }
+    }
+}
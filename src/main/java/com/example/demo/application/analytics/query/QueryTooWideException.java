@@ -0,0 +1,24 @@
+package com.example.demo.application.analytics.query;
+
+/**
+ * Query Too Wide Exception
+ * Application Layer - Analytics
+ * Thrown when the estimated number of groups of a query exceeds the configured limit
+ */
+public class QueryTooWideException extends IllegalArgumentException {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private final long estimatedGroups;
+    private final long maxGroups;
+    
+    public QueryTooWideException(long estimatedGroups, long maxGroups) {
+        super("Query would produce an estimated " + estimatedGroups + " groups, more than the limit of " + maxGroups
+                + "; narrow the date range, add filters or drop a dimension");
+        this.estimatedGroups = estimatedGroups;
+        this.maxGroups = maxGroups;
+    }
+    
+    public long getEstimatedGroups() { return estimatedGroups; }
+    public long getMaxGroups() { return maxGroups; }
+}
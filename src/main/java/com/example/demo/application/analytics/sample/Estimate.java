@@ -0,0 +1,44 @@
+package com.example.demo.application.analytics.sample;
+
+/**
+ * Estimate
+ * Application Layer - Analytics
+ * Point estimate of a metric with the bounds of its confidence interval
+ */
+public final class Estimate {
+    
+    private final double value;
+    private final double lower;
+    private final double upper;
+    
+    public Estimate(double value, double lower, double upper) {
+        this.value = value;
+        this.lower = Math.min(lower, value);
+        this.upper = Math.max(upper, value);
+    }
+    
+    /**
+     * Create an estimate with a symmetric interval, clipped to a valid range
+     * @param value Point estimate
+     * @param margin Half-width of the interval
+     * @param min Smallest valid value
+     * @param max Largest valid value
+     * @return Estimate
+     */
+    public static Estimate of(double value, double margin, double min, double max) {
+        return new Estimate(value, Math.max(min, value - margin), Math.min(max, value + margin));
+    }
+    
+    /**
+     * Create an exactly known value
+     * @param value Value
+     * @return Estimate whose interval is the value itself
+     */
+    public static Estimate exact(double value) {
+        return new Estimate(value, value, value);
+    }
+    
+    public double getValue() { return value; }
+    public double getLower() { return lower; }
+    public double getUpper() { return upper; }
+}
@@ -0,0 +1,357 @@
+package com.example.demo.application.analytics.sample;
+
+import com.example.demo.application.analytics.Cents;
+import com.example.demo.application.analytics.CustomerFirstSeenIndex;
+import com.example.demo.application.analytics.OrderScanner;
+import com.example.demo.application.analytics.TimeBuckets;
+import com.example.demo.application.analytics.snapshot.AnalyticsSnapshotManager;
+import com.example.demo.application.analytics.snapshot.SnapshotParticipant;
+import com.example.demo.domain.event.OrderPlacedEvent;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Order Sample Store
+ * Application Layer - Analytics
+ * Stratified sample of orders: one fixed-size uniform reservoir per UTC day
+ * next to the exact number of orders placed that day. A range estimate scales
+ * each day's sample up to its population (stratified Horvitz-Thompson) and
+ * derives a normal-approximation confidence interval from the within-day
+ * variances, so a day that is fully sampled contributes no error at all.
+ * Reservoirs are kept in random order, which makes every prefix a uniform
+ * sample too; when a range spans more days than the query budget allows,
+ * only a prefix of each reservoir is read, so the cost of an estimate is
+ * bounded by the budget and the number of days, never by the number of orders.
+ * Restored from the analytics snapshot, or seeded with one streaming pass over
+ * all orders, before the web server accepts requests, then updated from order
+ * events after each transaction commits.
+ */
+@Component
+public class OrderSampleStore implements SmartInitializingSingleton, SnapshotParticipant {
+    
+    /** Two-sided 95% quantile of the standard normal distribution */
+    public static final double Z_95 = 1.959964;
+    
+    private final OrderScanner orderScanner;
+    private final CustomerFirstSeenIndex customerFirstSeenIndex;
+    private final AnalyticsSnapshotManager snapshotManager;
+    private final int samplesPerDay;
+    private final int queryBudget;
+    private NavigableMap<Long, Stratum> strata = new TreeMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    public OrderSampleStore(OrderScanner orderScanner, CustomerFirstSeenIndex customerFirstSeenIndex,
+                            AnalyticsSnapshotManager snapshotManager,
+                            @Value("${analytics.sample.per-day:64}") int samplesPerDay,
+                            @Value("${analytics.sample.query-budget:20000}") int queryBudget) {
+        if (samplesPerDay < 2) {
+            throw new IllegalArgumentException("At least two samples per day are required");
+        }
+        if (queryBudget < 2) {
+            throw new IllegalArgumentException("Sample query budget must be at least two");
+        }
+        this.orderScanner = orderScanner;
+        this.customerFirstSeenIndex = customerFirstSeenIndex;
+        this.snapshotManager = snapshotManager;
+        this.samplesPerDay = samplesPerDay;
+        this.queryBudget = queryBudget;
+    }
+    
+    @Override
+    public void afterSingletonsInstantiated() {
+        orderScanner.forEachSummary(snapshotManager.restore(this),
+                summary -> record(summary.getCustomerId(), Cents.of(summary.getTotalAmount()), summary.getCreatedAt()));
+    }
+    
+    @Override
+    public String getSnapshotName() {
+        return "order-sample";
+    }
+    
+    @Override
+    public int getSnapshotVersion() {
+        return 1;
+    }
+    
+    @Override
+    public void writeSnapshot(DataOutputStream out) throws IOException {
+        lock.readLock().lock();
+        try {
+            out.writeInt(samplesPerDay);
+            out.writeInt(strata.size());
+            for (Map.Entry<Long, Stratum> entry : strata.entrySet()) {
+                Stratum stratum = entry.getValue();
+                out.writeLong(entry.getKey());
+                out.writeLong(stratum.population);
+                out.writeInt(stratum.size);
+                for (int i = 0; i < stratum.size; i++) {
+                    out.writeLong(stratum.customerIds[i]);
+                    out.writeLong(stratum.cents[i]);
+                    out.writeLong(stratum.seconds[i]);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    @Override
+    public void readSnapshot(DataInputStream in) throws IOException {
+        if (in.readInt() != samplesPerDay) {
+            throw new IOException("Snapshot was written with another sample size");
+        }
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("Negative day count " + count);
+        }
+        NavigableMap<Long, Stratum> restored = new TreeMap<>();
+        for (int i = 0; i < count; i++) {
+            long day = in.readLong();
+            Stratum stratum = new Stratum(samplesPerDay);
+            stratum.population = in.readLong();
+            stratum.size = in.readInt();
+            if (stratum.size < 0 || stratum.size > samplesPerDay || stratum.population < stratum.size) {
+                throw new IOException("Invalid sample of " + stratum.size + " orders for day " + day);
+            }
+            for (int j = 0; j < stratum.size; j++) {
+                stratum.customerIds[j] = in.readLong();
+                stratum.cents[j] = in.readLong();
+                stratum.seconds[j] = in.readLong();
+            }
+            restored.put(day, stratum);
+        }
+        lock.writeLock().lock();
+        try {
+            strata = restored;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        record(event.getCustomerId(), Cents.of(event.getTotalAmount()), event.getCreatedAt());
+    }
+    
+    /**
+     * Offer a placed order to its day's reservoir
+     * @param customerId Customer ID
+     * @param totalCents Order total in cents
+     * @param createdAt Order creation time
+     */
+    public void record(Long customerId, long totalCents, LocalDateTime createdAt) {
+        if (customerId == null || createdAt == null) {
+            return;
+        }
+        long day = TimeBuckets.epochDay(createdAt);
+        long second = createdAt.toEpochSecond(ZoneOffset.UTC);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        lock.writeLock().lock();
+        try {
+            Stratum stratum = strata.computeIfAbsent(day, d -> new Stratum(samplesPerDay));
+            stratum.population++;
+            int slot;
+            if (stratum.size < samplesPerDay) {
+                // Inside-out shuffle: move a random element to the end and take its slot
+                slot = random.nextInt(stratum.size + 1);
+                stratum.move(slot, stratum.size);
+                stratum.size++;
+            } else {
+                // Algorithm R: keep the order with probability size / population, in a random slot
+                long draw = random.nextLong(stratum.population);
+                if (draw >= samplesPerDay) {
+                    return;
+                }
+                slot = (int) draw;
+            }
+            stratum.customerIds[slot] = customerId;
+            stratum.cents[slot] = totalCents;
+            stratum.seconds[slot] = second;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Estimate order, revenue and new-customer totals over a half-open range
+     * @param startDate Start date (inclusive)
+     * @param endDate End date (exclusive)
+     * @return Estimates with 95% confidence intervals
+     */
+    public SampleEstimate estimate(LocalDateTime startDate, LocalDateTime endDate) {
+        if (startDate == null || endDate == null) {
+            throw new IllegalArgumentException("Start date and end date cannot be null");
+        }
+        if (!startDate.isBefore(endDate)) {
+            return new SampleEstimate(Estimate.exact(0), Estimate.exact(0), Estimate.exact(0), Estimate.exact(0),
+                    new LinkedHashMap<>(), 0, 0);
+        }
+        long fromSecond = ceilSecond(startDate);
+        long toSecond = ceilSecond(endDate);
+        long firstDay = TimeBuckets.epochDay(startDate);
+        long lastDay = TimeBuckets.epochDay(endDate.minusNanos(1));
+        int perDay = (int) Math.max(2, Math.min(samplesPerDay, queryBudget / (lastDay - firstDay + 1)));
+        
+        // Totals and variances of x = in range, y = revenue in range and z = new customer in range
+        double totalX = 0, totalY = 0, totalZ = 0;
+        double varX = 0, varY = 0, covXY = 0, varZ = 0;
+        long sampled = 0;
+        long population = 0;
+        Map<LocalDate, Estimate> revenueByDay = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            for (Map.Entry<Long, Stratum> entry : strata.subMap(firstDay, true, lastDay, true).entrySet()) {
+                Stratum stratum = entry.getValue();
+                int n = Math.min(stratum.size, perDay);
+                if (n == 0) {
+                    continue;
+                }
+                double sx = 0, sy = 0, syy = 0, sz = 0;
+                for (int i = 0; i < n; i++) {
+                    long second = stratum.seconds[i];
+                    if (second < fromSecond || second >= toSecond) {
+                        continue;
+                    }
+                    double y = stratum.cents[i];
+                    sx++;
+                    sy += y;
+                    syy += y * y;
+                    if (customerFirstSeenIndex.isFirstOrder(stratum.customerIds[i], second)) {
+                        sz++;
+                    }
+                }
+                double scale = (double) stratum.population / n;
+                // N^2 (1 - n/N) / n; zero when the whole day is in the sample
+                double weight = n > 1 ? scale * (stratum.population - n) : 0;
+                double dayVarY = weight * (syy - sy * sy / n) / Math.max(1, n - 1);
+                totalX += scale * sx;
+                totalY += scale * sy;
+                totalZ += scale * sz;
+                // x and z are indicators, so their sums of squares equal their sums, and xy = y
+                varX += weight * (sx - sx * sx / n) / Math.max(1, n - 1);
+                varY += dayVarY;
+                covXY += weight * (sy - sx * sy / n) / Math.max(1, n - 1);
+                varZ += weight * (sz - sz * sz / n) / Math.max(1, n - 1);
+                sampled += n;
+                population += stratum.population;
+                if (sx > 0) {
+                    revenueByDay.put(LocalDate.ofEpochDay(entry.getKey()),
+                            Estimate.of(scale * sy, Z_95 * Math.sqrt(Math.max(0, dayVarY)), 0, Double.MAX_VALUE));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        
+        Estimate orders = Estimate.of(totalX, Z_95 * Math.sqrt(Math.max(0, varX)), 0, population);
+        Estimate revenue = Estimate.of(totalY, Z_95 * Math.sqrt(Math.max(0, varY)), 0, Double.MAX_VALUE);
+        Estimate newCustomers = Estimate.of(totalZ, Z_95 * Math.sqrt(Math.max(0, varZ)), 0, orders.getUpper());
+        Estimate averageOrderValue;
+        if (totalX > 0) {
+            // Ratio estimator, variance by linearization
+            double ratio = totalY / totalX;
+            double varRatio = (varY - 2 * ratio * covXY + ratio * ratio * varX) / (totalX * totalX);
+            averageOrderValue = Estimate.of(ratio, Z_95 * Math.sqrt(Math.max(0, varRatio)), 0, Double.MAX_VALUE);
+        } else {
+            averageOrderValue = Estimate.exact(0);
+        }
+        return new SampleEstimate(orders, revenue, averageOrderValue, newCustomers, revenueByDay, sampled, population);
+    }
+    
+    public long getSampledOrderCount() {
+        lock.readLock().lock();
+        try {
+            long count = 0;
+            for (Stratum stratum : strata.values()) {
+                count += stratum.size;
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public int getSamplesPerDay() {
+        return samplesPerDay;
+    }
+    
+    private static long ceilSecond(LocalDateTime time) {
+        long second = time.toEpochSecond(ZoneOffset.UTC);
+        return time.getNano() > 0 ? second + 1 : second;
+    }
+    
+    /**
+     * Reservoir of one day
+     */
+    private static final class Stratum {
+        private final long[] customerIds;
+        private final long[] cents;
+        private final long[] seconds;
+        private long population;
+        private int size;
+        
+        Stratum(int capacity) {
+            this.customerIds = new long[capacity];
+            this.cents = new long[capacity];
+            this.seconds = new long[capacity];
+        }
+        
+        void move(int from, int to) {
+            customerIds[to] = customerIds[from];
+            cents[to] = cents[from];
+            seconds[to] = seconds[from];
+        }
+    }
+    
+    /**
+     * Estimated totals of a range
+     */
+    public static final class SampleEstimate {
+        private final Estimate orders;
+        private final Estimate revenueCents;
+        private final Estimate averageOrderValueCents;
+        private final Estimate newCustomers;
+        private final Map<LocalDate, Estimate> revenueCentsByDay;
+        private final long sampledOrders;
+        private final long population;
+        
+        SampleEstimate(Estimate orders, Estimate revenueCents, Estimate averageOrderValueCents, Estimate newCustomers,
+                       Map<LocalDate, Estimate> revenueCentsByDay, long sampledOrders, long population) {
+            this.orders = orders;
+            this.revenueCents = revenueCents;
+            this.averageOrderValueCents = averageOrderValueCents;
+            this.newCustomers = newCustomers;
+            this.revenueCentsByDay = revenueCentsByDay;
+            this.sampledOrders = sampledOrders;
+            this.population = population;
+        }
+        
+        public Estimate getOrders() { return orders; }
+        public Estimate getRevenueCents() { return revenueCents; }
+        public Estimate getAverageOrderValueCents() { return averageOrderValueCents; }
+        /** Orders in the range that were their customer's first, i.e. customers first seen in it */
+        public Estimate getNewCustomers() { return newCustomers; }
+        /** Revenue per day with at least one sampled order in the range, in date order */
+        public Map<LocalDate, Estimate> getRevenueCentsByDay() { return revenueCentsByDay; }
+        /** Number of sampled orders read, in or out of the range */
+        public long getSampledOrders() { return sampledOrders; }
+        /** Number of orders placed on the days read */
+        public long getPopulation() { return population; }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.demo.application.analytics.sketch;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Lock-free HyperLogLog distinct-count sketch
+ * Registers live in an AtomicIntegerArray and only ever grow, so concurrent
+ * writers race benignly with a compare-and-set maximum
+ */
+public class ConcurrentHyperLogLog {
+    
+    private final int precision;
+    private final AtomicIntegerArray registers;
+    
+    public ConcurrentHyperLogLog(int precision) {
+        if (precision < 4 || precision > 16) {
+            throw new IllegalArgumentException("Precision must be between 4 and 16");
+        }
+        this.precision = precision;
+        this.registers = new AtomicIntegerArray(1 << precision);
+    }
+    
+    /**
+     * Add an already mixed 64-bit hash to the sketch
+     * @param hash Hash produced by {@link Hashing}
+     */
+    public void addHash(long hash) {
+        int index = HyperLogLog.registerIndex(hash, precision);
+        int rank = HyperLogLog.registerRank(hash, precision);
+        int current = registers.get(index);
+        while (rank > current && !registers.compareAndSet(index, current, rank)) {
+            current = registers.get(index);
+        }
+    }
+    
+    /**
+     * Merge this sketch into a plain sketch of the same precision
+     * @param target Target sketch
+     */
+    public void mergeInto(HyperLogLog target) {
+        if (target.getPrecision() != precision) {
+            throw new IllegalArgumentException("Cannot merge sketches with different precision");
+        }
+        for (int i = 0; i < registers.length(); i++) {
+            int rank = registers.get(i);
+            if (rank > 0) {
+                target.mergeRegister(i, rank);
+            }
+        }
+    }
+    
+    public int getPrecision() {
+        return precision;
+    }
+}
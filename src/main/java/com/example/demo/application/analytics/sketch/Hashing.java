@@ -0,0 +1,38 @@
+package com.example.demo.application.analytics.sketch;
+
+/**
+ * Hash functions shared by the analytics sketches
+ */
+public final class Hashing {
+    
+    private Hashing() {}
+    
+    /**
+     * 64-bit finalizer from MurmurHash3, spreads sequential ids over all bits
+     * @param value Value to hash
+     * @return Well-mixed 64-bit hash
+     */
+    public static long mix(long value) {
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+    
+    /**
+     * 64-bit FNV-1a over the UTF-16 code units of a string, then mixed
+     * @param value String to hash
+     * @return Well-mixed 64-bit hash
+     */
+    public static long hash(CharSequence value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.demo.application.analytics.sketch;
+
+import java.util.Arrays;
+
+/**
+ * HyperLogLog distinct-count sketch
+ * Estimates the number of distinct long values in fixed memory (2^precision bytes)
+ * Sketches with the same precision can be merged, so per-bucket sketches
+ * combine into the distinct count of any range of buckets
+ * Not thread-safe
+ */
+public class HyperLogLog {
+    
+    public static final int DEFAULT_PRECISION = 11;
+    
+    private static final byte FORMAT_VERSION = 1;
+    
+    private final int precision;
+    private final byte[] registers;
+    
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+    
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 16) {
+            throw new IllegalArgumentException("Precision must be between 4 and 16");
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+    
+    /**
+     * Add a value to the sketch
+     * @param value Value to count
+     */
+    public void add(long value) {
+        addHash(Hashing.mix(value));
+    }
+    
+    /**
+     * Add an already mixed 64-bit hash to the sketch
+     * @param hash Hash produced by {@link Hashing}
+     */
+    public void addHash(long hash) {
+        mergeRegister(registerIndex(hash, precision), registerRank(hash, precision));
+    }
+    
+    void mergeRegister(int index, int rank) {
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+    
+    static int registerIndex(long hash, int precision) {
+        return (int) (hash >>> (64 - precision));
+    }
+    
+    static int registerRank(long hash, int precision) {
+        return Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+    }
+    
+    /**
+     * Merge another sketch into this one
+     * @param other Sketch with the same precision
+     */
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge sketches with different precision");
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+    
+    /**
+     * Estimate the number of distinct values added
+     * @return Estimated distinct count
+     */
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0.0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = alpha(m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            // Linear counting is far more accurate for small cardinalities
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+    
+    /**
+     * Relative standard error of {@link #estimate()}, 1.04 / sqrt(registers)
+     * @return Standard error as a fraction of the estimate
+     */
+    public double relativeStandardError() {
+        return 1.04 / Math.sqrt(registers.length);
+    }
+    
+    public boolean isEmpty() {
+        for (byte register : registers) {
+            if (register != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    public int getPrecision() {
+        return precision;
+    }
+    
+    /**
+     * Serialize the sketch
+     * @return Version byte, precision byte and the raw registers
+     */
+    public byte[] toBytes() {
+        byte[] bytes = new byte[registers.length + 2];
+        bytes[0] = FORMAT_VERSION;
+        bytes[1] = (byte) precision;
+        System.arraycopy(registers, 0, bytes, 2, registers.length);
+        return bytes;
+    }
+    
+    /**
+     * Deserialize a sketch produced by {@link #toBytes()}
+     * @param bytes Serialized sketch (null or empty yields an empty sketch)
+     * @return Sketch
+     */
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return new HyperLogLog();
+        }
+        if (bytes[0] != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported sketch format: " + bytes[0]);
+        }
+        HyperLogLog sketch = new HyperLogLog(bytes[1]);
+        if (bytes.length - 2 != sketch.registers.length) {
+            throw new IllegalArgumentException("Corrupt sketch: expected " + sketch.registers.length + " registers");
+        }
+        System.arraycopy(bytes, 2, sketch.registers, 0, sketch.registers.length);
+        return sketch;
+    }
+    
+    public HyperLogLog copy() {
+        HyperLogLog copy = new HyperLogLog(precision);
+        System.arraycopy(registers, 0, copy.registers, 0, registers.length);
+        return copy;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        HyperLogLog that = (HyperLogLog) o;
+        return precision == that.precision && Arrays.equals(registers, that.registers);
+    }
+    
+    @Override
+    public int hashCode() {
+        return 31 * precision + Arrays.hashCode(registers);
+    }
+    
+    private static double alpha(int m) {
+        return switch (m) {
+            case 16 -> 0.673;
+            case 32 -> 0.697;
+            case 64 -> 0.709;
+            default -> 0.7213 / (1.0 + 1.079 / m);
+        };
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.demo.application.analytics.sketch;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Log-linear histogram in the style of HdrHistogram
+ * Values below 2^precision get one bucket each; above that every power-of-two
+ * range is split into 2^(precision - 1) equal sub-buckets, so any recorded
+ * value is reported within a relative error of 2^-precision. Counts live in a
+ * single long array that only grows to the highest bucket actually used, and
+ * two histograms of the same precision merge by adding their arrays.
+ * Not thread-safe
+ */
+public class LogHistogram {
+    
+    private final int precision;
+    private final int halfSubBuckets;
+    private long[] counts = new long[0];
+    private long totalCount;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+    
+    public LogHistogram(int precision) {
+        if (precision < 1 || precision > 16) {
+            throw new IllegalArgumentException("Precision must be between 1 and 16 bits");
+        }
+        this.precision = precision;
+        this.halfSubBuckets = 1 << (precision - 1);
+    }
+    
+    /**
+     * Record a value once
+     * @param value Non-negative value
+     */
+    public void record(long value) {
+        record(value, 1);
+    }
+    
+    /**
+     * Record a value a number of times
+     * @param value Non-negative value
+     * @param count Number of occurrences
+     */
+    public void record(long value, long count) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Value must not be negative");
+        }
+        if (count <= 0) {
+            return;
+        }
+        int index = indexOf(value);
+        if (index >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(index + 1, counts.length * 2));
+        }
+        counts[index] += count;
+        totalCount += count;
+        sum += value * count;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+    
+    /**
+     * Add every count of another histogram to this one
+     * @param other Histogram of the same precision
+     */
+    public void merge(LogHistogram other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Histograms must share the same precision");
+        }
+        if (other.totalCount == 0) {
+            return;
+        }
+        if (other.counts.length > counts.length) {
+            counts = Arrays.copyOf(counts, other.counts.length);
+        }
+        for (int i = 0; i < other.counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+    
+    /**
+     * Get the value at a percentile
+     * @param percentile Percentile between 0 and 100
+     * @return Midpoint of the bucket holding the percentile, clamped to the recorded range, or 0 when empty
+     */
+    public long valueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        double clamped = Math.min(100.0, Math.max(0.0, percentile));
+        long rank = Math.max(1, (long) Math.ceil(clamped / 100.0 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                long lowest = lowestValueAt(i);
+                long midpoint = lowest + (bucketWidthAt(i) - 1) / 2;
+                return Math.min(max, Math.max(min, midpoint));
+            }
+        }
+        return max;
+    }
+    
+    public int getPrecision() { return precision; }
+    public long getTotalCount() { return totalCount; }
+    public long getSum() { return sum; }
+    public long getMin() { return totalCount == 0 ? 0 : min; }
+    public long getMax() { return totalCount == 0 ? 0 : max; }
+    
+    /**
+     * Get the arithmetic mean of the recorded values
+     * @return Mean, or 0 when empty
+     */
+    public double getMean() {
+        return totalCount == 0 ? 0.0 : (double) sum / totalCount;
+    }
+    
+    /**
+     * Write the precision, summary values and counts up to the highest used bucket
+     * @param out Data output
+     * @throws IOException if writing fails
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        int used = counts.length;
+        while (used > 0 && counts[used - 1] == 0) {
+            used--;
+        }
+        out.writeByte(precision);
+        out.writeLong(totalCount);
+        out.writeLong(sum);
+        out.writeLong(min);
+        out.writeLong(max);
+        out.writeInt(used);
+        for (int i = 0; i < used; i++) {
+            out.writeLong(counts[i]);
+        }
+    }
+    
+    /**
+     * Read a histogram written by {@link #writeTo}
+     * @param in Data input
+     * @return New histogram
+     * @throws IOException if reading fails or the data is malformed
+     */
+    public static LogHistogram readFrom(DataInput in) throws IOException {
+        int precision = in.readByte();
+        if (precision < 1 || precision > 16) {
+            throw new IOException("Malformed histogram precision " + precision);
+        }
+        LogHistogram histogram = new LogHistogram(precision);
+        histogram.totalCount = in.readLong();
+        histogram.sum = in.readLong();
+        histogram.min = in.readLong();
+        histogram.max = in.readLong();
+        int used = in.readInt();
+        if (used < 0 || used > 66 * histogram.halfSubBuckets) {
+            throw new IOException("Malformed histogram of " + used + " buckets");
+        }
+        histogram.counts = new long[used];
+        for (int i = 0; i < used; i++) {
+            histogram.counts[i] = in.readLong();
+        }
+        return histogram;
+    }
+    
+    private int indexOf(long value) {
+        int exponent = Math.max(0, 64 - Long.numberOfLeadingZeros(value) - precision);
+        return exponent * halfSubBuckets + (int) (value >>> exponent);
+    }
+    
+    private long lowestValueAt(int index) {
+        int exponent = Math.max(0, index / halfSubBuckets - 1);
+        return (long) (index - exponent * halfSubBuckets) << exponent;
+    }
+    
+    private long bucketWidthAt(int index) {
+        return 1L << Math.max(0, index / halfSubBuckets - 1);
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.demo.application.analytics.sketch;
+
+import com.example.demo.application.analytics.collection.LongLongHashMap;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Space-Saving heavy-hitters summary
+ * Tracks at most a fixed number of items with weighted counts. When a new item
+ * arrives and the summary is full it replaces the item with the smallest count
+ * and inherits that count as its error, so every reported count overestimates
+ * the true weight by at most its error and any item heavier than
+ * total / capacity is guaranteed to be tracked.
+ * Counters are kept in a min-heap indexed by item, so an update is O(log capacity)
+ * Not thread-safe
+ */
+public class SpaceSaving {
+    
+    private final int capacity;
+    private final long[] items;
+    private final long[] counts;
+    private final long[] errors;
+    private final LongLongHashMap positions;
+    private int size;
+    private long total;
+    
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.items = new long[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.positions = new LongLongHashMap(capacity);
+    }
+    
+    /**
+     * Add weight to an item
+     * @param item Item ID
+     * @param weight Non-negative weight
+     */
+    public void add(long item, long weight) {
+        add(item, weight, 0);
+    }
+    
+    /**
+     * Fold another summary into this one
+     * @param other Summary to merge
+     */
+    public void merge(SpaceSaving other) {
+        for (int i = 0; i < other.size; i++) {
+            add(other.items[i], other.counts[i], other.errors[i]);
+        }
+    }
+    
+    /**
+     * Get the estimated count of an item
+     * @param item Item ID
+     * @return Estimated count, or 0 if the item is not tracked
+     */
+    public long count(long item) {
+        int position = (int) positions.get(item, -1);
+        return position < 0 ? 0 : counts[position];
+    }
+    
+    /**
+     * Get the heaviest tracked items
+     * @param k Maximum number of items
+     * @return Counters ordered by descending count
+     */
+    public List<Counter> top(int k) {
+        List<Counter> counters = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            counters.add(new Counter(items[i], counts[i], errors[i]));
+        }
+        counters.sort((a, b) -> Long.compare(b.count, a.count));
+        return counters.size() > k ? new ArrayList<>(counters.subList(0, k)) : counters;
+    }
+    
+    public long getTotal() {
+        return total;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public int getCapacity() {
+        return capacity;
+    }
+    
+    /**
+     * Write the capacity, total and every counter in heap order
+     * @param out Data output
+     * @throws IOException if writing fails
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(capacity);
+        out.writeLong(total);
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeLong(items[i]);
+            out.writeLong(counts[i]);
+            out.writeLong(errors[i]);
+        }
+    }
+    
+    /**
+     * Read a summary written by {@link #writeTo}
+     * @param in Data input
+     * @return New summary
+     * @throws IOException if reading fails or the data is malformed
+     */
+    public static SpaceSaving readFrom(DataInput in) throws IOException {
+        int capacity = in.readInt();
+        long total = in.readLong();
+        int size = in.readInt();
+        if (capacity < 1 || size < 0 || size > capacity) {
+            throw new IOException("Malformed summary of " + size + " counters in " + capacity);
+        }
+        SpaceSaving summary = new SpaceSaving(capacity);
+        for (int i = 0; i < size; i++) {
+            summary.items[i] = in.readLong();
+            summary.counts[i] = in.readLong();
+            summary.errors[i] = in.readLong();
+            summary.positions.put(summary.items[i], i);
+        }
+        summary.size = size;
+        summary.total = total;
+        return summary;
+    }
+    
+    private void add(long item, long weight, long error) {
+        if (weight < 0) {
+            throw new IllegalArgumentException("Weight cannot be negative");
+        }
+        total += weight;
+        int position = (int) positions.get(item, -1);
+        if (position >= 0) {
+            counts[position] += weight;
+            errors[position] += error;
+            siftDown(position);
+        } else if (size < capacity) {
+            items[size] = item;
+            counts[size] = weight;
+            errors[size] = error;
+            positions.put(item, size);
+            siftUp(size++);
+        } else {
+            positions.remove(items[0]);
+            errors[0] = counts[0] + error;
+            counts[0] += weight;
+            items[0] = item;
+            positions.put(item, 0);
+            siftDown(0);
+        }
+    }
+    
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (counts[parent] <= counts[position]) {
+                break;
+            }
+            swap(position, parent);
+            position = parent;
+        }
+    }
+    
+    private void siftDown(int position) {
+        while (true) {
+            int left = 2 * position + 1;
+            if (left >= size) {
+                break;
+            }
+            int right = left + 1;
+            int smallest = right < size && counts[right] < counts[left] ? right : left;
+            if (counts[position] <= counts[smallest]) {
+                break;
+            }
+            swap(position, smallest);
+            position = smallest;
+        }
+    }
+    
+    private void swap(int a, int b) {
+        long item = items[a];
+        long count = counts[a];
+        long error = errors[a];
+        items[a] = items[b];
+        counts[a] = counts[b];
+        errors[a] = errors[b];
+        items[b] = item;
+        counts[b] = count;
+        errors[b] = error;
+        positions.put(items[a], a);
+        positions.put(items[b], b);
+    }
+    
+    /**
+     * Tracked item with its estimated count and maximum overestimation
+     */
+    public static final class Counter {
+        private final long item;
+        private final long count;
+        private final long error;
+        
+        public Counter(long item, long count, long error) {
+            this.item = item;
+            this.count = count;
+            this.error = error;
+        }
+        
+        public long getItem() { return item; }
+        public long getCount() { return count; }
+        public long getError() { return error; }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.demo.application.analytics.snapshot;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Analytics Snapshot
+ * Application Layer - Analytics
+ * One checkpoint of every participating engine: the serialized section of each
+ * engine plus the order watermark they were taken at. Orders at or below the
+ * floor, and the listed orders above it, are contained in every section; the
+ * anchor order identifies the database the snapshot belongs to.
+ */
+public final class AnalyticsSnapshot {
+    
+    private final LocalDateTime checkpointTime;
+    private final long floorOrderId;
+    private final long[] appliedOrderIds;
+    private final long anchorOrderId;
+    private final long anchorCreatedAtSecond;
+    private final Map<String, Section> sections;
+    
+    public AnalyticsSnapshot(LocalDateTime checkpointTime, long floorOrderId, long[] appliedOrderIds,
+                             long anchorOrderId, long anchorCreatedAtSecond, Map<String, Section> sections) {
+        this.checkpointTime = checkpointTime;
+        this.floorOrderId = floorOrderId;
+        this.appliedOrderIds = appliedOrderIds.clone();
+        this.anchorOrderId = anchorOrderId;
+        this.anchorCreatedAtSecond = anchorCreatedAtSecond;
+        this.sections = Collections.unmodifiableMap(new LinkedHashMap<>(sections));
+    }
+    
+    /**
+     * Build the replay that brings a restored engine up to date
+     * @return Order replay after this checkpoint
+     */
+    public OrderReplay toReplay() {
+        return new OrderReplay(floorOrderId, appliedOrderIds, checkpointTime);
+    }
+    
+    public LocalDateTime getCheckpointTime() { return checkpointTime; }
+    public long getFloorOrderId() { return floorOrderId; }
+    public long[] getAppliedOrderIds() { return appliedOrderIds.clone(); }
+    public long getAnchorOrderId() { return anchorOrderId; }
+    public long getAnchorCreatedAtSecond() { return anchorCreatedAtSecond; }
+    public Map<String, Section> getSections() { return sections; }
+    
+    /**
+     * Serialized state of one engine
+     */
+    public static final class Section {
+        private final int version;
+        private final byte[] data;
+        
+        public Section(int version, byte[] data) {
+            this.version = version;
+            this.data = data;
+        }
+        
+        public int getVersion() { return version; }
+        public byte[] getData() { return data; }
+    }
+}
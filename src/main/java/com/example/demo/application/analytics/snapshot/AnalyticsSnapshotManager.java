@@ -0,0 +1,270 @@
+package com.example.demo.application.analytics.snapshot;
+
+import com.example.demo.domain.entity.Order;
+import com.example.demo.domain.event.OrderPlacedEvent;
+import com.example.demo.domain.event.OrderStatusChangedEvent;
+import com.example.demo.domain.repository.OrderRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Analytics Snapshot Manager
+ * Application Layer - Analytics
+ * Periodically checkpoints every snapshot participant into one snapshot and
+ * restores them from it on boot, so a restart replays only the orders placed
+ * after the checkpoint instead of rebuilding every engine from the full order
+ * history.
+ * Applying a committed order or status change holds a shared lock from the
+ * first after-commit listener until the transaction completes; a checkpoint
+ * takes the exclusive lock, so every section reflects exactly the set of
+ * applied orders recorded with it. Applied orders are tracked as a floor plus the individual IDs above
+ * it within a window, since transactions may commit out of ID order.
+ * A snapshot is only used if its newest order still exists in the database
+ * with the same creation time; otherwise every engine rebuilds in full.
+ */
+@Component
+public class AnalyticsSnapshotManager implements SmartInitializingSingleton {
+    
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsSnapshotManager.class);
+    
+    private final ObjectProvider<SnapshotStore> snapshotStore;
+    private final ObjectProvider<SnapshotParticipant> participants;
+    private final OrderRepository orderRepository;
+    private final long replayWindow;
+    
+    private final ReentrantReadWriteLock applyLock = new ReentrantReadWriteLock();
+    private final ThreadLocal<int[]> heldApplyLocks = ThreadLocal.withInitial(() -> new int[1]);
+    private final ConcurrentSkipListMap<Long, Long> appliedAboveFloor = new ConcurrentSkipListMap<>();
+    private long floorOrderId;
+    private long anchorOrderId;
+    private long anchorCreatedAtSecond;
+    
+    private boolean loaded;
+    private AnalyticsSnapshot restored;
+    private volatile SnapshotStore checkpointStore;
+    private volatile List<SnapshotParticipant> engines = List.of();
+    
+    public AnalyticsSnapshotManager(ObjectProvider<SnapshotStore> snapshotStore,
+                                    ObjectProvider<SnapshotParticipant> participants,
+                                    OrderRepository orderRepository,
+                                    @Value("${analytics.snapshot.replay-window-orders:10000}") long replayWindow) {
+        if (replayWindow < 1) {
+            throw new IllegalArgumentException("Replay window must be positive");
+        }
+        this.snapshotStore = snapshotStore;
+        this.participants = participants;
+        this.orderRepository = orderRepository;
+        this.replayWindow = replayWindow;
+    }
+    
+    /**
+     * Every order in the database is applied once all engines have been seeded
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        // Resolved once, since the final checkpoint runs while beans can no longer be looked up
+        checkpointStore = snapshotStore.getIfAvailable();
+        engines = participants.orderedStream().toList();
+        applyLock.writeLock().lock();
+        try {
+            Order newest = orderRepository.findTopByOrderByIdDesc();
+            floorOrderId = newest != null ? newest.getId() : 0;
+            anchorOrderId = floorOrderId;
+            anchorCreatedAtSecond = newest != null ? epochSecond(newest.getCreatedAt()) : 0;
+            appliedAboveFloor.clear();
+        } finally {
+            applyLock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Restore a participant from the latest snapshot
+     * @param participant Engine to restore
+     * @return Orders the engine still has to apply, or a full replay if it was not restored
+     */
+    public OrderReplay restore(SnapshotParticipant participant) {
+        AnalyticsSnapshot snapshot = loadSnapshot();
+        if (snapshot == null) {
+            return OrderReplay.FULL;
+        }
+        AnalyticsSnapshot.Section section = snapshot.getSections().get(participant.getSnapshotName());
+        if (section == null || section.getVersion() != participant.getSnapshotVersion()) {
+            log.info("No usable snapshot section for {}, rebuilding it from orders", participant.getSnapshotName());
+            return OrderReplay.FULL;
+        }
+        try {
+            participant.readSnapshot(new DataInputStream(new ByteArrayInputStream(section.getData())));
+        } catch (IOException e) {
+            log.warn("Unreadable snapshot section for {}, rebuilding it from orders", participant.getSnapshotName(), e);
+            return OrderReplay.FULL;
+        }
+        return snapshot.toReplay();
+    }
+    
+    // Runs before any other after-commit listener of the order
+    @org.springframework.core.annotation.Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderApplying(OrderPlacedEvent event) {
+        applyLock.readLock().lock();
+        heldApplyLocks.get()[0]++;
+    }
+    
+    // Runs once every after-commit listener has applied the order; also called after a rollback
+    @org.springframework.core.annotation.Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onOrderApplied(OrderPlacedEvent event) {
+        if (releaseApplyLock() && event.getOrderId() != null) {
+            appliedAboveFloor.put(event.getOrderId(), epochSecond(event.getCreatedAt()));
+        }
+    }
+    
+    @org.springframework.core.annotation.Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChangeApplying(OrderStatusChangedEvent event) {
+        applyLock.readLock().lock();
+        heldApplyLocks.get()[0]++;
+    }
+    
+    @org.springframework.core.annotation.Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onStatusChangeApplied(OrderStatusChangedEvent event) {
+        releaseApplyLock();
+    }
+    
+    /**
+     * Write a snapshot of every participant
+     * @return true if a snapshot was saved
+     */
+    @Scheduled(fixedDelayString = "${analytics.snapshot.interval-ms:300000}",
+               initialDelayString = "${analytics.snapshot.interval-ms:300000}")
+    public boolean checkpoint() {
+        SnapshotStore store = checkpointStore;
+        if (store == null || engines.isEmpty()) {
+            return false;
+        }
+        AnalyticsSnapshot snapshot;
+        applyLock.writeLock().lock();
+        try {
+            compact();
+            Map<String, AnalyticsSnapshot.Section> sections = new LinkedHashMap<>();
+            for (SnapshotParticipant engine : engines) {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                try (DataOutputStream out = new DataOutputStream(buffer)) {
+                    engine.writeSnapshot(out);
+                }
+                sections.put(engine.getSnapshotName(), new AnalyticsSnapshot.Section(engine.getSnapshotVersion(), buffer.toByteArray()));
+            }
+            long[] applied = appliedAboveFloor.keySet().stream().mapToLong(Long::longValue).toArray();
+            snapshot = new AnalyticsSnapshot(LocalDateTime.now(), floorOrderId, applied,
+                    anchorOrderId, anchorCreatedAtSecond, sections);
+        } catch (IOException e) {
+            log.warn("Could not serialize analytics snapshot", e);
+            return false;
+        } finally {
+            applyLock.writeLock().unlock();
+        }
+        try {
+            store.save(snapshot);
+            return true;
+        } catch (IOException e) {
+            log.warn("Could not save analytics snapshot", e);
+            return false;
+        }
+    }
+    
+    @PreDestroy
+    public void close() {
+        checkpoint();
+    }
+    
+    private boolean releaseApplyLock() {
+        int[] held = heldApplyLocks.get();
+        if (held[0] == 0) {
+            return false;
+        }
+        held[0]--;
+        applyLock.readLock().unlock();
+        return true;
+    }
+    
+    /**
+     * Raise the floor to the replay window and move the anchor to the newest applied order
+     */
+    private void compact() {
+        if (appliedAboveFloor.isEmpty()) {
+            return;
+        }
+        Map.Entry<Long, Long> newest = appliedAboveFloor.lastEntry();
+        if (newest.getKey() > anchorOrderId) {
+            anchorOrderId = newest.getKey();
+            anchorCreatedAtSecond = newest.getValue();
+        }
+        long floor = newest.getKey() - replayWindow;
+        if (floor > floorOrderId) {
+            floorOrderId = floor;
+            appliedAboveFloor.headMap(floor, true).clear();
+        }
+    }
+    
+    private synchronized AnalyticsSnapshot loadSnapshot() {
+        if (loaded) {
+            return restored;
+        }
+        loaded = true;
+        SnapshotStore store = snapshotStore.getIfAvailable();
+        if (store == null) {
+            return null;
+        }
+        try {
+            AnalyticsSnapshot snapshot = store.load().orElse(null);
+            if (snapshot != null && !matchesDatabase(snapshot)) {
+                log.info("Analytics snapshot of {} belongs to another database, rebuilding from orders",
+                        snapshot.getCheckpointTime());
+                snapshot = null;
+            }
+            if (snapshot != null) {
+                log.info("Restoring analytics snapshot of {}, replaying orders after {}",
+                        snapshot.getCheckpointTime(), snapshot.getFloorOrderId());
+            }
+            restored = snapshot;
+        } catch (IOException e) {
+            log.warn("Could not load analytics snapshot, rebuilding from orders", e);
+        }
+        return restored;
+    }
+    
+    private boolean matchesDatabase(AnalyticsSnapshot snapshot) {
+        if (snapshot.getAnchorOrderId() == 0) {
+            return true;
+        }
+        return orderRepository.findById(snapshot.getAnchorOrderId())
+                .map(order -> epochSecond(order.getCreatedAt()) == snapshot.getAnchorCreatedAtSecond())
+                .orElse(false);
+    }
+    
+    private static long epochSecond(LocalDateTime time) {
+        return time != null ? time.toEpochSecond(ZoneOffset.UTC) : 0;
+    }
+}
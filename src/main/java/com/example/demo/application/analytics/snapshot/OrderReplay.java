@@ -0,0 +1,59 @@
+package com.example.demo.application.analytics.snapshot;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Order Replay
+ * Application Layer - Analytics
+ * The orders an engine still has to apply after restoring its snapshot: every
+ * order above the checkpoint floor except those the checkpoint already holds.
+ * A full replay covers every order, as on a boot without a usable snapshot.
+ */
+public final class OrderReplay {
+    
+    /**
+     * Replay of every order
+     */
+    public static final OrderReplay FULL = new OrderReplay(Long.MIN_VALUE, new long[0], null);
+    
+    private final long afterOrderId;
+    private final long[] appliedOrderIds;
+    private final LocalDateTime checkpointTime;
+    
+    OrderReplay(long afterOrderId, long[] appliedOrderIds, LocalDateTime checkpointTime) {
+        this.afterOrderId = afterOrderId;
+        this.appliedOrderIds = appliedOrderIds.clone();
+        Arrays.sort(this.appliedOrderIds);
+        this.checkpointTime = checkpointTime;
+    }
+    
+    /**
+     * Check whether an order still has to be applied
+     * @param orderId Order ID
+     * @return true if the restored state does not contain the order
+     */
+    public boolean includes(long orderId) {
+        return orderId > afterOrderId && Arrays.binarySearch(appliedOrderIds, orderId) < 0;
+    }
+    
+    public boolean isFull() {
+        return checkpointTime == null;
+    }
+    
+    /**
+     * Every order at or below this ID is contained in the restored state
+     * @return Checkpoint floor
+     */
+    public long getAfterOrderId() {
+        return afterOrderId;
+    }
+    
+    /**
+     * Time the checkpoint was taken; status changes after it are not in the restored state
+     * @return Checkpoint time, or null for a full replay
+     */
+    public LocalDateTime getCheckpointTime() {
+        return checkpointTime;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.demo.application.analytics.snapshot;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Snapshot Participant
+ * Application Layer - Analytics
+ * An in-memory analytics engine whose aggregate state is checkpointed into the
+ * analytics snapshot and restored from it on boot
+ */
+public interface SnapshotParticipant {
+    
+    /**
+     * Name of the engine's section in the snapshot
+     * @return Stable section name
+     */
+    String getSnapshotName();
+    
+    /**
+     * Version of the section layout; a section written with another version is ignored
+     * @return Section version
+     */
+    int getSnapshotVersion();
+    
+    /**
+     * Write the engine state
+     * Called while no order is being applied, so the state matches the checkpoint
+     * @param out Section output
+     * @throws IOException if writing fails
+     */
+    void writeSnapshot(DataOutputStream out) throws IOException;
+    
+    /**
+     * Replace the engine state with a previously written section
+     * Implementations must parse the whole section before changing any state, so a
+     * malformed section leaves the engine empty and ready for a full rebuild
+     * @param in Section input
+     * @throws IOException if the section cannot be read
+     */
+    void readSnapshot(DataInputStream in) throws IOException;
+}
@@ -0,0 +1,26 @@
+package com.example.demo.application.analytics.snapshot;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Snapshot Store
+ * Application Layer - Analytics
+ * Durable storage for the latest analytics snapshot
+ */
+public interface SnapshotStore {
+    
+    /**
+     * Load the latest snapshot
+     * @return Snapshot, or empty if none has been saved
+     * @throws IOException if the stored snapshot is unreadable or corrupt
+     */
+    Optional<AnalyticsSnapshot> load() throws IOException;
+    
+    /**
+     * Replace the stored snapshot atomically
+     * @param snapshot Snapshot to store
+     * @throws IOException if the snapshot cannot be written
+     */
+    void save(AnalyticsSnapshot snapshot) throws IOException;
+}
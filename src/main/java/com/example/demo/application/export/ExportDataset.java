@@ -0,0 +1,29 @@
+package com.example.demo.application.export;
+
+import java.util.Locale;
+
+/**
+ * Exportable analytics datasets
+ */
+public enum ExportDataset {
+    
+    /** One row per order */
+    ORDERS,
+    /** One row per order item, with its order's columns */
+    ITEMS,
+    /** One row per day with order count and revenue */
+    DAILY;
+    
+    /**
+     * Parse a dataset name (case-insensitive)
+     * @param name Dataset name
+     * @return Export dataset
+     * @throws IllegalArgumentException if the dataset is unknown
+     */
+    public static ExportDataset parse(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("Export dataset is required");
+        }
+        return ExportDataset.valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+}
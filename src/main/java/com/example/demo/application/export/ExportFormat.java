@@ -0,0 +1,40 @@
+package com.example.demo.application.export;
+
+import java.util.Locale;
+
+/**
+ * Export file formats
+ */
+public enum ExportFormat {
+    
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+    
+    private final String contentType;
+    private final String extension;
+    
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+    
+    /**
+     * Parse a format name (case-insensitive; "json" is accepted for NDJSON)
+     * @param name Format name
+     * @return Export format
+     * @throws IllegalArgumentException if the format is not supported
+     */
+    public static ExportFormat parse(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("Export format is required");
+        }
+        String normalized = name.trim().toUpperCase(Locale.ROOT);
+        if ("JSON".equals(normalized)) {
+            return NDJSON;
+        }
+        return ExportFormat.valueOf(normalized);
+    }
+    
+    public String getContentType() { return contentType; }
+    public String getExtension() { return extension; }
+}
@@ -0,0 +1,138 @@
+package com.example.demo.application.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+
+/**
+ * Row Writer
+ * Writes export rows one at a time in a fixed column order, so nothing but the
+ * current row is ever held in memory
+ */
+abstract class RowWriter {
+    
+    protected final String[] columns;
+    
+    RowWriter(String[] columns) {
+        this.columns = columns;
+    }
+    
+    static RowWriter create(ExportFormat format, String[] columns, Writer writer, ObjectMapper objectMapper)
+            throws IOException {
+        return switch (format) {
+            case CSV -> new Csv(columns, writer);
+            case NDJSON -> new Ndjson(columns, writer, objectMapper);
+        };
+    }
+    
+    /**
+     * Write one row
+     * @param values Values in column order (String, Number, BigDecimal or null)
+     */
+    abstract void row(Object... values) throws IOException;
+    
+    /**
+     * Push buffered rows down to the underlying stream
+     */
+    abstract void flush() throws IOException;
+    
+    abstract void finish() throws IOException;
+    
+    /**
+     * RFC 4180 CSV with a header line
+     */
+    private static final class Csv extends RowWriter {
+        private final Writer writer;
+        
+        Csv(String[] columns, Writer writer) throws IOException {
+            super(columns);
+            this.writer = writer;
+            row((Object[]) columns);
+        }
+        
+        @Override
+        void row(Object... values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                Object value = values[i];
+                if (value == null) {
+                    continue;
+                }
+                String text = value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+                if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                    writer.write('"');
+                    writer.write(text.replace("\"", "\"\""));
+                    writer.write('"');
+                } else {
+                    writer.write(text);
+                }
+            }
+            writer.write('\n');
+        }
+        
+        @Override
+        void flush() throws IOException {
+            writer.flush();
+        }
+        
+        @Override
+        void finish() throws IOException {
+            writer.flush();
+        }
+    }
+    
+    /**
+     * Newline-delimited JSON, one object per row
+     */
+    private static final class Ndjson extends RowWriter {
+        private final JsonGenerator generator;
+        private boolean empty = true;
+        
+        Ndjson(String[] columns, Writer writer, ObjectMapper objectMapper) throws IOException {
+            super(columns);
+            this.generator = objectMapper.getFactory().createGenerator(writer);
+            this.generator.setRootValueSeparator(new SerializedString("\n"));
+        }
+        
+        @Override
+        void row(Object... values) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < values.length; i++) {
+                Object value = values[i];
+                generator.writeFieldName(columns[i]);
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof BigDecimal decimal) {
+                    generator.writeNumber(decimal);
+                } else if (value instanceof Long number) {
+                    generator.writeNumber(number);
+                } else if (value instanceof Integer number) {
+                    generator.writeNumber(number);
+                } else {
+                    generator.writeString(value.toString());
+                }
+            }
+            generator.writeEndObject();
+            empty = false;
+        }
+        
+        @Override
+        void flush() throws IOException {
+            generator.flush();
+        }
+        
+        @Override
+        void finish() throws IOException {
+            if (!empty) {
+                generator.writeRaw('\n');
+            }
+            generator.flush();
+        }
+    }
+}
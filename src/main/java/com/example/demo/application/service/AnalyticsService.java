@@ -1,18 +1,51 @@
 package com.example.demo.application.service;
 
+import com.example.demo.application.analytics.ActiveUserTracker;
+import com.example.demo.application.analytics.Cents;
+import com.example.demo.application.analytics.CohortEngine;
+import com.example.demo.application.analytics.CompositeQueryExecutor;
+import com.example.demo.application.analytics.ConversionFunnelEngine;
+import com.example.demo.application.analytics.CustomerFirstSeenIndex;
+import com.example.demo.application.analytics.GrowthEngine;
+import com.example.demo.application.analytics.OrderDistributionStore;
+import com.example.demo.application.analytics.OrderMetricsAggregator;
+import com.example.demo.application.analytics.ParallelSalesAggregator;
+import com.example.demo.application.analytics.ProductCategoryLookup;
+import com.example.demo.application.analytics.ProductStatsStore;
+import com.example.demo.application.analytics.RealTimeMetricsEngine;
+import com.example.demo.application.analytics.SalesRollupService;
+import com.example.demo.application.analytics.SalesSummary;
+import com.example.demo.application.analytics.TimeBuckets;
+import com.example.demo.application.analytics.TopProductsTracker;
+import com.example.demo.application.analytics.ingest.AnalyticsEventPipeline;
+import com.example.demo.application.analytics.query.AnalyticsQuery;
+import com.example.demo.application.analytics.query.AnalyticsQueryEngine;
+import com.example.demo.application.analytics.sample.Estimate;
+import com.example.demo.application.analytics.sample.OrderSampleStore;
+import com.example.demo.application.analytics.sketch.LogHistogram;
 import com.example.demo.domain.entity.Order;
+import com.example.demo.domain.event.AnalyticsEvent;
 import com.example.demo.domain.entity.Product;
 import com.example.demo.domain.repository.OrderRepository;
 import com.example.demo.domain.repository.ProductRepository;
+import com.example.demo.domain.repository.projection.ProductRevenueSummary;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.DoubleFunction;
 
 /**
  * Analytics Application Service
@@ -25,52 +58,119 @@ public class AnalyticsService {
     
     private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
+    private final OrderMetricsAggregator orderMetricsAggregator;
+    private final SalesRollupService salesRollupService;
+    private final RealTimeMetricsEngine realTimeMetricsEngine;
+    private final AnalyticsEventPipeline analyticsEventPipeline;
+    private final CustomerFirstSeenIndex customerFirstSeenIndex;
+    private final TopProductsTracker topProductsTracker;
+    private final ProductStatsStore productStatsStore;
+    private final ParallelSalesAggregator parallelSalesAggregator;
+    private final GrowthEngine growthEngine;
+    private final OrderDistributionStore orderDistributionStore;
+    private final CohortEngine cohortEngine;
+    private final CompositeQueryExecutor compositeQueryExecutor;
+    private final AnalyticsQueryEngine analyticsQueryEngine;
+    private final OrderSampleStore orderSampleStore;
+    private final ConversionFunnelEngine conversionFunnelEngine;
+    private final ActiveUserTracker activeUserTracker;
     
-    public AnalyticsService(OrderRepository orderRepository, ProductRepository productRepository) {
+    public AnalyticsService(OrderRepository orderRepository, ProductRepository productRepository,
+                            OrderMetricsAggregator orderMetricsAggregator,
+                            SalesRollupService salesRollupService,
+                            RealTimeMetricsEngine realTimeMetricsEngine,
+                            AnalyticsEventPipeline analyticsEventPipeline,
+                            CustomerFirstSeenIndex customerFirstSeenIndex,
+                            TopProductsTracker topProductsTracker,
+                            ProductStatsStore productStatsStore,
+                            ParallelSalesAggregator parallelSalesAggregator,
+                            GrowthEngine growthEngine,
+                            OrderDistributionStore orderDistributionStore,
+                            CohortEngine cohortEngine,
+                            CompositeQueryExecutor compositeQueryExecutor,
+                            AnalyticsQueryEngine analyticsQueryEngine,
+                            OrderSampleStore orderSampleStore,
+                            ConversionFunnelEngine conversionFunnelEngine,
+                            ActiveUserTracker activeUserTracker) {
         this.orderRepository = orderRepository;
         this.productRepository = productRepository;
+        this.orderMetricsAggregator = orderMetricsAggregator;
+        this.salesRollupService = salesRollupService;
+        this.realTimeMetricsEngine = realTimeMetricsEngine;
+        this.analyticsEventPipeline = analyticsEventPipeline;
+        this.customerFirstSeenIndex = customerFirstSeenIndex;
+        this.topProductsTracker = topProductsTracker;
+        this.productStatsStore = productStatsStore;
+        this.parallelSalesAggregator = parallelSalesAggregator;
+        this.growthEngine = growthEngine;
+        this.orderDistributionStore = orderDistributionStore;
+        this.cohortEngine = cohortEngine;
+        this.compositeQueryExecutor = compositeQueryExecutor;
+        this.analyticsQueryEngine = analyticsQueryEngine;
+        this.orderSampleStore = orderSampleStore;
+        this.conversionFunnelEngine = conversionFunnelEngine;
+        this.activeUserTracker = activeUserTracker;
+    }
+    
+    /**
+     * Run a dimensional analytics query
+     * @param query Measures, dimensions and filters over a date range
+     * @return Query echo, execution plan and one row per group
+     * @throws com.example.demo.application.analytics.query.QueryTooWideException if the query would produce too many groups
+     */
+    public Map<String, Object> runQuery(AnalyticsQuery query) {
+        AnalyticsQueryEngine.QueryResult result = analyticsQueryEngine.execute(query);
+        
+        Map<String, Object> filters = new LinkedHashMap<>();
+        if (query.getCategory() != null) {
+            filters.put("category", query.getCategory());
+        }
+        if (query.getProductId() != null) {
+            filters.put("productId", query.getProductId());
+        }
+        if (query.getStatus() != null) {
+            filters.put("status", query.getStatus().name());
+        }
+        Map<String, Object> plan = new LinkedHashMap<>();
+        plan.put("source", result.getSource());
+        plan.put("estimatedGroups", result.getEstimatedGroups());
+        plan.put("elapsedMs", result.getElapsedMs());
+        
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("startDate", query.getStartDate());
+        response.put("endDate", query.getEndDate());
+        response.put("measures", query.getMeasures().stream().map(measure -> measure.name().toLowerCase(Locale.ROOT)).toList());
+        response.put("dimensions", query.getDimensions().stream().map(dimension -> dimension.name().toLowerCase(Locale.ROOT)).toList());
+        response.put("filters", filters);
+        response.put("plan", plan);
+        response.put("rows", result.getRows());
+        return response;
     }
     
     /**
      * Get dashboard analytics data
+     * Sections run concurrently; a failed or slow section is omitted and the response flagged as partial.
+     * Only the recent orders section reads the database, in its own transaction
      * @return Dashboard analytics
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Map<String, Object> getDashboardData() {
-        Map<String, Object> dashboardData = new HashMap<>();
-        
-        try {
-            // Calculate total revenue
-            List<Order> allOrders = orderRepository.findAll();
-            BigDecimal totalRevenue = allOrders.stream()
-                    .map(Order::getTotalAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-            
-            // Calculate total orders
-            long totalOrders = orderRepository.count();
-            
-            // Calculate conversion rate (mock data for now)
-            double conversionRate = 3.2;
-            
-            // Calculate active users (mock data for now)
-            long activeUsers = 450;
-            
-            dashboardData.put("totalRevenue", totalRevenue);
-            dashboardData.put("totalOrders", totalOrders);
-            dashboardData.put("conversionRate", conversionRate);
-            dashboardData.put("activeUsers", activeUsers);
-            dashboardData.put("topProducts", getTopProducts());
-            dashboardData.put("recentOrders", getRecentOrders());
-        } catch (Exception e) {
-            // Return default values on error
-            dashboardData.put("totalRevenue", BigDecimal.ZERO);
-            dashboardData.put("totalOrders", 0L);
-            dashboardData.put("conversionRate", 0.0);
-            dashboardData.put("activeUsers", 0L);
-            dashboardData.put("topProducts", new HashMap<>());
-            dashboardData.put("recentOrders", new HashMap<>());
-        }
-        
-        return dashboardData;
+        LocalDateTime now = LocalDateTime.now();
+        return compositeQueryExecutor.execute(List.of(
+                // Total revenue and orders come from the running aggregate
+                compositeQueryExecutor.memorySection("totals", () -> Map.of(
+                        "totalRevenue", orderMetricsAggregator.getTotalRevenue(),
+                        "totalOrders", orderMetricsAggregator.getOrderCount())),
+                compositeQueryExecutor.memorySection("topProducts", () -> Map.of("topProducts", getTopProducts(0))),
+                compositeQueryExecutor.section("recentOrders", () -> Map.of("recentOrders", getRecentOrders())),
+                // Share of the last 30 days' product-viewing sessions that went on to order
+                compositeQueryExecutor.memorySection("conversionRate", () -> Map.of("conversionRate",
+                        conversionFunnelEngine.funnel(
+                                List.of(ConversionFunnelEngine.Step.VIEW, ConversionFunnelEngine.Step.ORDER),
+                                now.minusDays(30), now).getConversionRate())),
+                // Distinct customers active today
+                compositeQueryExecutor.memorySection("activeUsers", () -> Map.of("activeUsers",
+                        activeUserTracker.countActive(now.toLocalDate(), now.toLocalDate())))));
     }
     
     /**
@@ -80,6 +180,17 @@ public class AnalyticsService {
      * @return Sales analytics
      */
     public Map<String, Object> getSalesAnalytics(LocalDateTime startDate, LocalDateTime endDate) {
+        return getSalesAnalytics(startDate, endDate, false);
+    }
+    
+    /**
+     * Get sales analytics for a date range
+     * @param startDate Start date
+     * @param endDate End date
+     * @param explain Whether to include the aggregation plan
+     * @return Sales analytics
+     */
+    public Map<String, Object> getSalesAnalytics(LocalDateTime startDate, LocalDateTime endDate, boolean explain) {
         Map<String, Object> salesData = new HashMap<>();
         
         if (startDate == null || endDate == null) {
@@ -90,22 +201,26 @@ public class AnalyticsService {
             throw new IllegalArgumentException("Start date cannot be after end date");
         }
         
-        List<Order> ordersInRange = orderRepository.findByDateRange(startDate, endDate);
+        ParallelSalesAggregator.Result result = parallelSalesAggregator.summarize(startDate, endDate);
+        SalesSummary summary = result.getSummary();
         
-        BigDecimal totalSales = ordersInRange.stream()
-                .map(Order::getTotalAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal totalSales = summary.getRevenue();
         
-        double averageOrderValue = ordersInRange.isEmpty() ? 0.0 : 
-                totalSales.divide(BigDecimal.valueOf(ordersInRange.size()), 2, java.math.RoundingMode.HALF_UP).doubleValue();
+        double averageOrderValue = summary.getOrderCount() == 0 ? 0.0 : 
+                totalSales.divide(BigDecimal.valueOf(summary.getOrderCount()), 2, java.math.RoundingMode.HALF_UP).doubleValue();
         
-        // Calculate sales growth (mock data for now)
-        double salesGrowth = 12.5;
+        // Growth over the preceding window of the same length
+        GrowthEngine.Growth growth = growthEngine.compare(startDate, endDate, summary);
         
         salesData.put("totalSales", totalSales);
-        salesData.put("salesGrowth", salesGrowth);
+        salesData.put("salesGrowth", growth.getRevenueGrowth());
+        salesData.put("orderGrowth", growth.getOrderGrowth());
+        salesData.put("previousTotalSales", growth.getPrevious().getRevenue());
         salesData.put("averageOrderValue", averageOrderValue);
-        salesData.put("salesByDay", getSalesByDay(ordersInRange));
+        salesData.put("salesByDay", getSalesByDay(summary));
+        if (explain) {
+            salesData.put("explain", result.getPlan().toMap());
+        }
         
         return salesData;
     }
@@ -140,18 +255,27 @@ public class AnalyticsService {
         
         Product product = productOpt.get();
         
-        // Calculate product sales (mock data for now)
-        int totalSales = 1250;
-        BigDecimal revenue = product.getPrice().multiply(BigDecimal.valueOf(totalSales));
-        int views = 5000;
-        double conversionRate = 25.0;
+        ProductStatsStore.ProductStats stats = productStatsStore.getStats(productId, startDate, endDate);
         
         productData.put("productId", productId);
         productData.put("productName", product.getName());
-        productData.put("totalSales", totalSales);
-        productData.put("revenue", revenue);
-        productData.put("views", views);
-        productData.put("conversionRate", conversionRate);
+        productData.put("totalSales", stats.getUnits());
+        productData.put("orders", stats.getOrders());
+        productData.put("revenue", stats.getRevenue());
+        productData.put("views", stats.getViews());
+        productData.put("addToCarts", stats.getAddToCarts());
+        productData.put("conversionRate", stats.getConversionRate());
+        productData.put("daily", stats.getDays().stream()
+                .map(day -> {
+                    Map<String, Object> dayData = new HashMap<>();
+                    dayData.put("date", day.getDate().toString());
+                    dayData.put("sales", day.getUnits());
+                    dayData.put("revenue", day.getRevenue());
+                    dayData.put("views", day.getViews());
+                    dayData.put("addToCarts", day.getAddToCarts());
+                    return dayData;
+                })
+                .toList());
         
         return productData;
     }
@@ -165,29 +289,113 @@ public class AnalyticsService {
     public Map<String, Object> getCustomerAnalytics(LocalDateTime startDate, LocalDateTime endDate) {
         Map<String, Object> customerData = new HashMap<>();
         
-        List<Order> ordersInRange = orderRepository.findByDateRange(startDate, endDate);
+        SalesSummary summary = salesRollupService.summarize(startDate, endDate);
         
-        // Calculate unique customers
-        long uniqueCustomers = ordersInRange.stream()
-                .map(Order::getCustomerId)
-                .distinct()
-                .count();
+        // Unique customers from the merged rollup sketches
+        long uniqueCustomers = summary.getDistinctCustomers();
         
-        // Mock data for customer analytics
-        long newCustomers = 150;
-        long returningCustomers = 300;
-        double customerRetention = 75.5;
-        double averageCustomerValue = 250.75;
+        // Customers whose first order falls in the range are new; everyone else active in it is returning
+        long newCustomers = Math.min(customerFirstSeenIndex.countFirstSeenBetween(startDate, endDate), uniqueCustomers);
+        long returningCustomers = uniqueCustomers - newCustomers;
+        double customerRetention = uniqueCustomers > 0
+                ? Math.round(returningCustomers * 1000.0 / uniqueCustomers) / 10.0
+                : 0.0;
+        BigDecimal averageCustomerValue = uniqueCustomers > 0
+                ? summary.getRevenue().divide(BigDecimal.valueOf(uniqueCustomers), 2, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO;
         
         customerData.put("totalCustomers", uniqueCustomers);
         customerData.put("newCustomers", newCustomers);
         customerData.put("returningCustomers", returningCustomers);
         customerData.put("customerRetention", customerRetention);
         customerData.put("averageCustomerValue", averageCustomerValue);
+        customerData.put("customerLifetimeValue", cohortEngine.getAverageLifetimeValue());
         
         return customerData;
     }
     
+    /**
+     * Get the cohort retention and lifetime value matrix
+     * @param months Number of most recent monthly cohorts
+     * @return Cohort analytics
+     */
+    public Map<String, Object> getCohortAnalytics(int months) {
+        Map<String, Object> cohortData = new HashMap<>();
+        
+        List<Map<String, Object>> cohorts = cohortEngine.matrix(months).stream()
+                .map(row -> {
+                    Map<String, Object> rowData = new LinkedHashMap<>();
+                    rowData.put("cohort", row.getCohort());
+                    rowData.put("customers", row.getCustomers());
+                    rowData.put("retention", row.getRetention());
+                    rowData.put("lifetimeValue", row.getLifetimeValue());
+                    return rowData;
+                })
+                .toList();
+        
+        cohortData.put("months", months);
+        cohortData.put("cohorts", cohorts);
+        cohortData.put("averageLifetimeValue", cohortEngine.getAverageLifetimeValue());
+        
+        return cohortData;
+    }
+    
+    /**
+     * Get active customer counts
+     * @param day Last day of the daily, weekly and monthly windows
+     * @param startDay First day of an optional custom range
+     * @param endDay Last day of an optional custom range
+     * @return Daily, weekly and monthly active users, and the custom range's count when given
+     */
+    public Map<String, Object> getActiveUserAnalytics(LocalDate day, LocalDate startDay, LocalDate endDay) {
+        if (day == null) {
+            throw new IllegalArgumentException("Day cannot be null");
+        }
+        ActiveUserTracker.ActiveUsers activeUsers = activeUserTracker.activeUsers(day);
+        
+        Map<String, Object> activeUserData = new LinkedHashMap<>();
+        activeUserData.put("date", day);
+        activeUserData.put("dailyActiveUsers", activeUsers.getDaily());
+        activeUserData.put("weeklyActiveUsers", activeUsers.getWeekly());
+        activeUserData.put("monthlyActiveUsers", activeUsers.getMonthly());
+        if (startDay != null || endDay != null) {
+            activeUserData.put("startDate", startDay);
+            activeUserData.put("endDate", endDay);
+            activeUserData.put("activeUsers", activeUserTracker.countActive(startDay, endDay));
+        }
+        return activeUserData;
+    }
+    
+    /**
+     * Get a conversion funnel
+     * @param steps Funnel steps, in the order view, add_to_cart, checkout, order
+     * @param startDate Start date
+     * @param endDate End date
+     * @return Sessions reaching each step and the conversion between steps
+     */
+    public Map<String, Object> getFunnelAnalytics(List<ConversionFunnelEngine.Step> steps,
+                                                  LocalDateTime startDate, LocalDateTime endDate) {
+        ConversionFunnelEngine.Funnel funnel = conversionFunnelEngine.funnel(steps, startDate, endDate);
+        
+        List<Map<String, Object>> stepData = funnel.getSteps().stream()
+                .map(step -> {
+                    Map<String, Object> stepInfo = new LinkedHashMap<>();
+                    stepInfo.put("step", step.getStep().name().toLowerCase(Locale.ROOT));
+                    stepInfo.put("sessions", step.getSessions());
+                    stepInfo.put("conversionFromPrevious", step.getConversionFromPrevious());
+                    stepInfo.put("conversionFromStart", step.getConversionFromStart());
+                    return stepInfo;
+                })
+                .toList();
+        
+        Map<String, Object> funnelData = new LinkedHashMap<>();
+        funnelData.put("startDate", startDate);
+        funnelData.put("endDate", endDate);
+        funnelData.put("steps", stepData);
+        funnelData.put("conversionRate", funnel.getConversionRate());
+        return funnelData;
+    }
+    
     /**
      * Get revenue analytics
      * @param startDate Start date
@@ -195,97 +403,306 @@ public class AnalyticsService {
      * @return Revenue analytics
      */
     public Map<String, Object> getRevenueAnalytics(LocalDateTime startDate, LocalDateTime endDate) {
+        return getRevenueAnalytics(startDate, endDate, false);
+    }
+    
+    /**
+     * Get revenue analytics
+     * @param startDate Start date
+     * @param endDate End date
+     * @param explain Whether to include the aggregation plan
+     * @return Revenue analytics
+     */
+    public Map<String, Object> getRevenueAnalytics(LocalDateTime startDate, LocalDateTime endDate, boolean explain) {
         Map<String, Object> revenueData = new HashMap<>();
         
-        List<Order> ordersInRange = orderRepository.findByDateRange(startDate, endDate);
-        
-        BigDecimal totalRevenue = ordersInRange.stream()
-                .map(Order::getTotalAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        ParallelSalesAggregator.Result result = parallelSalesAggregator.summarize(startDate, endDate);
+        BigDecimal totalRevenue = result.getSummary().getRevenue();
         
-        // Mock data for revenue analytics
-        double revenueGrowth = 18.5;
+        GrowthEngine.Growth growth = growthEngine.compare(startDate, endDate, result.getSummary());
         
         revenueData.put("totalRevenue", totalRevenue);
-        revenueData.put("revenueGrowth", revenueGrowth);
+        revenueData.put("revenueGrowth", growth.getRevenueGrowth());
+        revenueData.put("previousRevenue", growth.getPrevious().getRevenue());
         revenueData.put("revenueByChannel", getRevenueByChannel());
-        revenueData.put("revenueByProduct", getRevenueByProduct());
+        // One GROUP BY over order items joined to products feeds both breakdowns
+        List<ProductRevenueSummary> productRevenue =
+                orderRepository.summarizeRevenueByProduct(startDate, TimeBuckets.exclusiveEnd(endDate));
+        revenueData.put("revenueByCategory", getRevenueByCategory(productRevenue));
+        revenueData.put("revenueByProduct", getRevenueByProduct(productRevenue));
+        if (explain) {
+            revenueData.put("explain", result.getPlan().toMap());
+        }
         
         return revenueData;
     }
     
     /**
-     * Get real-time analytics data
-     * @return Real-time analytics
+     * Get approximate sales analytics from the stratified order sample
+     * Every total is returned with its 95% confidence interval; the cost is bounded
+     * by the sample query budget regardless of how many orders the range holds
+     * @param startDate Start date
+     * @param endDate End date
+     * @return Approximate sales analytics
      */
-    public Map<String, Object> getRealTimeData() {
-        Map<String, Object> realTimeData = new HashMap<>();
+    public Map<String, Object> getApproximateSalesAnalytics(LocalDateTime startDate, LocalDateTime endDate) {
+        validateRange(startDate, endDate);
+        Map<String, Object> salesData = new HashMap<>();
+        
+        LocalDateTime endExclusive = TimeBuckets.exclusiveEnd(endDate);
+        OrderSampleStore.SampleEstimate current = orderSampleStore.estimate(startDate, endExclusive);
+        OrderSampleStore.SampleEstimate previous = orderSampleStore.estimate(
+                startDate.minus(Duration.between(startDate, endExclusive)), startDate);
+        
+        List<Map<String, Object>> dailyData = current.getRevenueCentsByDay().entrySet().stream()
+                .map(entry -> {
+                    Map<String, Object> dayData = new HashMap<>();
+                    dayData.put("date", entry.getKey().toString());
+                    dayData.put("sales", Cents.toAmount(Math.round(entry.getValue().getValue())));
+                    dayData.put("lower", Cents.toAmount(Math.round(entry.getValue().getLower())));
+                    dayData.put("upper", Cents.toAmount(Math.round(entry.getValue().getUpper())));
+                    return dayData;
+                })
+                .toList();
+        Map<String, Object> salesByDay = new HashMap<>();
+        salesByDay.put("data", dailyData);
+        
+        salesData.put("totalSales", toAmountInterval(current.getRevenueCents()));
+        salesData.put("totalOrders", toCountInterval(current.getOrders()));
+        salesData.put("salesGrowth", percentChange(current.getRevenueCents(), previous.getRevenueCents()));
+        salesData.put("orderGrowth", percentChange(current.getOrders(), previous.getOrders()));
+        salesData.put("previousTotalSales", toAmountInterval(previous.getRevenueCents()));
+        salesData.put("averageOrderValue", toAmountInterval(current.getAverageOrderValueCents()));
+        salesData.put("salesByDay", salesByDay);
+        salesData.put("approximation", toApproximation(current));
+        
+        return salesData;
+    }
+    
+    /**
+     * Get approximate revenue analytics from the stratified order sample
+     * The sample holds order totals only, so the channel, category and product
+     * breakdowns are left to the exact endpoint
+     * @param startDate Start date
+     * @param endDate End date
+     * @return Approximate revenue analytics
+     */
+    public Map<String, Object> getApproximateRevenueAnalytics(LocalDateTime startDate, LocalDateTime endDate) {
+        validateRange(startDate, endDate);
+        Map<String, Object> revenueData = new HashMap<>();
+        
+        LocalDateTime endExclusive = TimeBuckets.exclusiveEnd(endDate);
+        OrderSampleStore.SampleEstimate current = orderSampleStore.estimate(startDate, endExclusive);
+        OrderSampleStore.SampleEstimate previous = orderSampleStore.estimate(
+                startDate.minus(Duration.between(startDate, endExclusive)), startDate);
         
-        // Mock real-time data
-        long activeUsers = 45;
-        BigDecimal currentSales = BigDecimal.valueOf(1250.75);
+        revenueData.put("totalRevenue", toAmountInterval(current.getRevenueCents()));
+        revenueData.put("revenueGrowth", percentChange(current.getRevenueCents(), previous.getRevenueCents()));
+        revenueData.put("previousRevenue", toAmountInterval(previous.getRevenueCents()));
+        revenueData.put("approximation", toApproximation(current));
+        
+        return revenueData;
+    }
+    
+    /**
+     * Get approximate customer analytics
+     * Unique customers come from the rollup sketches with their standard error and
+     * new customers from the order sample, so the response reads only the rollups and
+     * the sample; derived figures carry conservative interval bounds
+     * @param startDate Start date
+     * @param endDate End date
+     * @return Approximate customer analytics
+     */
+    public Map<String, Object> getApproximateCustomerAnalytics(LocalDateTime startDate, LocalDateTime endDate) {
+        validateRange(startDate, endDate);
+        Map<String, Object> customerData = new HashMap<>();
         
-        realTimeData.put("activeUsers", activeUsers);
-        realTimeData.put("currentSales", currentSales);
-        realTimeData.put("topProducts", getTopProducts());
-        realTimeData.put("recentOrders", getRecentOrders());
+        SalesSummary summary = salesRollupService.summarize(startDate, endDate);
+        OrderSampleStore.SampleEstimate sample = orderSampleStore.estimate(startDate, TimeBuckets.exclusiveEnd(endDate));
+        
+        double unique = summary.getDistinctCustomers();
+        Estimate uniqueCustomers = Estimate.of(unique,
+                OrderSampleStore.Z_95 * summary.getCustomerSketch().relativeStandardError() * unique,
+                0, summary.getOrderCount());
+        // Capped like the exact count: orders placed in the same second as a customer's first all look first
+        Estimate sampledNew = sample.getNewCustomers();
+        Estimate newCustomers = new Estimate(Math.min(sampledNew.getValue(), unique),
+                Math.min(sampledNew.getLower(), uniqueCustomers.getUpper()),
+                Math.min(sampledNew.getUpper(), uniqueCustomers.getUpper()));
+        Estimate returningCustomers = new Estimate(Math.max(0, unique - newCustomers.getValue()),
+                Math.max(0, uniqueCustomers.getLower() - newCustomers.getUpper()),
+                Math.max(0, uniqueCustomers.getUpper() - newCustomers.getLower()));
+        Estimate customerRetention = new Estimate(
+                percentOf(returningCustomers.getValue(), uniqueCustomers.getValue()),
+                percentOf(returningCustomers.getLower(), uniqueCustomers.getUpper()),
+                Math.min(100.0, percentOf(returningCustomers.getUpper(), uniqueCustomers.getLower())));
+        double revenueCents = summary.getRevenueCents();
+        Estimate averageCustomerValue = new Estimate(
+                unique > 0 ? revenueCents / unique : 0,
+                uniqueCustomers.getUpper() > 0 ? revenueCents / uniqueCustomers.getUpper() : 0,
+                uniqueCustomers.getLower() > 0 ? revenueCents / uniqueCustomers.getLower() : 0);
+        
+        customerData.put("totalCustomers", toCountInterval(uniqueCustomers));
+        customerData.put("newCustomers", toCountInterval(newCustomers));
+        customerData.put("returningCustomers", toCountInterval(returningCustomers));
+        customerData.put("customerRetention", toPercentInterval(customerRetention));
+        customerData.put("averageCustomerValue", toAmountInterval(averageCustomerValue));
+        customerData.put("customerLifetimeValue", cohortEngine.getAverageLifetimeValue());
+        customerData.put("approximation", toApproximation(sample));
         
-        return realTimeData;
+        return customerData;
+    }
+    
+    /**
+     * Get real-time analytics data
+     * Sections run concurrently; a failed or slow section is omitted and the response flagged as partial.
+     * Only the recent orders section reads the database, in its own transaction
+     * @return Real-time analytics
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<String, Object> getRealTimeData() {
+        return compositeQueryExecutor.execute(List.of(
+                compositeQueryExecutor.memorySection("windows", () -> {
+                    // Sliding windows served from the in-memory ring buffers
+                    RealTimeMetricsEngine.WindowSummary last5Minutes = realTimeMetricsEngine.window(300);
+                    RealTimeMetricsEngine.WindowSummary lastHour = realTimeMetricsEngine.window(RealTimeMetricsEngine.MAX_WINDOW_SECONDS);
+                    Map<String, Object> windows = new HashMap<>();
+                    windows.put("activeUsers", last5Minutes.getActiveSessions());
+                    windows.put("currentSales", lastHour.getRevenue());
+                    windows.put("last5Minutes", toWindowData(last5Minutes));
+                    windows.put("last60Minutes", toWindowData(lastHour));
+                    return windows;
+                }),
+                compositeQueryExecutor.memorySection("topProducts", () -> Map.of("topProducts", getTopProducts(1))),
+                compositeQueryExecutor.section("recentOrders", () -> Map.of("recentOrders", getRecentOrders()))));
     }
     
     /**
      * Get order statistics
+     * Served from the in-memory status counters, so no transaction or connection is opened
      * @return Order statistics
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Map<String, Object> getOrderStatistics() {
         Map<String, Object> stats = new HashMap<>();
         
-        stats.put("totalOrders", orderRepository.count());
-        stats.put("pendingOrders", orderRepository.countByStatus(Order.OrderStatus.PENDING));
-        stats.put("confirmedOrders", orderRepository.countByStatus(Order.OrderStatus.CONFIRMED));
-        stats.put("shippedOrders", orderRepository.countByStatus(Order.OrderStatus.SHIPPED));
-        stats.put("deliveredOrders", orderRepository.countByStatus(Order.OrderStatus.DELIVERED));
-        stats.put("cancelledOrders", orderRepository.countByStatus(Order.OrderStatus.CANCELLED));
+        // Served from the in-memory status counters
+        Map<Order.OrderStatus, Long> counts = orderMetricsAggregator.getStatusCounts();
+        stats.put("totalOrders", orderMetricsAggregator.getOrderCount());
+        stats.put("pendingOrders", counts.get(Order.OrderStatus.PENDING));
+        stats.put("confirmedOrders", counts.get(Order.OrderStatus.CONFIRMED));
+        stats.put("shippedOrders", counts.get(Order.OrderStatus.SHIPPED));
+        stats.put("deliveredOrders", counts.get(Order.OrderStatus.DELIVERED));
+        stats.put("cancelledOrders", counts.get(Order.OrderStatus.CANCELLED));
         
         return stats;
     }
     
+    /**
+     * Get the best-selling products
+     * @param metric Ranking measure (units or revenue)
+     * @param windowHours Number of most recent hours including the current one, or 0 for all time
+     * @param category Optional category filter
+     * @param limit Maximum number of products
+     * @return Ranked products
+     */
+    public Map<String, Object> getTopProducts(TopProductsTracker.Metric metric, int windowHours,
+                                              String category, int limit) {
+        Map<String, Object> topProducts = new HashMap<>();
+        topProducts.put("metric", metric.name().toLowerCase(Locale.ROOT));
+        topProducts.put("windowHours", windowHours);
+        topProducts.put("category", category);
+        topProducts.put("products", toProductList(topProductsTracker.top(metric, windowHours, category, limit)));
+        return topProducts;
+    }
+    
+    /**
+     * Get order value, basket size and fulfilment time percentiles
+     * @param startDate Start date
+     * @param endDate End date
+     * @return Distribution summaries for the range
+     * @throws IllegalArgumentException if a date is missing or the start is after the end
+     */
+    public Map<String, Object> getDistributions(LocalDateTime startDate, LocalDateTime endDate) {
+        validateRange(startDate, endDate);
+        Map<String, Object> distributions = new HashMap<>();
+        
+        LogHistogram orderValue = orderDistributionStore.histogram(OrderDistributionStore.Metric.ORDER_VALUE, startDate, endDate);
+        Map<String, Object> orderValueData = toDistribution(orderValue, cents -> Cents.toAmount(Math.round(cents)));
+        
+        LogHistogram basketSize = orderDistributionStore.histogram(OrderDistributionStore.Metric.BASKET_SIZE, startDate, endDate);
+        Map<String, Object> basketSizeData = toDistribution(basketSize, units -> Math.round(units * 100) / 100.0);
+        
+        // Delivery times are reported in hours
+        LogHistogram fulfilment = orderDistributionStore.histogram(OrderDistributionStore.Metric.FULFILMENT_TIME, startDate, endDate);
+        Map<String, Object> fulfilmentData = toDistribution(fulfilment,
+                seconds -> BigDecimal.valueOf(seconds / 3600.0).setScale(2, RoundingMode.HALF_UP));
+        
+        distributions.put("orderValue", orderValueData);
+        distributions.put("basketSize", basketSizeData);
+        distributions.put("fulfilmentHours", fulfilmentData);
+        distributions.put("startDate", startDate);
+        distributions.put("endDate", endDate);
+        return distributions;
+    }
+    
+    /**
+     * Enqueue a tracked clickstream event for batched ingestion
+     * @param event Analytics event
+     * @return false if the ingestion queue is full and the event was rejected
+     */
+    public boolean trackEvent(AnalyticsEvent event) {
+        return analyticsEventPipeline.submit(event);
+    }
+    
     // Helper methods
-    private Map<String, Object> getTopProducts() {
+    private Map<String, Object> toDistribution(LogHistogram histogram, DoubleFunction<Object> unit) {
+        Map<String, Object> distribution = new LinkedHashMap<>();
+        distribution.put("count", histogram.getTotalCount());
+        distribution.put("min", unit.apply(histogram.getMin()));
+        distribution.put("mean", unit.apply(histogram.getMean()));
+        distribution.put("p50", unit.apply(histogram.valueAtPercentile(50)));
+        distribution.put("p90", unit.apply(histogram.valueAtPercentile(90)));
+        distribution.put("p99", unit.apply(histogram.valueAtPercentile(99)));
+        distribution.put("max", unit.apply(histogram.getMax()));
+        return distribution;
+    }
+    
+    private Map<String, Object> toWindowData(RealTimeMetricsEngine.WindowSummary window) {
+        Map<String, Object> windowData = new HashMap<>();
+        windowData.put("orders", window.getOrders());
+        windowData.put("revenue", window.getRevenue());
+        windowData.put("events", window.getEvents());
+        windowData.put("activeSessions", window.getActiveSessions());
+        return windowData;
+    }
+    
+    private Map<String, Object> getTopProducts(int windowHours) {
         Map<String, Object> topProducts = new HashMap<>();
-        
-        try {
-            List<Product> products = productRepository.findByIsActiveTrue();
-            if (products == null || products.isEmpty()) {
-                topProducts.put("products", new ArrayList<>());
-                return topProducts;
-            }
-            
-            List<Map<String, Object>> productList = products.stream()
-                    .limit(3)
-                    .map(p -> {
-                        Map<String, Object> productInfo = new HashMap<>();
-                        productInfo.put("name", p.getName());
-                        productInfo.put("sales", p.getStockQuantity() / 2); // Mock sales data
-                        productInfo.put("revenue", p.getPrice().multiply(BigDecimal.valueOf(p.getStockQuantity() / 2)));
-                        return productInfo;
-                    })
-                    .toList();
-            
-            topProducts.put("products", productList);
-        } catch (Exception e) {
-            topProducts.put("products", new ArrayList<>());
-        }
-        
+        topProducts.put("products", toProductList(
+                topProductsTracker.top(TopProductsTracker.Metric.REVENUE, windowHours, null, 3)));
         return topProducts;
     }
     
+    private List<Map<String, Object>> toProductList(List<TopProductsTracker.ProductRank> ranks) {
+        return ranks.stream()
+                .map(rank -> {
+                    Map<String, Object> productInfo = new HashMap<>();
+                    productInfo.put("productId", rank.getProductId());
+                    productInfo.put("name", rank.getProductName());
+                    productInfo.put("category", rank.getCategory());
+                    productInfo.put("sales", rank.getUnits());
+                    productInfo.put("revenue", rank.getRevenue());
+                    return productInfo;
+                })
+                .toList();
+    }
+    
     private Map<String, Object> getRecentOrders() {
         Map<String, Object> recentOrders = new HashMap<>();
         
-        List<Order> orders = orderRepository.findRecentOrders(LocalDateTime.now().minusDays(7));
+        List<Order> orders = orderRepository.findTop5ByCreatedAtGreaterThanEqualOrderByCreatedAtDesc(LocalDateTime.now().minusDays(7));
         List<Map<String, Object>> orderList = orders.stream()
-                .limit(5)
                 .map(o -> {
                     Map<String, Object> orderInfo = new HashMap<>();
                     orderInfo.put("id", o.getOrderNumber());
@@ -301,20 +718,14 @@ public class AnalyticsService {
         return recentOrders;
     }
     
-    private Map<String, Object> getSalesByDay(List<Order> orders) {
+    private Map<String, Object> getSalesByDay(SalesSummary summary) {
         Map<String, Object> salesByDay = new HashMap<>();
         
-        // Group orders by day and calculate sales
-        Map<String, BigDecimal> dailySales = new HashMap<>();
-        for (Order order : orders) {
-            String date = order.getCreatedAt().toLocalDate().toString();
-            dailySales.merge(date, order.getTotalAmount(), BigDecimal::add);
-        }
-        
-        List<Map<String, Object>> dailyData = dailySales.entrySet().stream()
+        // Daily sales are already bucketed by the rollups, in date order
+        List<Map<String, Object>> dailyData = summary.getRevenueByDay().entrySet().stream()
                 .map(entry -> {
                     Map<String, Object> dayData = new HashMap<>();
-                    dayData.put("date", entry.getKey());
+                    dayData.put("date", entry.getKey().toString());
                     dayData.put("sales", entry.getValue());
                     return dayData;
                 })
@@ -332,15 +743,85 @@ public class AnalyticsService {
         return revenueByChannel;
     }
     
-    private Map<String, Object> getRevenueByProduct() {
-        Map<String, Object> revenueByProduct = new HashMap<>();
-        
-        List<Product> products = productRepository.findByIsActiveTrue();
-        for (Product product : products) {
-            BigDecimal revenue = product.getPrice().multiply(BigDecimal.valueOf(product.getStockQuantity() / 2));
-            revenueByProduct.put(product.getCategory().toLowerCase(), revenue);
+    private List<Map<String, Object>> getRevenueByProduct(List<ProductRevenueSummary> productRevenue) {
+        return productRevenue.stream()
+                .sorted(Comparator.comparing(ProductRevenueSummary::getRevenue).reversed())
+                .map(row -> {
+                    Map<String, Object> productInfo = new HashMap<>();
+                    productInfo.put("productId", row.getProductId());
+                    productInfo.put("name", row.getProductName());
+                    productInfo.put("category", categoryOf(row));
+                    productInfo.put("sales", row.getUnits());
+                    productInfo.put("revenue", row.getRevenue());
+                    return productInfo;
+                })
+                .toList();
+    }
+    
+    private Map<String, Object> getRevenueByCategory(List<ProductRevenueSummary> productRevenue) {
+        Map<String, BigDecimal> totals = new TreeMap<>();
+        for (ProductRevenueSummary row : productRevenue) {
+            totals.merge(categoryOf(row), row.getRevenue(), BigDecimal::add);
         }
-        
-        return revenueByProduct;
+        return new LinkedHashMap<>(totals);
+    }
+    
+    private static String categoryOf(ProductRevenueSummary row) {
+        return row.getCategory() != null ? row.getCategory() : ProductCategoryLookup.UNCATEGORIZED;
+    }
+    
+    private static void validateRange(LocalDateTime startDate, LocalDateTime endDate) {
+        if (startDate == null || endDate == null) {
+            throw new IllegalArgumentException("Start date and end date cannot be null");
+        }
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date cannot be after end date");
+        }
+    }
+    
+    private static Map<String, Object> toAmountInterval(Estimate cents) {
+        Map<String, Object> interval = new LinkedHashMap<>();
+        interval.put("estimate", Cents.toAmount(Math.round(cents.getValue())));
+        interval.put("lower", Cents.toAmount(Math.round(cents.getLower())));
+        interval.put("upper", Cents.toAmount(Math.round(cents.getUpper())));
+        return interval;
+    }
+    
+    private static Map<String, Object> toCountInterval(Estimate count) {
+        Map<String, Object> interval = new LinkedHashMap<>();
+        interval.put("estimate", Math.round(count.getValue()));
+        interval.put("lower", (long) Math.floor(count.getLower()));
+        interval.put("upper", (long) Math.ceil(count.getUpper()));
+        return interval;
+    }
+    
+    private static Map<String, Object> toPercentInterval(Estimate percent) {
+        Map<String, Object> interval = new LinkedHashMap<>();
+        interval.put("estimate", Math.round(percent.getValue() * 10) / 10.0);
+        interval.put("lower", Math.floor(percent.getLower() * 10) / 10.0);
+        interval.put("upper", Math.ceil(percent.getUpper() * 10) / 10.0);
+        return interval;
+    }
+    
+    private Map<String, Object> toApproximation(OrderSampleStore.SampleEstimate estimate) {
+        Map<String, Object> approximation = new LinkedHashMap<>();
+        approximation.put("method", "stratified-sample");
+        approximation.put("confidenceLevel", 0.95);
+        approximation.put("samplesPerDay", orderSampleStore.getSamplesPerDay());
+        approximation.put("sampledOrders", estimate.getSampledOrders());
+        approximation.put("population", estimate.getPopulation());
+        return approximation;
+    }
+    
+    // Percentage change of the point estimates, rounded to one decimal; null when the previous window is empty
+    private static Double percentChange(Estimate current, Estimate previous) {
+        if (previous.getValue() <= 0) {
+            return current.getValue() <= 0 ? 0.0 : null;
+        }
+        return Math.round((current.getValue() - previous.getValue()) * 1000.0 / previous.getValue()) / 10.0;
+    }
+    
+    private static double percentOf(double part, double whole) {
+        return whole > 0 ? part * 100.0 / whole : 0.0;
     }
-}
\ No newline at end of file
+}
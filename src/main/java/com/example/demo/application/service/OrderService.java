@@ -1,15 +1,21 @@
 package com.example.demo.application.service;
 
+import com.example.demo.application.analytics.OrderMetricsAggregator;
 import com.example.demo.domain.entity.Order;
 import com.example.demo.domain.entity.OrderItem;
 import com.example.demo.domain.entity.Product;
+import com.example.demo.domain.event.OrderPlacedEvent;
+import com.example.demo.domain.event.OrderStatusChangedEvent;
 import com.example.demo.domain.repository.OrderRepository;
 import com.example.demo.domain.repository.ProductRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -23,10 +29,15 @@ public class OrderService {
     
     private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OrderMetricsAggregator orderMetricsAggregator;
     
-    public OrderService(OrderRepository orderRepository, ProductRepository productRepository) {
+    public OrderService(OrderRepository orderRepository, ProductRepository productRepository,
+                        ApplicationEventPublisher eventPublisher, OrderMetricsAggregator orderMetricsAggregator) {
         this.orderRepository = orderRepository;
         this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
+        this.orderMetricsAggregator = orderMetricsAggregator;
     }
     
     /**
@@ -78,7 +89,18 @@ public class OrderService {
         // Calculate total amount
         order.calculateTotalAmount();
         
-        return orderRepository.save(order);
+        return placeOrder(order);
+    }
+    
+    /**
+     * Persist a fully built order and announce it to analytics listeners
+     * @param order Order with items and total amount already set
+     * @return Saved order
+     */
+    public Order placeOrder(Order order) {
+        Order savedOrder = orderRepository.save(order);
+        eventPublisher.publishEvent(OrderPlacedEvent.from(savedOrder));
+        return savedOrder;
     }
     
     /**
@@ -93,8 +115,9 @@ public class OrderService {
         }
         
         Order order = orderOpt.get();
+        Order.OrderStatus previousStatus = order.getStatus();
         order.confirm();
-        return orderRepository.save(order);
+        return saveTransition(order, previousStatus);
     }
     
     /**
@@ -109,8 +132,9 @@ public class OrderService {
         }
         
         Order order = orderOpt.get();
+        Order.OrderStatus previousStatus = order.getStatus();
         order.ship();
-        return orderRepository.save(order);
+        return saveTransition(order, previousStatus);
     }
     
     /**
@@ -125,8 +149,9 @@ public class OrderService {
         }
         
         Order order = orderOpt.get();
+        Order.OrderStatus previousStatus = order.getStatus();
         order.deliver();
-        return orderRepository.save(order);
+        return saveTransition(order, previousStatus);
     }
     
     /**
@@ -141,6 +166,7 @@ public class OrderService {
         }
         
         Order order = orderOpt.get();
+        Order.OrderStatus previousStatus = order.getStatus();
         
         // Restore stock for each order item
         for (OrderItem orderItem : order.getOrderItems()) {
@@ -153,24 +179,50 @@ public class OrderService {
         }
         
         order.cancel();
-        return orderRepository.save(order);
+        return saveTransition(order, previousStatus);
+    }
+    
+    /**
+     * Set an order status directly, bypassing the lifecycle rules
+     * @param orderId Order ID
+     * @param status New status
+     * @return Updated order
+     */
+    public Order changeStatus(Long orderId, Order.OrderStatus status) {
+        Optional<Order> orderOpt = orderRepository.findById(orderId);
+        if (orderOpt.isEmpty()) {
+            throw new IllegalArgumentException("Order not found: " + orderId);
+        }
+        
+        Order order = orderOpt.get();
+        Order.OrderStatus previousStatus = order.getStatus();
+        order.setStatus(status);
+        return saveTransition(order, previousStatus);
+    }
+    
+    private Order saveTransition(Order order, Order.OrderStatus previousStatus) {
+        Order savedOrder = orderRepository.save(order);
+        if (previousStatus != savedOrder.getStatus()) {
+            eventPublisher.publishEvent(OrderStatusChangedEvent.from(savedOrder, previousStatus));
+        }
+        return savedOrder;
     }
     
     /**
      * Get order statistics
+     * Served from the in-memory status counters, so no transaction or connection is opened
      * @return Order statistics
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public OrderStatistics getOrderStatistics() {
-        long totalOrders = orderRepository.count();
-        long pendingOrders = orderRepository.countByStatus(Order.OrderStatus.PENDING);
-        long confirmedOrders = orderRepository.countByStatus(Order.OrderStatus.CONFIRMED);
-        long shippedOrders = orderRepository.countByStatus(Order.OrderStatus.SHIPPED);
-        long deliveredOrders = orderRepository.countByStatus(Order.OrderStatus.DELIVERED);
-        long cancelledOrders = orderRepository.countByStatus(Order.OrderStatus.CANCELLED);
-        
-        return new OrderStatistics(totalOrders, pendingOrders, confirmedOrders, 
-                                 shippedOrders, deliveredOrders, cancelledOrders);
+        Map<Order.OrderStatus, Long> counts = orderMetricsAggregator.getStatusCounts();
+        
+        return new OrderStatistics(orderMetricsAggregator.getOrderCount(),
+                                 counts.get(Order.OrderStatus.PENDING),
+                                 counts.get(Order.OrderStatus.CONFIRMED),
+                                 counts.get(Order.OrderStatus.SHIPPED),
+                                 counts.get(Order.OrderStatus.DELIVERED),
+                                 counts.get(Order.OrderStatus.CANCELLED));
     }
     
     /**
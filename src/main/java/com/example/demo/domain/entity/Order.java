@@ -14,7 +14,7 @@ import java.util.Objects;
  * Follows Clean Architecture and ACID principles
  */
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = @Index(name = "idx_orders_created_at", columnList = "createdAt"))
 public class Order {
     
     @Id
@@ -11,7 +11,8 @@ import java.util.Objects;
  * Follows Clean Architecture principles
  */
 @Entity
-@Table(name = "order_items")
+@Table(name = "order_items", indexes = @Index(name = "idx_order_items_product_revenue",
+        columnList = "productId, order_id, quantity, subtotal, productName"))
 public class OrderItem {
     
     @Id
@@ -0,0 +1,81 @@
+package com.example.demo.domain.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Sales Rollup Base - Domain Layer
+ * Pre-aggregated order count, revenue and distinct-customer sketch for one time bucket
+ * The bucket number is the primary key (epoch hour or epoch day)
+ */
+@MappedSuperclass
+public abstract class SalesRollup {
+    
+    @Id
+    private Long bucket;
+    
+    @Column(nullable = false)
+    private LocalDateTime bucketStart;
+    
+    @Column(nullable = false)
+    private Long orderCount = 0L;
+    
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO;
+    
+    @Column(nullable = false, length = 4096)
+    private byte[] customerSketch;
+    
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+    
+    // Constructors
+    protected SalesRollup() {}
+    
+    protected SalesRollup(Long bucket, LocalDateTime bucketStart, byte[] customerSketch) {
+        this.bucket = bucket;
+        this.bucketStart = bucketStart;
+        this.customerSketch = customerSketch;
+        this.updatedAt = LocalDateTime.now();
+    }
+    
+    // Business Logic Methods
+    public void addOrder(BigDecimal amount, byte[] customerSketch) {
+        this.orderCount += 1;
+        this.revenue = this.revenue.add(amount);
+        this.customerSketch = customerSketch;
+        this.updatedAt = LocalDateTime.now();
+    }
+    
+    public void setTotals(Long orderCount, BigDecimal revenue) {
+        this.orderCount = orderCount;
+        this.revenue = revenue;
+        this.updatedAt = LocalDateTime.now();
+    }
+    
+    // Getters
+    public Long getBucket() {
+        return bucket;
+    }
+    
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+    
+    public Long getOrderCount() {
+        return orderCount;
+    }
+    
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+    
+    public byte[] getCustomerSketch() {
+        return customerSketch;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.demo.domain.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * Daily Sales Rollup Entity - Domain Layer
+ * One row per epoch day containing at least one order
+ */
+@Entity
+@Table(name = "sales_rollup_daily")
+public class SalesRollupDaily extends SalesRollup {
+    
+    protected SalesRollupDaily() {}
+    
+    public SalesRollupDaily(Long epochDay, LocalDateTime bucketStart, byte[] customerSketch) {
+        super(epochDay, bucketStart, customerSketch);
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.demo.domain.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * Hourly Sales Rollup Entity - Domain Layer
+ * One row per epoch hour containing at least one order
+ */
+@Entity
+@Table(name = "sales_rollup_hourly")
+public class SalesRollupHourly extends SalesRollup {
+    
+    protected SalesRollupHourly() {}
+    
+    public SalesRollupHourly(Long epochHour, LocalDateTime bucketStart, byte[] customerSketch) {
+        super(epochHour, bucketStart, customerSketch);
+    }
+}
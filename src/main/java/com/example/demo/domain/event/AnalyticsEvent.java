@@ -0,0 +1,78 @@
+package com.example.demo.domain.event;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Analytics Event - Domain Layer
+ * A single clickstream event tracked by the frontend (product view, add to cart, ...)
+ * The server receive time is used as the event time so client clock skew
+ * cannot move events between buckets
+ */
+public final class AnalyticsEvent {
+    
+    public static final String PRODUCT_VIEWED = "product_detail_viewed";
+    public static final String PRODUCT_ADDED_TO_CART = "product_added_to_cart";
+    public static final String CATEGORY_SELECTED = "category_selected";
+    public static final String CHECKOUT_STARTED = "checkout_started";
+    
+    private final String type;
+    private final String sessionId;
+    private final Long customerId;
+    private final Long productId;
+    private final LocalDateTime occurredAt;
+    
+    public AnalyticsEvent(String type, String sessionId, Long customerId, Long productId, LocalDateTime occurredAt) {
+        if (type == null || type.trim().isEmpty()) {
+            throw new IllegalArgumentException("Event type is required");
+        }
+        this.type = type.trim();
+        this.sessionId = sessionId;
+        this.customerId = customerId;
+        this.productId = productId;
+        this.occurredAt = occurredAt != null ? occurredAt : LocalDateTime.now();
+    }
+    
+    /**
+     * Build an event from the JSON payload posted by the frontend
+     * Accepts {event, sessionId, customerId, data: {productId, ...}}
+     * @param payload Request body
+     * @return Analytics event
+     * @throws IllegalArgumentException if the payload has no event type
+     */
+    public static AnalyticsEvent fromPayload(Map<String, Object> payload) {
+        if (payload == null) {
+            throw new IllegalArgumentException("Event payload cannot be null");
+        }
+        Object type = payload.containsKey("event") ? payload.get("event") : payload.get("type");
+        Map<?, ?> data = payload.get("data") instanceof Map<?, ?> map ? map : Map.of();
+        
+        Object sessionId = payload.get("sessionId");
+        Long customerId = toLong(payload.containsKey("customerId") ? payload.get("customerId") : data.get("customerId"));
+        Long productId = toLong(payload.containsKey("productId") ? payload.get("productId") : data.get("productId"));
+        
+        return new AnalyticsEvent(type != null ? type.toString() : null,
+                sessionId != null ? sessionId.toString() : null,
+                customerId, productId, LocalDateTime.now());
+    }
+    
+    private static Long toLong(Object value) {
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        if (value instanceof String text && !text.isBlank()) {
+            try {
+                return Long.parseLong(text.trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+    
+    public String getType() { return type; }
+    public String getSessionId() { return sessionId; }
+    public Long getCustomerId() { return customerId; }
+    public Long getProductId() { return productId; }
+    public LocalDateTime getOccurredAt() { return occurredAt; }
+}
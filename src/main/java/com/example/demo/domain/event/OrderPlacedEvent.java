@@ -0,0 +1,83 @@
+package com.example.demo.domain.event;
+
+import com.example.demo.domain.entity.Order;
+import com.example.demo.domain.entity.OrderItem;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Order Placed Event - Domain Layer
+ * Published when a new order has been persisted
+ * Carries an immutable copy of the order so listeners never touch lazy JPA state
+ */
+public final class OrderPlacedEvent {
+    
+    private final Long orderId;
+    private final String orderNumber;
+    private final Long customerId;
+    private final BigDecimal totalAmount;
+    private final Order.OrderStatus status;
+    private final LocalDateTime createdAt;
+    private final List<Line> lines;
+    
+    public OrderPlacedEvent(Long orderId, String orderNumber, Long customerId, BigDecimal totalAmount,
+                            Order.OrderStatus status, LocalDateTime createdAt, List<Line> lines) {
+        this.orderId = orderId;
+        this.orderNumber = orderNumber;
+        this.customerId = customerId;
+        this.totalAmount = totalAmount != null ? totalAmount : BigDecimal.ZERO;
+        this.status = status;
+        this.createdAt = createdAt;
+        this.lines = lines != null ? List.copyOf(lines) : List.of();
+    }
+    
+    /**
+     * Build an event from a freshly saved order
+     * @param order Persisted order
+     * @return Order placed event
+     */
+    public static OrderPlacedEvent from(Order order) {
+        List<Line> lines = order.getOrderItems() == null ? List.of() : order.getOrderItems().stream()
+                .map(Line::from)
+                .toList();
+        return new OrderPlacedEvent(order.getId(), order.getOrderNumber(), order.getCustomerId(),
+                order.getTotalAmount(), order.getStatus(), order.getCreatedAt(), lines);
+    }
+    
+    public Long getOrderId() { return orderId; }
+    public String getOrderNumber() { return orderNumber; }
+    public Long getCustomerId() { return customerId; }
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public Order.OrderStatus getStatus() { return status; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public List<Line> getLines() { return lines; }
+    
+    /**
+     * Immutable copy of a single order item
+     */
+    public static final class Line {
+        private final Long productId;
+        private final String productName;
+        private final int quantity;
+        private final BigDecimal subtotal;
+        
+        public Line(Long productId, String productName, int quantity, BigDecimal subtotal) {
+            this.productId = productId;
+            this.productName = productName;
+            this.quantity = quantity;
+            this.subtotal = subtotal != null ? subtotal : BigDecimal.ZERO;
+        }
+        
+        static Line from(OrderItem item) {
+            return new Line(item.getProductId(), item.getProductName(),
+                    item.getQuantity() != null ? item.getQuantity() : 0, item.getSubtotal());
+        }
+        
+        public Long getProductId() { return productId; }
+        public String getProductName() { return productName; }
+        public int getQuantity() { return quantity; }
+        public BigDecimal getSubtotal() { return subtotal; }
+    }
+}
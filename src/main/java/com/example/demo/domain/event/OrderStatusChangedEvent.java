@@ -0,0 +1,52 @@
+package com.example.demo.domain.event;
+
+import com.example.demo.domain.entity.Order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Order Status Changed Event - Domain Layer
+ * Published when an order moves from one status to another
+ */
+public final class OrderStatusChangedEvent {
+    
+    private final Long orderId;
+    private final Long customerId;
+    private final BigDecimal totalAmount;
+    private final Order.OrderStatus previousStatus;
+    private final Order.OrderStatus newStatus;
+    private final LocalDateTime orderCreatedAt;
+    private final LocalDateTime changedAt;
+    
+    public OrderStatusChangedEvent(Long orderId, Long customerId, BigDecimal totalAmount,
+                                   Order.OrderStatus previousStatus, Order.OrderStatus newStatus,
+                                   LocalDateTime orderCreatedAt, LocalDateTime changedAt) {
+        this.orderId = orderId;
+        this.customerId = customerId;
+        this.totalAmount = totalAmount != null ? totalAmount : BigDecimal.ZERO;
+        this.previousStatus = previousStatus;
+        this.newStatus = newStatus;
+        this.orderCreatedAt = orderCreatedAt;
+        this.changedAt = changedAt;
+    }
+    
+    /**
+     * Build an event from an order whose status has just been changed
+     * @param order Updated order
+     * @param previousStatus Status before the transition
+     * @return Order status changed event
+     */
+    public static OrderStatusChangedEvent from(Order order, Order.OrderStatus previousStatus) {
+        return new OrderStatusChangedEvent(order.getId(), order.getCustomerId(), order.getTotalAmount(),
+                previousStatus, order.getStatus(), order.getCreatedAt(), order.getUpdatedAt());
+    }
+    
+    public Long getOrderId() { return orderId; }
+    public Long getCustomerId() { return customerId; }
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public Order.OrderStatus getPreviousStatus() { return previousStatus; }
+    public Order.OrderStatus getNewStatus() { return newStatus; }
+    public LocalDateTime getOrderCreatedAt() { return orderCreatedAt; }
+    public LocalDateTime getChangedAt() { return changedAt; }
+}
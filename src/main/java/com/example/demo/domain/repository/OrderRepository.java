@@ -1,14 +1,23 @@
 package com.example.demo.domain.repository;
 
 import com.example.demo.domain.entity.Order;
+import com.example.demo.domain.repository.projection.OrderDeliverySummary;
+import com.example.demo.domain.repository.projection.OrderLineSummary;
+import com.example.demo.domain.repository.projection.OrderStatusSummary;
+import com.example.demo.domain.repository.projection.OrderSummary;
+import com.example.demo.domain.repository.projection.ProductRevenueSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Order Repository Interface
@@ -18,6 +27,11 @@ import java.util.List;
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     
+    /**
+     * JDBC fetch size used by the streaming range scans
+     */
+    String STREAM_FETCH_SIZE = "500";
+    
     /**
      * Find orders by customer ID
      * @param customerId Customer ID
@@ -50,6 +64,137 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByDateRange(@Param("startDate") java.time.LocalDateTime startDate, 
                                @Param("endDate") java.time.LocalDateTime endDate);
     
+    /**
+     * Stream orders by date range
+     * Rows are fetched in JDBC batches and loaded read-only; callers must consume the
+     * stream inside a transaction and detach each order once processed
+     * @param startDate Start date
+     * @param endDate End date
+     * @return Stream of orders within date range
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT o FROM Order o WHERE o.createdAt BETWEEN :startDate AND :endDate")
+    Stream<Order> streamByDateRange(@Param("startDate") java.time.LocalDateTime startDate,
+                                    @Param("endDate") java.time.LocalDateTime endDate);
+    
+    /**
+     * Stream order summaries in a half-open date range without loading entities
+     * @param startDate Start date (inclusive)
+     * @param endDate End date (exclusive)
+     * @return Stream of order summaries within the range
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.example.demo.domain.repository.projection.OrderSummary(o.id, o.customerId, o.totalAmount, o.status, o.createdAt) " +
+           "FROM Order o WHERE o.createdAt >= :startDate AND o.createdAt < :endDate")
+    Stream<OrderSummary> streamSummariesInRange(@Param("startDate") java.time.LocalDateTime startDate,
+                                                @Param("endDate") java.time.LocalDateTime endDate);
+    
+    /**
+     * Stream summaries of all orders in ID order without loading entities
+     * @return Stream of order summaries
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.example.demo.domain.repository.projection.OrderSummary(o.id, o.customerId, o.totalAmount, o.status, o.createdAt) " +
+           "FROM Order o ORDER BY o.id")
+    Stream<OrderSummary> streamAllSummaries();
+    
+    /**
+     * Stream every order item joined with its order in order ID order without loading entities
+     * @return Stream of order line summaries
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.example.demo.domain.repository.projection.OrderLineSummary(o.id, o.customerId, o.status, o.createdAt, " +
+           "i.productId, i.productName, i.quantity, i.subtotal) " +
+           "FROM Order o JOIN o.orderItems i ORDER BY o.id")
+    Stream<OrderLineSummary> streamAllLines();
+    
+    /**
+     * Stream order items joined with their order for orders in a half-open date range
+     * @param startDate Start date (inclusive)
+     * @param endDate End date (exclusive)
+     * @return Stream of order line summaries in creation order
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.example.demo.domain.repository.projection.OrderLineSummary(o.id, o.customerId, o.status, o.createdAt, " +
+           "i.productId, i.productName, i.quantity, i.subtotal) " +
+           "FROM Order o JOIN o.orderItems i WHERE o.createdAt >= :startDate AND o.createdAt < :endDate ORDER BY o.createdAt, o.id")
+    Stream<OrderLineSummary> streamLinesInRange(@Param("startDate") java.time.LocalDateTime startDate,
+                                                @Param("endDate") java.time.LocalDateTime endDate);
+    
+    /**
+     * Stream the creation and delivery time of every delivered order
+     * @return Stream of delivery summaries
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.example.demo.domain.repository.projection.OrderDeliverySummary(o.id, o.createdAt, o.updatedAt) " +
+           "FROM Order o WHERE o.status = com.example.demo.domain.entity.Order.OrderStatus.DELIVERED")
+    Stream<OrderDeliverySummary> streamDeliveries();
+    
+    /**
+     * Stream summaries of the orders above an ID in ID order without loading entities
+     * @param afterId Exclusive lower ID bound
+     * @return Stream of order summaries
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.example.demo.domain.repository.projection.OrderSummary(o.id, o.customerId, o.totalAmount, o.status, o.createdAt) " +
+           "FROM Order o WHERE o.id > :afterId ORDER BY o.id")
+    Stream<OrderSummary> streamSummariesAfter(@Param("afterId") Long afterId);
+    
+    /**
+     * Stream the order items of the orders above an ID in order ID order without loading entities
+     * @param afterId Exclusive lower ID bound
+     * @return Stream of order line summaries
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.example.demo.domain.repository.projection.OrderLineSummary(o.id, o.customerId, o.status, o.createdAt, " +
+           "i.productId, i.productName, i.quantity, i.subtotal) " +
+           "FROM Order o JOIN o.orderItems i WHERE o.id > :afterId ORDER BY o.id")
+    Stream<OrderLineSummary> streamLinesAfter(@Param("afterId") Long afterId);
+    
+    /**
+     * Stream the creation and delivery time of orders delivered at or after a point in time
+     * @param since Earliest delivery time (inclusive)
+     * @return Stream of delivery summaries
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.example.demo.domain.repository.projection.OrderDeliverySummary(o.id, o.createdAt, o.updatedAt) " +
+           "FROM Order o WHERE o.status = com.example.demo.domain.entity.Order.OrderStatus.DELIVERED AND o.updatedAt >= :since")
+    Stream<OrderDeliverySummary> streamDeliveriesSince(@Param("since") java.time.LocalDateTime since);
+    
+    /**
+     * Find the order with the highest ID
+     * @return Newest order, or null if there are no orders
+     */
+    Order findTopByOrderByIdDesc();
+    
     /**
      * Find orders by customer ID with pagination
      * @param customerId Customer ID
@@ -80,6 +225,29 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
      */
     long countByCustomerId(Long customerId);
     
+    /**
+     * Summarize order count and total amount per status in a single query
+     * @return One summary row per status present in the orders table
+     */
+    @Query("SELECT new com.example.demo.domain.repository.projection.OrderStatusSummary(o.status, COUNT(o), SUM(o.totalAmount)) " +
+           "FROM Order o GROUP BY o.status")
+    List<OrderStatusSummary> summarizeByStatus();
+    
+    /**
+     * Summarize units and line revenue per product for orders in a half-open date range
+     * Product name and category come from the product row, falling back to the item's name
+     * @param startDate Start date (inclusive)
+     * @param endDate End date (exclusive)
+     * @return One summary row per product sold in the range
+     */
+    @Query("SELECT new com.example.demo.domain.repository.projection.ProductRevenueSummary(" +
+           "i.productId, COALESCE(p.name, MAX(i.productName)), p.category, SUM(i.quantity), SUM(i.subtotal)) " +
+           "FROM Order o JOIN o.orderItems i LEFT JOIN Product p ON p.id = i.productId " +
+           "WHERE o.createdAt >= :startDate AND o.createdAt < :endDate " +
+           "GROUP BY i.productId, p.name, p.category")
+    List<ProductRevenueSummary> summarizeRevenueByProduct(@Param("startDate") java.time.LocalDateTime startDate,
+                                                          @Param("endDate") java.time.LocalDateTime endDate);
+    
     /**
      * Find recent orders (last N days)
      * @param days Number of days
@@ -88,6 +256,13 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT o FROM Order o WHERE o.createdAt >= :cutoffDate ORDER BY o.createdAt DESC")
     List<Order> findRecentOrders(@Param("cutoffDate") java.time.LocalDateTime cutoffDate);
     
+    /**
+     * Find the five most recent orders created after a cutoff date
+     * @param cutoffDate Cutoff date
+     * @return Up to five orders, newest first
+     */
+    List<Order> findTop5ByCreatedAtGreaterThanEqualOrderByCreatedAtDesc(java.time.LocalDateTime cutoffDate);
+    
     
     /**
      * Check if order exists by order number
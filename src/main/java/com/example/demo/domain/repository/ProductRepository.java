@@ -34,6 +34,13 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     @Query("SELECT DISTINCT p.category FROM Product p WHERE p.isActive = true ORDER BY p.category")
     List<String> findDistinctCategories();
     
+    /**
+     * Count distinct categories across all products, active or not
+     * @return Number of distinct non-null categories
+     */
+    @Query("SELECT COUNT(DISTINCT p.category) FROM Product p")
+    long countDistinctCategories();
+    
     /**
      * Find products by category and active status with pagination
      * @param category Product category
@@ -72,5 +79,5 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      * @return List of active products
      */
     List<Product> findByIsActiveTrue();
-    
+
 }
@@ -0,0 +1,37 @@
+package com.example.demo.domain.repository;
+
+import com.example.demo.domain.entity.SalesRollupDaily;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Daily Sales Rollup Repository Interface
+ * Domain Layer - Repository Pattern
+ */
+@Repository
+public interface SalesRollupDailyRepository extends JpaRepository<SalesRollupDaily, Long> {
+    
+    /**
+     * Find daily rollups in a bucket range
+     * @param fromBucket First epoch day (inclusive)
+     * @param toBucket Last epoch day (inclusive)
+     * @return Rollups ordered by bucket
+     */
+    List<SalesRollupDaily> findByBucketBetweenOrderByBucket(Long fromBucket, Long toBucket);
+    
+    /**
+     * Find a daily rollup and lock it for update
+     * @param bucket Epoch day
+     * @return Rollup if present
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM SalesRollupDaily r WHERE r.bucket = :bucket")
+    Optional<SalesRollupDaily> findForUpdate(@Param("bucket") Long bucket);
+}
@@ -0,0 +1,37 @@
+package com.example.demo.domain.repository;
+
+import com.example.demo.domain.entity.SalesRollupHourly;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Hourly Sales Rollup Repository Interface
+ * Domain Layer - Repository Pattern
+ */
+@Repository
+public interface SalesRollupHourlyRepository extends JpaRepository<SalesRollupHourly, Long> {
+    
+    /**
+     * Find hourly rollups in a bucket range
+     * @param fromBucket First epoch hour (inclusive)
+     * @param toBucket Last epoch hour (inclusive)
+     * @return Rollups ordered by bucket
+     */
+    List<SalesRollupHourly> findByBucketBetweenOrderByBucket(Long fromBucket, Long toBucket);
+    
+    /**
+     * Find an hourly rollup and lock it for update
+     * @param bucket Epoch hour
+     * @return Rollup if present
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM SalesRollupHourly r WHERE r.bucket = :bucket")
+    Optional<SalesRollupHourly> findForUpdate(@Param("bucket") Long bucket);
+}
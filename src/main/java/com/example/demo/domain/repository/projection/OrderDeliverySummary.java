@@ -0,0 +1,26 @@
+package com.example.demo.domain.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Order Delivery Summary Projection
+ * Domain Layer - Repository Projection
+ * Creation and delivery time of a delivered order; delivery is an order's final
+ * transition, so its last update time is the time it was delivered
+ */
+public class OrderDeliverySummary {
+    
+    private final Long orderId;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime deliveredAt;
+    
+    public OrderDeliverySummary(Long orderId, LocalDateTime createdAt, LocalDateTime deliveredAt) {
+        this.orderId = orderId;
+        this.createdAt = createdAt;
+        this.deliveredAt = deliveredAt;
+    }
+    
+    public Long getOrderId() { return orderId; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getDeliveredAt() { return deliveredAt; }
+}
@@ -0,0 +1,45 @@
+package com.example.demo.domain.repository.projection;
+
+import com.example.demo.domain.entity.Order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Order Line Summary Projection
+ * Domain Layer - Repository Projection
+ * One order item together with the scalar columns of its order, read without
+ * materializing either entity
+ */
+public class OrderLineSummary {
+    
+    private final Long orderId;
+    private final Long customerId;
+    private final Order.OrderStatus status;
+    private final LocalDateTime createdAt;
+    private final Long productId;
+    private final String productName;
+    private final int quantity;
+    private final BigDecimal subtotal;
+    
+    public OrderLineSummary(Long orderId, Long customerId, Order.OrderStatus status, LocalDateTime createdAt,
+                            Long productId, String productName, Integer quantity, BigDecimal subtotal) {
+        this.orderId = orderId;
+        this.customerId = customerId;
+        this.status = status;
+        this.createdAt = createdAt;
+        this.productId = productId;
+        this.productName = productName;
+        this.quantity = quantity != null ? quantity : 0;
+        this.subtotal = subtotal != null ? subtotal : BigDecimal.ZERO;
+    }
+    
+    public Long getOrderId() { return orderId; }
+    public Long getCustomerId() { return customerId; }
+    public Order.OrderStatus getStatus() { return status; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public Long getProductId() { return productId; }
+    public String getProductName() { return productName; }
+    public int getQuantity() { return quantity; }
+    public BigDecimal getSubtotal() { return subtotal; }
+}
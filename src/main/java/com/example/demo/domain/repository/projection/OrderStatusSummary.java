@@ -0,0 +1,27 @@
+package com.example.demo.domain.repository.projection;
+
+import com.example.demo.domain.entity.Order;
+
+import java.math.BigDecimal;
+
+/**
+ * Order Status Summary Projection
+ * Domain Layer - Repository Projection
+ * One row of a GROUP BY status aggregate over the orders table
+ */
+public class OrderStatusSummary {
+    
+    private final Order.OrderStatus status;
+    private final long orderCount;
+    private final BigDecimal totalAmount;
+    
+    public OrderStatusSummary(Order.OrderStatus status, Long orderCount, BigDecimal totalAmount) {
+        this.status = status;
+        this.orderCount = orderCount != null ? orderCount : 0L;
+        this.totalAmount = totalAmount != null ? totalAmount : BigDecimal.ZERO;
+    }
+    
+    public Order.OrderStatus getStatus() { return status; }
+    public long getOrderCount() { return orderCount; }
+    public BigDecimal getTotalAmount() { return totalAmount; }
+}
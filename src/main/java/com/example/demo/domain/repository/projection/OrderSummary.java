@@ -0,0 +1,35 @@
+package com.example.demo.domain.repository.projection;
+
+import com.example.demo.domain.entity.Order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Order Summary Projection
+ * Domain Layer - Repository Projection
+ * Scalar columns of an order, read without materializing the entity or its items
+ */
+public class OrderSummary {
+    
+    private final Long id;
+    private final Long customerId;
+    private final BigDecimal totalAmount;
+    private final Order.OrderStatus status;
+    private final LocalDateTime createdAt;
+    
+    public OrderSummary(Long id, Long customerId, BigDecimal totalAmount,
+                        Order.OrderStatus status, LocalDateTime createdAt) {
+        this.id = id;
+        this.customerId = customerId;
+        this.totalAmount = totalAmount != null ? totalAmount : BigDecimal.ZERO;
+        this.status = status;
+        this.createdAt = createdAt;
+    }
+    
+    public Long getId() { return id; }
+    public Long getCustomerId() { return customerId; }
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public Order.OrderStatus getStatus() { return status; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
@@ -0,0 +1,31 @@
+package com.example.demo.domain.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Product Revenue Summary Projection
+ * Domain Layer - Repository Projection
+ * One row of a GROUP BY product aggregate over order items joined to products
+ */
+public class ProductRevenueSummary {
+    
+    private final Long productId;
+    private final String productName;
+    private final String category;
+    private final long units;
+    private final BigDecimal revenue;
+    
+    public ProductRevenueSummary(Long productId, String productName, String category, Long units, BigDecimal revenue) {
+        this.productId = productId;
+        this.productName = productName;
+        this.category = category;
+        this.units = units != null ? units : 0L;
+        this.revenue = revenue != null ? revenue : BigDecimal.ZERO;
+    }
+    
+    public Long getProductId() { return productId; }
+    public String getProductName() { return productName; }
+    public String getCategory() { return category; }
+    public long getUnits() { return units; }
+    public BigDecimal getRevenue() { return revenue; }
+}
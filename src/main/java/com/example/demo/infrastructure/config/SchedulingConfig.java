@@ -0,0 +1,15 @@
+package com.example.demo.infrastructure.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Scheduling Configuration
+ * Infrastructure Layer - Configuration
+ * Enables @Scheduled background tasks (analytics stream ticks, periodic maintenance)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+    // Scheduled tasks run on Spring Boot's auto-configured task scheduler
+}
@@ -0,0 +1,162 @@
+package com.example.demo.infrastructure.eventlog;
+
+import com.example.demo.application.analytics.ingest.AnalyticsEventSink;
+import com.example.demo.domain.event.AnalyticsEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Analytics Event Log
+ * Infrastructure Layer - Durable event storage
+ * Persists every ingested batch to a memory-mapped segmented log instead of the
+ * database, and on startup replays the retained log into the other event sinks
+ * so in-memory aggregates survive a restart.
+ */
+@Component
+@ConditionalOnProperty(name = "analytics.event-log.enabled", havingValue = "true", matchIfMissing = true)
+public class AnalyticsEventLog implements AnalyticsEventSink, SmartInitializingSingleton {
+    
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsEventLog.class);
+    private static final byte FORMAT_VERSION = 1;
+    private static final int MAX_RECORD_BYTES = 4096;
+    private static final int REPLAY_BATCH_SIZE = 512;
+    private static final int HAS_SESSION = 1;
+    private static final int HAS_CUSTOMER = 2;
+    private static final int HAS_PRODUCT = 4;
+    
+    private final SegmentedLog segmentedLog;
+    private final ObjectProvider<AnalyticsEventSink> sinks;
+    private final boolean forceOnFlush;
+    private final ByteBuffer recordBuffer = ByteBuffer.allocate(MAX_RECORD_BYTES);
+    
+    public AnalyticsEventLog(ObjectProvider<AnalyticsEventSink> sinks,
+                             @Value("${analytics.event-log.dir:data/event-log}") String directory,
+                             @Value("${analytics.event-log.segment-size-bytes:16777216}") int segmentBytes,
+                             @Value("${analytics.event-log.max-segments:64}") int maxSegments,
+                             @Value("${analytics.event-log.force-on-flush:true}") boolean forceOnFlush) {
+        this.segmentedLog = new SegmentedLog(Path.of(directory), segmentBytes, maxSegments);
+        this.sinks = sinks;
+        this.forceOnFlush = forceOnFlush;
+    }
+    
+    @Override
+    public void afterSingletonsInstantiated() {
+        List<AnalyticsEventSink> targets = sinks.orderedStream()
+                .filter(sink -> sink != this)
+                .toList();
+        List<AnalyticsEvent> batch = new ArrayList<>(REPLAY_BATCH_SIZE);
+        long replayed = replay(event -> {
+            batch.add(event);
+            if (batch.size() == REPLAY_BATCH_SIZE) {
+                targets.forEach(sink -> sink.accept(batch));
+                batch.clear();
+            }
+        });
+        if (!batch.isEmpty()) {
+            targets.forEach(sink -> sink.accept(batch));
+        }
+        log.info("Replayed {} analytics events from {} log segments", replayed, segmentedLog.getSegmentCount());
+    }
+    
+    @Override
+    public synchronized void accept(List<AnalyticsEvent> batch) {
+        for (AnalyticsEvent event : batch) {
+            recordBuffer.clear();
+            try {
+                encode(event, recordBuffer);
+            } catch (BufferOverflowException e) {
+                log.warn("Dropping analytics event of type {} larger than {} bytes",
+                        event.getType().substring(0, Math.min(64, event.getType().length())), MAX_RECORD_BYTES);
+                continue;
+            }
+            recordBuffer.flip();
+            segmentedLog.append(recordBuffer);
+        }
+        if (forceOnFlush) {
+            segmentedLog.flush();
+        }
+    }
+    
+    /**
+     * Decode every retained event in append order
+     * @param consumer Event consumer
+     * @return Number of events replayed
+     */
+    public synchronized long replay(Consumer<AnalyticsEvent> consumer) {
+        return segmentedLog.replay(record -> {
+            AnalyticsEvent event = decode(record);
+            if (event != null) {
+                consumer.accept(event);
+            }
+        });
+    }
+    
+    @PreDestroy
+    public synchronized void close() {
+        segmentedLog.close();
+    }
+    
+    private static void encode(AnalyticsEvent event, ByteBuffer buffer) {
+        int flags = (event.getSessionId() != null ? HAS_SESSION : 0)
+                | (event.getCustomerId() != null ? HAS_CUSTOMER : 0)
+                | (event.getProductId() != null ? HAS_PRODUCT : 0);
+        buffer.put(FORMAT_VERSION);
+        buffer.put((byte) flags);
+        buffer.putLong(event.getOccurredAt().toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(event.getOccurredAt().getNano());
+        putString(buffer, event.getType());
+        if (event.getSessionId() != null) {
+            putString(buffer, event.getSessionId());
+        }
+        if (event.getCustomerId() != null) {
+            buffer.putLong(event.getCustomerId());
+        }
+        if (event.getProductId() != null) {
+            buffer.putLong(event.getProductId());
+        }
+    }
+    
+    private static AnalyticsEvent decode(ByteBuffer record) {
+        if (record.get() != FORMAT_VERSION) {
+            return null;
+        }
+        int flags = record.get();
+        LocalDateTime occurredAt = LocalDateTime.ofEpochSecond(record.getLong(), record.getInt(), ZoneOffset.UTC);
+        String type = getString(record);
+        String sessionId = (flags & HAS_SESSION) != 0 ? getString(record) : null;
+        Long customerId = (flags & HAS_CUSTOMER) != 0 ? record.getLong() : null;
+        Long productId = (flags & HAS_PRODUCT) != 0 ? record.getLong() : null;
+        return new AnalyticsEvent(type, sessionId, customerId, productId, occurredAt);
+    }
+    
+    private static void putString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_RECORD_BYTES) {
+            throw new BufferOverflowException();
+        }
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+    
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
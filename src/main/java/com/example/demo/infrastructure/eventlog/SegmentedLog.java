@@ -0,0 +1,214 @@
+package com.example.demo.infrastructure.eventlog;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Segmented Log
+ * Infrastructure Layer - Append-only record storage
+ * Records are appended to fixed-size memory-mapped segment files named after
+ * their sequence number. Each record is framed as [length][crc32c][payload] and
+ * followed by a zero length marker, so a reader stops at the end of the written
+ * data, and a torn or corrupted tail is detected by its checksum and
+ * overwritten by the next append after reopening. When a record does not fit in
+ * the active segment a new one is started, and the oldest segments beyond the
+ * retention limit are deleted.
+ * Not thread-safe beyond the synchronization of its public methods; intended
+ * for a single writer.
+ */
+public class SegmentedLog implements Closeable {
+    
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int HEADER_BYTES = 8;
+    
+    private final Path directory;
+    private final int segmentBytes;
+    private final int maxSegments;
+    private final List<Long> segmentIds = new ArrayList<>();
+    
+    private FileChannel channel;
+    private MappedByteBuffer active;
+    private long activeId;
+    private boolean dirty;
+    
+    /**
+     * Open (or create) a log in a directory and position at the end of its last valid record
+     * @param directory Directory holding the segment files
+     * @param segmentBytes Size of each segment file
+     * @param maxSegments Number of segments to retain
+     */
+    public SegmentedLog(Path directory, int segmentBytes, int maxSegments) {
+        if (segmentBytes < 1024 || maxSegments < 1) {
+            throw new IllegalArgumentException("Segment size must be at least 1 KiB and at least one segment retained");
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = maxSegments;
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                files.map(path -> path.getFileName().toString())
+                        .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                        .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                        .sorted()
+                        .forEach(segmentIds::add);
+            }
+            if (segmentIds.isEmpty()) {
+                openSegment(0);
+            } else {
+                openSegment(segmentIds.get(segmentIds.size() - 1));
+                active.position(scan(active, null));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open segmented log in " + directory, e);
+        }
+    }
+    
+    /**
+     * Append one record, rolling to a new segment if it does not fit
+     * @param payload Record payload (position to limit)
+     */
+    public synchronized void append(ByteBuffer payload) {
+        int length = payload.remaining();
+        if (length == 0 || HEADER_BYTES + length + Integer.BYTES > segmentBytes) {
+            throw new IllegalArgumentException("Record size " + length + " does not fit in a segment");
+        }
+        if (active.remaining() < HEADER_BYTES + length + Integer.BYTES) {
+            roll();
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(payload.duplicate());
+        int start = active.position();
+        active.position(start + Integer.BYTES);
+        active.putInt((int) crc.getValue());
+        active.put(payload);
+        active.putInt(active.position(), 0);
+        // Length is written last so a record is never visible before its body
+        active.putInt(start, length);
+        dirty = true;
+    }
+    
+    /**
+     * Force appended records to the storage device
+     */
+    public synchronized void flush() {
+        if (dirty) {
+            active.force();
+            dirty = false;
+        }
+    }
+    
+    /**
+     * Read every valid record from the oldest segment to the end of the log
+     * The buffer passed to the consumer is only valid during the call
+     * @param consumer Record consumer
+     * @return Number of records replayed
+     */
+    public synchronized long replay(Consumer<ByteBuffer> consumer) {
+        long records = 0;
+        for (long id : segmentIds) {
+            ByteBuffer segment;
+            if (id == activeId) {
+                segment = active.duplicate();
+            } else {
+                try (FileChannel reader = FileChannel.open(segmentPath(id), StandardOpenOption.READ)) {
+                    segment = reader.map(FileChannel.MapMode.READ_ONLY, 0, reader.size());
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to read log segment " + id, e);
+                }
+            }
+            int[] count = new int[1];
+            scan(segment, record -> {
+                count[0]++;
+                consumer.accept(record);
+            });
+            records += count[0];
+        }
+        return records;
+    }
+    
+    public synchronized int getSegmentCount() {
+        return segmentIds.size();
+    }
+    
+    @Override
+    public synchronized void close() {
+        flush();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to close log segment " + activeId, e);
+        }
+    }
+    
+    private int scan(ByteBuffer segment, Consumer<ByteBuffer> consumer) {
+        int position = 0;
+        int limit = segment.limit();
+        while (position + HEADER_BYTES <= limit) {
+            int length = segment.getInt(position);
+            if (length <= 0 || position + HEADER_BYTES + length > limit) {
+                break;
+            }
+            ByteBuffer record = segment.slice(position + HEADER_BYTES, length);
+            CRC32C crc = new CRC32C();
+            crc.update(record.duplicate());
+            if ((int) crc.getValue() != segment.getInt(position + Integer.BYTES)) {
+                break;
+            }
+            if (consumer != null) {
+                consumer.accept(record.asReadOnlyBuffer());
+            }
+            position += HEADER_BYTES + length;
+        }
+        return position;
+    }
+    
+    private void roll() {
+        flush();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to close log segment " + activeId, e);
+        }
+        openSegment(activeId + 1);
+        while (segmentIds.size() > maxSegments) {
+            long oldest = segmentIds.remove(0);
+            try {
+                Files.deleteIfExists(segmentPath(oldest));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to delete log segment " + oldest, e);
+            }
+        }
+    }
+    
+    private void openSegment(long id) {
+        try {
+            channel = FileChannel.open(segmentPath(id), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            active = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+            activeId = id;
+            if (segmentIds.isEmpty() || segmentIds.get(segmentIds.size() - 1) != id) {
+                segmentIds.add(id);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open log segment " + id, e);
+        }
+    }
+    
+    private Path segmentPath(long id) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.demo.infrastructure.snapshot;
+
+import com.example.demo.application.analytics.snapshot.AnalyticsSnapshot;
+import com.example.demo.application.analytics.snapshot.SnapshotStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.CRC32C;
+
+/**
+ * File Snapshot Store
+ * Infrastructure Layer - Durable snapshot storage
+ * Keeps the latest analytics snapshot in a single binary file:
+ * [magic][format version][checkpoint][order watermark][sections][crc32c].
+ * A new snapshot is written to a temporary file, forced to disk and renamed
+ * over the previous one, so a crash mid-write always leaves a complete file.
+ */
+@Component
+@ConditionalOnProperty(name = "analytics.snapshot.enabled", havingValue = "true", matchIfMissing = true)
+public class FileSnapshotStore implements SnapshotStore {
+    
+    private static final int MAGIC = 0x414E5350;
+    private static final byte FORMAT_VERSION = 1;
+    private static final String FILE_NAME = "analytics.snapshot";
+    
+    private final Path file;
+    
+    public FileSnapshotStore(@Value("${analytics.snapshot.dir:data/snapshots}") String directory) {
+        this.file = Path.of(directory).resolve(FILE_NAME);
+    }
+    
+    @Override
+    public Optional<AnalyticsSnapshot> load() throws IOException {
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        if (bytes.length < Integer.BYTES * 2 + 1) {
+            throw new IOException("Truncated snapshot " + file);
+        }
+        int payloadLength = bytes.length - Integer.BYTES;
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, 0, payloadLength);
+        if ((int) crc.getValue() != ByteBuffer.wrap(bytes, payloadLength, Integer.BYTES).getInt()) {
+            throw new IOException("Checksum mismatch in snapshot " + file);
+        }
+        
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, payloadLength));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not an analytics snapshot: " + file);
+        }
+        byte version = in.readByte();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported snapshot format version " + version);
+        }
+        LocalDateTime checkpointTime = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+        long floorOrderId = in.readLong();
+        long anchorOrderId = in.readLong();
+        long anchorCreatedAtSecond = in.readLong();
+        long[] applied = new long[checkedCount(in.readInt())];
+        for (int i = 0; i < applied.length; i++) {
+            applied[i] = in.readLong();
+        }
+        int sectionCount = checkedCount(in.readInt());
+        Map<String, AnalyticsSnapshot.Section> sections = new LinkedHashMap<>();
+        for (int i = 0; i < sectionCount; i++) {
+            String name = in.readUTF();
+            int sectionVersion = in.readInt();
+            byte[] data = new byte[checkedCount(in.readInt())];
+            in.readFully(data);
+            sections.put(name, new AnalyticsSnapshot.Section(sectionVersion, data));
+        }
+        return Optional.of(new AnalyticsSnapshot(checkpointTime, floorOrderId, applied,
+                anchorOrderId, anchorCreatedAtSecond, sections));
+    }
+    
+    @Override
+    public void save(AnalyticsSnapshot snapshot) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeInt(MAGIC);
+        out.writeByte(FORMAT_VERSION);
+        out.writeLong(snapshot.getCheckpointTime().toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(snapshot.getCheckpointTime().getNano());
+        out.writeLong(snapshot.getFloorOrderId());
+        out.writeLong(snapshot.getAnchorOrderId());
+        out.writeLong(snapshot.getAnchorCreatedAtSecond());
+        long[] applied = snapshot.getAppliedOrderIds();
+        out.writeInt(applied.length);
+        for (long orderId : applied) {
+            out.writeLong(orderId);
+        }
+        out.writeInt(snapshot.getSections().size());
+        for (Map.Entry<String, AnalyticsSnapshot.Section> section : snapshot.getSections().entrySet()) {
+            out.writeUTF(section.getKey());
+            out.writeInt(section.getValue().getVersion());
+            out.writeInt(section.getValue().getData().length);
+            out.write(section.getValue().getData());
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.toByteArray());
+        out.writeInt((int) crc.getValue());
+        out.flush();
+        
+        Files.createDirectories(file.getParent());
+        Path temporary = file.resolveSibling(FILE_NAME + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    private static int checkedCount(int count) throws IOException {
+        if (count < 0) {
+            throw new IOException("Negative length in snapshot");
+        }
+        return count;
+    }
+}
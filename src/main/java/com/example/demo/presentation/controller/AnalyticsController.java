@@ -1,13 +1,32 @@
 package com.example.demo.presentation.controller;
 
+import com.example.demo.application.analytics.AnalyticsResultCache;
+import com.example.demo.application.analytics.ConversionFunnelEngine;
+import com.example.demo.application.analytics.TopProductsTracker;
+import com.example.demo.application.analytics.query.AnalyticsQuery;
+import com.example.demo.application.analytics.query.QueryTooWideException;
+import com.example.demo.application.export.AnalyticsExportService;
+import com.example.demo.application.export.ExportDataset;
+import com.example.demo.application.export.ExportFormat;
 import com.example.demo.application.service.AnalyticsService;
+import com.example.demo.domain.entity.Order;
+import com.example.demo.domain.event.AnalyticsEvent;
+import com.example.demo.presentation.sse.AnalyticsStreamBroadcaster;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 /**
@@ -21,38 +40,61 @@ import java.util.Map;
 public class AnalyticsController {
     
     private final AnalyticsService analyticsService;
+    private final AnalyticsStreamBroadcaster streamBroadcaster;
+    private final AnalyticsExportService analyticsExportService;
+    private final AnalyticsResultCache resultCache;
+    private final long exportTimeoutMs;
     
-    public AnalyticsController(AnalyticsService analyticsService) {
+    public AnalyticsController(AnalyticsService analyticsService, AnalyticsStreamBroadcaster streamBroadcaster,
+                               AnalyticsExportService analyticsExportService, AnalyticsResultCache resultCache,
+                               @Value("${analytics.export.timeout-ms:3600000}") long exportTimeoutMs) {
         this.analyticsService = analyticsService;
+        this.streamBroadcaster = streamBroadcaster;
+        this.analyticsExportService = analyticsExportService;
+        this.resultCache = resultCache;
+        this.exportTimeoutMs = exportTimeoutMs;
     }
     
     /**
-     * Get general analytics data
+     * Run a dimensional analytics query
      * @param startDate Start date
      * @param endDate End date
      * @param category Category filter
-     * @param product Product filter
-     * @return Analytics data
+     * @param product Product ID filter
+     * @param status Order status filter
+     * @param measures Comma-separated measures (revenue, units, orders)
+     * @param dimensions Comma-separated dimensions (day, hour, category, product, status)
+     * @return One row per group, or 400 with the estimated group count when the query is too wide
      */
     @GetMapping
     public ResponseEntity<Map<String, Object>> getAnalytics(
             @RequestParam(required = false) LocalDateTime startDate,
             @RequestParam(required = false) LocalDateTime endDate,
             @RequestParam(required = false) String category,
-            @RequestParam(required = false) String product) {
-        
+            @RequestParam(required = false) Long product,
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "revenue,orders") List<String> measures,
+            @RequestParam(defaultValue = "") List<String> dimensions) {
         try {
-            Map<String, Object> analyticsData = new HashMap<>();
-            
-            // Get real analytics data
-            analyticsData.put("sales", getSalesData());
-            analyticsData.put("products", getProductsData());
-            analyticsData.put("customers", getCustomersData());
-            analyticsData.put("revenue", 125000.50);
-            analyticsData.put("orders", 1250);
-            analyticsData.put("conversionRate", 3.2);
-            
-            return ResponseEntity.ok(analyticsData);
+            // Use default date range if not provided
+            if (startDate == null) {
+                startDate = LocalDateTime.now().minusDays(30);
+            }
+            if (endDate == null) {
+                endDate = LocalDateTime.now();
+            }
+            AnalyticsQuery query = new AnalyticsQuery(startDate, endDate,
+                    measures.stream().filter(name -> !name.isBlank()).map(AnalyticsQuery.Measure::fromName).toList(),
+                    dimensions.stream().filter(name -> !name.isBlank()).map(AnalyticsQuery.Dimension::fromName).toList(),
+                    category, product,
+                    status == null || status.isBlank() ? null : Order.OrderStatus.valueOf(status.trim().toUpperCase(Locale.ROOT)));
+            return ResponseEntity.ok(analyticsService.runQuery(query));
+        } catch (QueryTooWideException e) {
+            Map<String, Object> rejection = new HashMap<>();
+            rejection.put("error", e.getMessage());
+            rejection.put("estimatedGroups", e.getEstimatedGroups());
+            rejection.put("maxGroups", e.getMaxGroups());
+            return ResponseEntity.badRequest().body(rejection);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
@@ -72,12 +114,16 @@ public class AnalyticsController {
      * Get sales analytics
      * @param startDate Start date
      * @param endDate End date
+     * @param explain Whether to include the aggregation plan
+     * @param approx Whether to estimate from the order sample, with confidence intervals
      * @return Sales analytics
      */
     @GetMapping("/sales")
     public ResponseEntity<Map<String, Object>> getSalesAnalytics(
             @RequestParam(required = false) LocalDateTime startDate,
-            @RequestParam(required = false) LocalDateTime endDate) {
+            @RequestParam(required = false) LocalDateTime endDate,
+            @RequestParam(defaultValue = "false") boolean explain,
+            @RequestParam(defaultValue = "false") boolean approx) {
         try {
             // Use default date range if not provided
             if (startDate == null) {
@@ -86,7 +132,14 @@ public class AnalyticsController {
             if (endDate == null) {
                 endDate = LocalDateTime.now();
             }
-            Map<String, Object> salesData = analyticsService.getSalesAnalytics(startDate, endDate);
+            if (approx) {
+                return ResponseEntity.ok(resultCache.get("sales", startDate, endDate, "approx",
+                        analyticsService::getApproximateSalesAnalytics));
+            }
+            // Explained requests always recompute so the plan reflects this call
+            Map<String, Object> salesData = explain
+                    ? analyticsService.getSalesAnalytics(startDate, endDate, true)
+                    : resultCache.get("sales", startDate, endDate, null, analyticsService::getSalesAnalytics);
             return ResponseEntity.ok(salesData);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
@@ -116,23 +169,49 @@ public class AnalyticsController {
             if (endDate == null) {
                 endDate = LocalDateTime.now();
             }
-            Map<String, Object> productData = analyticsService.getProductAnalytics(productId, startDate, endDate);
+            Long id = productId;
+            Map<String, Object> productData = resultCache.get("products", startDate, endDate, id,
+                    (start, end) -> analyticsService.getProductAnalytics(id, start, end));
             return ResponseEntity.ok(productData);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
     
+    /**
+     * Get the best-selling products
+     * @param metric Ranking measure: units or revenue
+     * @param hours Window in hours including the current hour, 0 for all time
+     * @param category Optional category filter
+     * @param limit Maximum number of products
+     * @return Ranked products
+     */
+    @GetMapping("/products/top")
+    public ResponseEntity<Map<String, Object>> getTopProducts(
+            @RequestParam(defaultValue = "units") String metric,
+            @RequestParam(defaultValue = "24") int hours,
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            TopProductsTracker.Metric rankBy = TopProductsTracker.Metric.valueOf(metric.trim().toUpperCase(Locale.ROOT));
+            return ResponseEntity.ok(analyticsService.getTopProducts(rankBy, hours, category, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
     /**
      * Get customer analytics
      * @param startDate Start date
      * @param endDate End date
+     * @param approx Whether to estimate new customers from the order sample, with confidence intervals
      * @return Customer analytics
      */
     @GetMapping("/customers")
     public ResponseEntity<Map<String, Object>> getCustomerAnalytics(
             @RequestParam(required = false) LocalDateTime startDate,
-            @RequestParam(required = false) LocalDateTime endDate) {
+            @RequestParam(required = false) LocalDateTime endDate,
+            @RequestParam(defaultValue = "false") boolean approx) {
         try {
             // Use default date range if not provided
             if (startDate == null) {
@@ -141,23 +220,93 @@ public class AnalyticsController {
             if (endDate == null) {
                 endDate = LocalDateTime.now();
             }
-            Map<String, Object> customerData = analyticsService.getCustomerAnalytics(startDate, endDate);
+            Map<String, Object> customerData = approx
+                    ? resultCache.get("customers", startDate, endDate, "approx", analyticsService::getApproximateCustomerAnalytics)
+                    : resultCache.get("customers", startDate, endDate, null, analyticsService::getCustomerAnalytics);
             return ResponseEntity.ok(customerData);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
     
+    /**
+     * Get the cohort retention and lifetime value matrix
+     * @param months Number of most recent monthly cohorts
+     * @return Cohort analytics
+     */
+    @GetMapping("/customers/cohorts")
+    public ResponseEntity<Map<String, Object>> getCohortAnalytics(
+            @RequestParam(defaultValue = "12") int months) {
+        try {
+            return ResponseEntity.ok(analyticsService.getCohortAnalytics(months));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * Get daily, weekly and monthly active users
+     * @param date Last day of the windows, today if omitted
+     * @param startDate First day of an optional custom range
+     * @param endDate Last day of an optional custom range
+     * @return Active user counts
+     */
+    @GetMapping("/active-users")
+    public ResponseEntity<Map<String, Object>> getActiveUsers(
+            @RequestParam(required = false) LocalDate date,
+            @RequestParam(required = false) LocalDate startDate,
+            @RequestParam(required = false) LocalDate endDate) {
+        try {
+            return ResponseEntity.ok(analyticsService.getActiveUserAnalytics(
+                    date != null ? date : LocalDate.now(), startDate, endDate));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * Get a conversion funnel
+     * @param steps Comma-separated steps, in the order view, add_to_cart, checkout, order
+     * @param startDate Start date
+     * @param endDate End date
+     * @return Sessions reaching each step and the conversion between steps
+     */
+    @GetMapping("/funnel")
+    public ResponseEntity<Map<String, Object>> getFunnelAnalytics(
+            @RequestParam(defaultValue = "view,add_to_cart,checkout,order") List<String> steps,
+            @RequestParam(required = false) LocalDateTime startDate,
+            @RequestParam(required = false) LocalDateTime endDate) {
+        try {
+            // Use default date range if not provided
+            if (startDate == null) {
+                startDate = LocalDateTime.now().minusDays(30);
+            }
+            if (endDate == null) {
+                endDate = LocalDateTime.now();
+            }
+            List<ConversionFunnelEngine.Step> funnelSteps = steps.stream()
+                    .map(ConversionFunnelEngine.Step::fromName)
+                    .toList();
+            return ResponseEntity.ok(analyticsService.getFunnelAnalytics(funnelSteps, startDate, endDate));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
     /**
      * Get revenue analytics
      * @param startDate Start date
      * @param endDate End date
+     * @param explain Whether to include the aggregation plan
+     * @param approx Whether to estimate from the order sample, with confidence intervals
      * @return Revenue analytics
      */
     @GetMapping("/revenue")
     public ResponseEntity<Map<String, Object>> getRevenueAnalytics(
             @RequestParam(required = false) LocalDateTime startDate,
-            @RequestParam(required = false) LocalDateTime endDate) {
+            @RequestParam(required = false) LocalDateTime endDate,
+            @RequestParam(defaultValue = "false") boolean explain,
+            @RequestParam(defaultValue = "false") boolean approx) {
         try {
             // Use default date range if not provided
             if (startDate == null) {
@@ -166,13 +315,43 @@ public class AnalyticsController {
             if (endDate == null) {
                 endDate = LocalDateTime.now();
             }
-            Map<String, Object> revenueData = analyticsService.getRevenueAnalytics(startDate, endDate);
+            if (approx) {
+                return ResponseEntity.ok(resultCache.get("revenue", startDate, endDate, "approx",
+                        analyticsService::getApproximateRevenueAnalytics));
+            }
+            Map<String, Object> revenueData = explain
+                    ? analyticsService.getRevenueAnalytics(startDate, endDate, true)
+                    : resultCache.get("revenue", startDate, endDate, null, analyticsService::getRevenueAnalytics);
             return ResponseEntity.ok(revenueData);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
     
+    /**
+     * Get order value, basket size and fulfilment time percentiles
+     * @param startDate Start date
+     * @param endDate End date
+     * @return Distribution analytics
+     */
+    @GetMapping("/distributions")
+    public ResponseEntity<Map<String, Object>> getDistributions(
+            @RequestParam(required = false) LocalDateTime startDate,
+            @RequestParam(required = false) LocalDateTime endDate) {
+        try {
+            // Use default date range if not provided
+            if (startDate == null) {
+                startDate = LocalDateTime.now().minusDays(30);
+            }
+            if (endDate == null) {
+                endDate = LocalDateTime.now();
+            }
+            return ResponseEntity.ok(analyticsService.getDistributions(startDate, endDate));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
     /**
      * Get real-time analytics data
      * @return Real-time analytics
@@ -183,6 +362,19 @@ public class AnalyticsController {
         return ResponseEntity.ok(realTimeData);
     }
     
+    /**
+     * Subscribe to real-time analytics pushed as Server-Sent Events
+     * @return Event stream, or 503 when the subscriber limit is reached
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamRealTimeData() {
+        try {
+            return ResponseEntity.ok(streamBroadcaster.subscribe());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+    
     /**
      * Get order statistics
      * @return Order statistics
@@ -192,10 +384,29 @@ public class AnalyticsController {
         Map<String, Object> orderStats = analyticsService.getOrderStatistics();
         return ResponseEntity.ok(orderStats);
     }
+    
+    /**
+     * Track an analytics event
+     * @param eventData Event payload (event type, session ID and data)
+     * @return Tracking result, or 429 when the ingestion queue is full
+     */
     @PostMapping("/events")
     public ResponseEntity<Map<String, String>> trackEvent(@RequestBody Map<String, Object> eventData) {
-        // In a real implementation, this would save the event to a database
-        // or send it to an analytics service
+        boolean accepted;
+        try {
+            accepted = analyticsService.trackEvent(AnalyticsEvent.fromPayload(eventData));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        if (!accepted) {
+            Map<String, String> response = new HashMap<>();
+            response.put("status", "rejected");
+            response.put("message", "Event queue is full, retry later");
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(response);
+        }
         
         Map<String, String> response = new HashMap<>();
         response.put("status", "success");
@@ -206,75 +417,44 @@ public class AnalyticsController {
     
     /**
      * Export analytics data
-     * @param format Export format (csv, pdf)
+     * The file is streamed from a database cursor while it is written, so exports
+     * of any size start immediately and run in constant memory. Exports run as an
+     * async task with their own timeout instead of the shorter MVC default
+     * @param format Export format (csv, ndjson)
+     * @param dataset Dataset to export (orders, items, daily)
      * @param startDate Start date
      * @param endDate End date
-     * @return Export file
+     * @param gzip Whether to gzip the file
+     * @param response HTTP response the file is written to
+     * @return Export task, or null with status 400 when a parameter is invalid
      */
     @GetMapping("/export")
-    public ResponseEntity<byte[]> exportData(
+    public WebAsyncTask<Void> exportData(
             @RequestParam String format,
+            @RequestParam(defaultValue = "orders") String dataset,
             @RequestParam LocalDateTime startDate,
-            @RequestParam LocalDateTime endDate) {
+            @RequestParam LocalDateTime endDate,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletResponse response) {
+        ExportFormat exportFormat;
+        ExportDataset exportDataset;
+        try {
+            exportFormat = ExportFormat.parse(format);
+            exportDataset = ExportDataset.parse(dataset);
+            analyticsExportService.validateRange(startDate, endDate);
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            return null;
+        }
         
-        // In a real implementation, this would generate and return the actual file
-        byte[] exportData = generateExportData(format, startDate, endDate);
+        String filename = "analytics_" + exportDataset.name().toLowerCase(Locale.ROOT) + "." + exportFormat.getExtension()
+                + (gzip ? ".gz" : "");
+        response.setHeader(HttpHeaders.CONTENT_TYPE, gzip ? "application/gzip" : exportFormat.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename);
         
-        return ResponseEntity.ok()
-                .header("Content-Type", getContentType(format))
-                .header("Content-Disposition", "attachment; filename=analytics_data." + format)
-                .body(exportData);
-    }
-    
-    
-    private byte[] generateExportData(String format, LocalDateTime startDate, LocalDateTime endDate) {
-        // Mock implementation - in reality, this would generate actual CSV/PDF data
-        String mockData = "Date,Sales,Revenue\n2024-01-01,100,5000.00\n2024-01-02,150,7500.00";
-        return mockData.getBytes();
-    }
-    
-    private String getContentType(String format) {
-        return switch (format.toLowerCase()) {
-            case "csv" -> "text/csv";
-            case "pdf" -> "application/pdf";
-            default -> "application/octet-stream";
-        };
-    }
-    
-    // Helper methods for analytics data
-    private List<Map<String, Object>> getSalesData() {
-        List<Map<String, Object>> salesData = new ArrayList<>();
-        for (int i = 0; i < 7; i++) {
-            Map<String, Object> dayData = new HashMap<>();
-            dayData.put("date", LocalDateTime.now().minusDays(i).toString());
-            dayData.put("amount", 1000 + (i * 100));
-            dayData.put("revenue", 5000 + (i * 500));
-            dayData.put("customers", 10 + i);
-            salesData.add(dayData);
-        }
-        return salesData;
-    }
-    
-    private List<Map<String, Object>> getProductsData() {
-        List<Map<String, Object>> productsData = new ArrayList<>();
-        String[] productNames = {"Laptop Pro", "Smartphone X", "Tablet Air", "Running Shoes", "Programming Book"};
-        for (int i = 0; i < productNames.length; i++) {
-            Map<String, Object> productData = new HashMap<>();
-            productData.put("name", productNames[i]);
-            productData.put("sales", 100 + (i * 20));
-            productsData.add(productData);
-        }
-        return productsData;
-    }
-    
-    private List<Map<String, Object>> getCustomersData() {
-        List<Map<String, Object>> customersData = new ArrayList<>();
-        for (int i = 0; i < 7; i++) {
-            Map<String, Object> dayData = new HashMap<>();
-            dayData.put("date", LocalDateTime.now().minusDays(i).toString());
-            dayData.put("count", 5 + i);
-            customersData.add(dayData);
-        }
-        return customersData;
+        return new WebAsyncTask<>(exportTimeoutMs, () -> {
+            analyticsExportService.export(exportDataset, exportFormat, startDate, endDate, gzip, response.getOutputStream());
+            return null;
+        });
     }
 }
@@ -114,7 +114,7 @@ public class OrderController {
             // Calculate total amount
             order.calculateTotalAmount();
             
-            Order savedOrder = orderRepository.save(order);
+            Order savedOrder = orderService.placeOrder(order);
             return ResponseEntity.status(HttpStatus.CREATED).body(savedOrder);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
@@ -142,14 +142,8 @@ public class OrderController {
                     order = orderService.deliverOrder(id);
                     break;
                 default:
-                    // For other statuses, use direct repository access
-                    Optional<Order> orderOpt = orderRepository.findById(id);
-                    if (orderOpt.isEmpty()) {
-                        return ResponseEntity.notFound().build();
-                    }
-                    order = orderOpt.get();
-                    order.setStatus(status);
-                    order = orderRepository.save(order);
+                    // For other statuses, set the status directly
+                    order = orderService.changeStatus(id, status);
                     break;
             }
             return ResponseEntity.ok(order);
@@ -0,0 +1,220 @@
+package com.example.demo.presentation.sse;
+
+import com.example.demo.application.service.AnalyticsService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Analytics Stream Broadcaster
+ * Presentation Layer - Server-Sent Events
+ * Computes one real-time snapshot per tick, serializes it once and fans the same
+ * payload out to every subscriber. Unchanged snapshots are coalesced into a
+ * heartbeat, and each subscriber has a small bounded buffer drained by a shared
+ * sender pool: a slow client only ever loses its own oldest frames, and a client
+ * that keeps overflowing is disconnected so it cannot hold resources forever.
+ */
+@Component
+public class AnalyticsStreamBroadcaster {
+    
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsStreamBroadcaster.class);
+    private static final String EVENT_NAME = "realtime";
+    private static final String HEARTBEAT = "";
+    
+    private final AnalyticsService analyticsService;
+    private final ObjectMapper objectMapper;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders;
+    private final long emitterTimeoutMs;
+    private final int maxSubscribers;
+    private final int bufferSize;
+    private final int maxDroppedFrames;
+    private final int heartbeatTicks;
+    
+    private volatile String lastPayload;
+    private int ticksSinceSend;
+    
+    public AnalyticsStreamBroadcaster(AnalyticsService analyticsService, ObjectMapper objectMapper,
+                                      @Value("${analytics.stream.sender-threads:4}") int senderThreads,
+                                      @Value("${analytics.stream.emitter-timeout-ms:1800000}") long emitterTimeoutMs,
+                                      @Value("${analytics.stream.max-subscribers:1000}") int maxSubscribers,
+                                      @Value("${analytics.stream.buffer-size:4}") int bufferSize,
+                                      @Value("${analytics.stream.max-dropped-frames:32}") int maxDroppedFrames,
+                                      @Value("${analytics.stream.heartbeat-ticks:10}") int heartbeatTicks) {
+        this.analyticsService = analyticsService;
+        this.objectMapper = objectMapper;
+        this.senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "analytics-sse-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.maxSubscribers = maxSubscribers;
+        this.bufferSize = bufferSize;
+        this.maxDroppedFrames = maxDroppedFrames;
+        this.heartbeatTicks = heartbeatTicks;
+    }
+    
+    /**
+     * Register a new subscriber and send it the latest snapshot immediately
+     * @return Emitter for the HTTP response
+     * @throws IllegalStateException if the subscriber limit has been reached
+     */
+    public SseEmitter subscribe() {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new IllegalStateException("Too many analytics stream subscribers");
+        }
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        
+        String payload = lastPayload;
+        if (payload == null) {
+            payload = snapshot();
+        }
+        if (payload != null) {
+            offer(subscriber, payload);
+        }
+        return emitter;
+    }
+    
+    /**
+     * Compute one snapshot and fan it out; skipped entirely when nobody is listening
+     */
+    @Scheduled(fixedDelayString = "${analytics.stream.interval-ms:2000}")
+    public void tick() {
+        if (subscribers.isEmpty()) {
+            lastPayload = null;
+            return;
+        }
+        String payload = snapshot();
+        if (payload == null) {
+            return;
+        }
+        if (payload.equals(lastPayload)) {
+            // Nothing changed: coalesce into an occasional heartbeat to keep proxies from closing the stream
+            if (++ticksSinceSend >= heartbeatTicks) {
+                ticksSinceSend = 0;
+                broadcast(HEARTBEAT);
+            }
+            return;
+        }
+        lastPayload = payload;
+        ticksSinceSend = 0;
+        broadcast(payload);
+    }
+    
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        senders.shutdownNow();
+    }
+    
+    private String snapshot() {
+        try {
+            Map<String, Object> realTimeData = analyticsService.getRealTimeData();
+            return objectMapper.writeValueAsString(realTimeData);
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Failed to compute analytics stream snapshot", e);
+            return null;
+        }
+    }
+    
+    private void broadcast(String frame) {
+        for (Subscriber subscriber : subscribers) {
+            offer(subscriber, frame);
+        }
+    }
+    
+    private void offer(Subscriber subscriber, String frame) {
+        boolean overflowing;
+        synchronized (subscriber.buffer) {
+            overflowing = subscriber.buffer.size() >= bufferSize;
+            if (overflowing) {
+                // Drop the oldest frame; the newest snapshot supersedes it anyway
+                subscriber.buffer.pollFirst();
+                subscriber.droppedFrames++;
+            } else {
+                subscriber.droppedFrames = 0;
+            }
+            subscriber.buffer.addLast(frame);
+        }
+        if (overflowing && subscriber.droppedFrames > maxDroppedFrames) {
+            disconnect(subscriber, "slow consumer");
+            return;
+        }
+        if (subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+    
+    private void drain(Subscriber subscriber) {
+        while (true) {
+            String frame;
+            synchronized (subscriber.buffer) {
+                frame = subscriber.buffer.pollFirst();
+                if (frame == null) {
+                    subscriber.draining.set(false);
+                    return;
+                }
+            }
+            try {
+                subscriber.emitter.send(toEvent(frame));
+            } catch (IOException | IllegalStateException e) {
+                disconnect(subscriber, "send failed");
+                subscriber.draining.set(false);
+                return;
+            }
+        }
+    }
+    
+    private static SseEmitter.SseEventBuilder toEvent(String frame) {
+        // Event builders are single-use, so each subscriber gets its own around the shared payload
+        if (frame.isEmpty()) {
+            return SseEmitter.event().comment("heartbeat");
+        }
+        return SseEmitter.event().name(EVENT_NAME).data(frame);
+    }
+    
+    private void disconnect(Subscriber subscriber, String reason) {
+        if (subscribers.remove(subscriber)) {
+            log.debug("Closing analytics stream subscriber: {}", reason);
+            subscriber.emitter.complete();
+        }
+    }
+    
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        final ArrayDeque<String> buffer = new ArrayDeque<>();
+        final AtomicBoolean draining = new AtomicBoolean();
+        int droppedFrames;
+        
+        Subscriber(SseEmitter emitter) {
+            this.emitter = Objects.requireNonNull(emitter);
+        }
+    }
+}
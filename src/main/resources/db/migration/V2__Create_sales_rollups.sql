@@ -0,0 +1,25 @@
+-- Database migration for sales analytics rollups
+-- Pre-aggregated order count, revenue and distinct-customer sketch per time bucket
+
+-- Hourly rollups (bucket = epoch hour)
+CREATE TABLE IF NOT EXISTS sales_rollup_hourly (
+    bucket BIGINT PRIMARY KEY,
+    bucket_start TIMESTAMP NOT NULL,
+    order_count BIGINT NOT NULL DEFAULT 0,
+    revenue DECIMAL(19,2) NOT NULL DEFAULT 0,
+    customer_sketch VARBINARY(4096) NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Daily rollups (bucket = epoch day)
+CREATE TABLE IF NOT EXISTS sales_rollup_daily (
+    bucket BIGINT PRIMARY KEY,
+    bucket_start TIMESTAMP NOT NULL,
+    order_count BIGINT NOT NULL DEFAULT 0,
+    revenue DECIMAL(19,2) NOT NULL DEFAULT 0,
+    customer_sketch VARBINARY(4096) NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Range scans on orders by creation time
+CREATE INDEX IF NOT EXISTS idx_orders_created_at ON orders(created_at);
@@ -37,6 +37,11 @@ angular.module('ecommerceApp')
         product: ''
     };
     
+    $scope.filterOptions = {
+        categories: [],
+        products: []
+    };
+    
     $scope.realTimeData = {
         activeUsers: 0,
         currentSales: 0,
@@ -49,18 +54,35 @@ angular.module('ecommerceApp')
     
     // Initialize controller
     $scope.init = function() {
+        $scope.loadFilterOptions();
         $scope.loadAnalytics();
         $scope.setupRealTimeUpdates();
         $scope.startAutoRefresh();
     };
     
+    // Load the categories and products offered as filters
+    $scope.loadFilterOptions = function() {
+        ProductService.getCategories().then(function(categories) {
+            $scope.filterOptions.categories = categories || [];
+        });
+        ProductService.getProducts({ size: 100 }).then(function(page) {
+            $scope.filterOptions.products = (page && page.content) || [];
+        });
+    };
+    
     // Load analytics data
     $scope.loadAnalytics = function() {
         $scope.loading = true;
         
+        // The date inputs pick whole days, so the range runs from the start of the first to the end of the last
+        var start = new Date($scope.filters.dateRange.start);
+        start.setHours(0, 0, 0, 0);
+        var end = new Date($scope.filters.dateRange.end);
+        end.setHours(23, 59, 59, 0);
+        
         var params = {
-            startDate: $scope.filters.dateRange.start,
-            endDate: $scope.filters.dateRange.end,
+            startDate: start,
+            endDate: end,
             category: $scope.filters.category,
             product: $scope.filters.product
         };
@@ -105,7 +127,8 @@ angular.module('ecommerceApp')
             type: 'line',
             data: {
                 labels: $scope.analytics.sales.map(function(item) {
-                    return new Date(item.date).toLocaleDateString();
+                    // Days are calendar dates; parse them as local midnight so the label keeps the same day
+                    return new Date(item.date + 'T00:00:00').toLocaleDateString();
                 }),
                 datasets: [{
                     label: 'Sales',
@@ -224,7 +247,7 @@ angular.module('ecommerceApp')
     // Customer Chart - Area Chart
     $scope.updateCustomerChart = function() {
         var ctx = document.getElementById('customerChart');
-        if (!ctx) return;
+        if (!ctx || !$scope.analytics || !$scope.analytics.customers) return;
         
         if ($scope.charts.customerChart) {
             $scope.charts.customerChart.destroy();
@@ -233,11 +256,12 @@ angular.module('ecommerceApp')
         $scope.charts.customerChart = new Chart(ctx, {
             type: 'line',
             data: {
+                // One point per monthly cohort of first-time customers
                 labels: $scope.analytics.customers.map(function(item) {
-                    return new Date(item.date).toLocaleDateString();
+                    return item.date;
                 }),
                 datasets: [{
-                    label: 'New Customers',
+                    label: 'New Customers per Month',
                     data: $scope.analytics.customers.map(function(item) {
                         return item.count;
                     }),
@@ -316,9 +340,9 @@ angular.module('ecommerceApp')
     };
     
     $scope.exportToCSV = function() {
-        var csvContent = "Date,Sales,Revenue,Customers\n";
-        $scope.analytics.sales.forEach(function(item) {
-            csvContent += item.date + "," + item.amount + "," + item.revenue + "," + item.customers + "\n";
+        var csvContent = "Date,Orders,Revenue\n";
+        ($scope.analytics.sales || []).forEach(function(item) {
+            csvContent += item.date + "," + item.orders + "," + item.revenue + "\n";
         });
         
         var blob = new Blob([csvContent], { type: 'text/csv' });
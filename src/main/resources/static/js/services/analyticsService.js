@@ -2,7 +2,7 @@
  * Analytics Service
  * Demonstrates Angular.js advanced service features:
  * - Real-time data streaming
- * - WebSocket communication
+ * - Server-Sent Events streaming
  * - Data aggregation
  * - Performance monitoring
  * - Caching strategies
@@ -14,7 +14,30 @@ angular.module('ecommerceApp')
     var self = this;
     var realTimeData = {};
     var metricsInterval = null;
+    var eventSource = null;
+    var streamFailures = 0;
+    var sessionId = null;
     
+    // Per-tab session identifier used by the server to count active sessions
+    this.getSessionId = function() {
+        if (sessionId) {
+            return sessionId;
+        }
+        try {
+            sessionId = window.sessionStorage.getItem('analyticsSessionId');
+        } catch (e) {
+            sessionId = null;
+        }
+        if (!sessionId) {
+            sessionId = Date.now().toString(36) + '-' + Math.random().toString(36).substring(2, 10);
+            try {
+                window.sessionStorage.setItem('analyticsSessionId', sessionId);
+            } catch (e) {
+                // Storage unavailable; keep the id in memory for this page
+            }
+        }
+        return sessionId;
+    };
     
     // Initialize analytics service
     this.initialize = function() {
@@ -23,7 +46,59 @@ angular.module('ecommerceApp')
     };
     
     // Start collecting real-time metrics
+    // Prefers the server-pushed event stream; falls back to polling when unavailable
     this.startMetricsCollection = function() {
+        if (window.EventSource) {
+            this.openMetricsStream();
+        } else {
+            this.startMetricsPolling();
+        }
+    };
+    
+    // Subscribe to the Server-Sent Events stream
+    this.openMetricsStream = function() {
+        if (eventSource) {
+            return;
+        }
+        eventSource = new EventSource('/api/v1/analytics/stream');
+        
+        eventSource.addEventListener('realtime', function(event) {
+            streamFailures = 0;
+            try {
+                var data = JSON.parse(event.data);
+                $rootScope.$applyAsync(function() {
+                    realTimeData = data;
+                    $rootScope.$broadcast('metrics:updated', realTimeData);
+                });
+            } catch (error) {
+                console.error('Error parsing real-time metrics:', error);
+            }
+        });
+        
+        eventSource.onerror = function() {
+            // EventSource reconnects on its own; give up after repeated failures
+            streamFailures++;
+            if (streamFailures >= 3) {
+                console.warn('Real-time stream unavailable, falling back to polling');
+                self.closeMetricsStream();
+                self.startMetricsPolling();
+            }
+        };
+    };
+    
+    // Close the Server-Sent Events stream
+    this.closeMetricsStream = function() {
+        if (eventSource) {
+            eventSource.close();
+            eventSource = null;
+        }
+    };
+    
+    // Poll the real-time endpoint
+    this.startMetricsPolling = function() {
+        if (metricsInterval) {
+            return;
+        }
         metricsInterval = $interval(function() {
             self.collectRealTimeMetrics();
         }, 5000); // Collect every 5 seconds
@@ -31,6 +106,7 @@ angular.module('ecommerceApp')
     
     // Stop metrics collection
     this.stopMetricsCollection = function() {
+        this.closeMetricsStream();
         if (metricsInterval) {
             $interval.cancel(metricsInterval);
             metricsInterval = null;
@@ -61,8 +137,17 @@ angular.module('ecommerceApp')
         });
     };
     
-    // Get analytics data with filters
-    this.getAnalytics = function(params) {
+    // Format a date as a zone-less ISO date-time, the form the API's LocalDateTime parameters accept
+    this.formatDateTime = function(date) {
+        function pad(value) {
+            return (value < 10 ? '0' : '') + value;
+        }
+        return date.getFullYear() + '-' + pad(date.getMonth() + 1) + '-' + pad(date.getDate()) +
+            'T' + pad(date.getHours()) + ':' + pad(date.getMinutes()) + ':' + pad(date.getSeconds());
+    };
+    
+    // Run a dimensional analytics query
+    this.query = function(params) {
         var config = {
             method: 'GET',
             url: '/api/v1/analytics',
@@ -72,6 +157,58 @@ angular.module('ecommerceApp')
         
         return $http(config).then(function(response) {
             return response.data;
+        });
+    };
+    
+    // Get analytics data with filters
+    // Builds the page model from daily and per-product queries, the cohort matrix and the view-to-order funnel
+    this.getAnalytics = function(params) {
+        var range = {
+            startDate: self.formatDateTime(params.startDate),
+            endDate: self.formatDateTime(params.endDate)
+        };
+        var filters = angular.extend({
+            category: params.category || undefined,
+            product: params.product || undefined
+        }, range);
+        
+        return $q.all({
+            daily: self.query(angular.extend({ measures: 'revenue,orders', dimensions: 'day' }, filters)),
+            products: self.query(angular.extend({ measures: 'units,revenue', dimensions: 'product' }, filters)),
+            cohorts: $http.get('/api/v1/analytics/customers/cohorts', { params: { months: 12 } }),
+            funnel: $http.get('/api/v1/analytics/funnel', { params: angular.extend({ steps: 'view,order' }, range) })
+        }).then(function(results) {
+            var sales = results.daily.rows.map(function(row) {
+                return {
+                    date: row.day,
+                    amount: row.revenue,
+                    revenue: row.revenue,
+                    orders: row.orders
+                };
+            });
+            var products = results.products.rows.slice().sort(function(a, b) {
+                return b.revenue - a.revenue;
+            }).slice(0, 5).map(function(row) {
+                return {
+                    name: row.productName,
+                    sales: row.units,
+                    revenue: row.revenue
+                };
+            });
+            var customers = results.cohorts.data.cohorts.map(function(row) {
+                return {
+                    date: row.cohort,
+                    count: row.customers
+                };
+            });
+            return {
+                sales: sales,
+                products: products,
+                customers: customers,
+                revenue: sales.reduce(function(total, day) { return total + day.revenue; }, 0),
+                orders: sales.reduce(function(total, day) { return total + day.orders; }, 0),
+                conversionRate: results.funnel.data.conversionRate
+            };
         }).catch(function(error) {
             console.error('Error loading analytics:', error);
             // Return default data structure to prevent UI errors
@@ -178,6 +315,7 @@ angular.module('ecommerceApp')
             url: '/api/v1/analytics/events',
             data: {
                 event: eventName,
+                sessionId: self.getSessionId(),
                 data: eventData,
                 timestamp: new Date(),
                 userAgent: navigator.userAgent,
@@ -232,7 +370,7 @@ angular.module('ecommerceApp')
     // Performance monitoring
     this.getPerformanceMetrics = function() {
         return {
-            realTimeConnections: 0,
+            realTimeConnections: eventSource ? 1 : 0,
             dataPointsCollected: Object.keys(realTimeData).length,
             averageResponseTime: 200, // Mock value
             errorRate: 0.02 // Mock value
@@ -0,0 +1,153 @@
+package com.example.demo.application.analytics;
+
+import com.example.demo.application.analytics.ConversionFunnelEngine.Step;
+import com.example.demo.domain.event.AnalyticsEvent;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ConversionFunnelEngineTest {
+
+	private static final LocalDateTime BASE = LocalDateTime.of(2024, 3, 1, 10, 0);
+
+	private static AnalyticsEvent event(String type, String sessionId, Long customerId, LocalDateTime at) {
+		return new AnalyticsEvent(type, sessionId, customerId, 1L, at);
+	}
+
+	private static List<Long> sessions(ConversionFunnelEngine engine, Step... steps) {
+		return engine.funnel(List.of(steps), BASE.minusDays(1), BASE.plusDays(1)).getSteps().stream()
+				.map(ConversionFunnelEngine.StepCount::getSessions)
+				.toList();
+	}
+
+	private static List<List<Long>> allFunnels(ConversionFunnelEngine engine) {
+		List<List<Long>> funnels = new ArrayList<>();
+		for (int mask = 1; mask < 1 << Step.values().length; mask++) {
+			List<Step> steps = new ArrayList<>();
+			for (Step step : Step.values()) {
+				if ((mask & 1 << step.ordinal()) != 0) {
+					steps.add(step);
+				}
+			}
+			funnels.add(sessions(engine, steps.toArray(Step[]::new)));
+		}
+		return funnels;
+	}
+
+	private static List<AnalyticsEvent> journey() {
+		return List.of(
+				event(AnalyticsEvent.PRODUCT_VIEWED, "a", 1L, BASE),
+				event(AnalyticsEvent.PRODUCT_ADDED_TO_CART, "a", 1L, BASE.plusMinutes(1)),
+				event(AnalyticsEvent.PRODUCT_VIEWED, "b", 2L, BASE));
+	}
+
+	@Test
+	void countsEachSessionOncePerStepInOrder() {
+		ConversionFunnelEngine engine = new ConversionFunnelEngine(null, null, 100, 30);
+		engine.accept(List.of(
+				event(AnalyticsEvent.PRODUCT_VIEWED, "a", 1L, BASE),
+				event(AnalyticsEvent.PRODUCT_VIEWED, "a", 1L, BASE.plusMinutes(1)),
+				event(AnalyticsEvent.PRODUCT_ADDED_TO_CART, "a", null, BASE.plusMinutes(2)),
+				event(AnalyticsEvent.PRODUCT_VIEWED, "b", 2L, BASE),
+				// Cart before any view does not advance the view-first funnels
+				event(AnalyticsEvent.PRODUCT_ADDED_TO_CART, "c", null, BASE),
+				event(AnalyticsEvent.PRODUCT_VIEWED, "c", null, BASE.plusMinutes(1))));
+		engine.recordOrder(1L, BASE.plusMinutes(5));
+
+		assertEquals(List.of(3L, 1L, 1L), sessions(engine, Step.VIEW, Step.ADD_TO_CART, Step.ORDER));
+		assertEquals(List.of(2L, 1L), sessions(engine, Step.ADD_TO_CART, Step.ORDER));
+		assertEquals(List.of(3L, 0L), sessions(engine, Step.VIEW, Step.CHECKOUT));
+		assertEquals(33.3, engine.funnel(List.of(Step.VIEW, Step.ORDER), BASE, BASE.plusHours(1)).getConversionRate());
+	}
+
+	@Test
+	void idleSessionsStartOver() {
+		ConversionFunnelEngine engine = new ConversionFunnelEngine(null, null, 100, 30);
+		engine.accept(List.of(
+				event(AnalyticsEvent.PRODUCT_VIEWED, "a", null, BASE),
+				event(AnalyticsEvent.PRODUCT_VIEWED, "a", null, BASE.plusMinutes(20)),
+				event(AnalyticsEvent.PRODUCT_VIEWED, "a", null, BASE.plusMinutes(90))));
+
+		assertEquals(List.of(2L), sessions(engine, Step.VIEW));
+		assertEquals(1, engine.getActiveSessionCount());
+	}
+
+	@Test
+	void boundsTheSessionMap() {
+		ConversionFunnelEngine engine = new ConversionFunnelEngine(null, null, 2, 30);
+		engine.accept(List.of(
+				event(AnalyticsEvent.PRODUCT_VIEWED, "a", null, BASE),
+				event(AnalyticsEvent.PRODUCT_VIEWED, "b", null, BASE),
+				event(AnalyticsEvent.PRODUCT_VIEWED, "c", null, BASE)));
+
+		assertEquals(2, engine.getActiveSessionCount());
+		assertEquals(List.of(3L), sessions(engine, Step.VIEW));
+	}
+
+	@Test
+	void rejectsStepsOutOfOrder() {
+		ConversionFunnelEngine engine = new ConversionFunnelEngine(null, null, 100, 30);
+		assertThrows(IllegalArgumentException.class,
+				() -> engine.funnel(List.of(Step.ORDER, Step.VIEW), BASE, BASE.plusDays(1)));
+		assertThrows(IllegalArgumentException.class,
+				() -> engine.funnel(List.of(Step.VIEW, Step.VIEW), BASE, BASE.plusDays(1)));
+		assertThrows(IllegalArgumentException.class, () -> Step.fromName("click"));
+	}
+
+	@Test
+	void ignoresStepsOlderThanTheSessionsLatest() {
+		ConversionFunnelEngine engine = new ConversionFunnelEngine(null, null, 100, 30);
+		engine.accept(List.of(
+				event(AnalyticsEvent.PRODUCT_VIEWED, "a", 1L, BASE.plusMinutes(5)),
+				event(AnalyticsEvent.PRODUCT_ADDED_TO_CART, "a", 1L, BASE.plusMinutes(1))));
+		engine.recordOrder(1L, BASE);
+
+		assertEquals(List.of(1L, 0L), sessions(engine, Step.VIEW, Step.ADD_TO_CART));
+		assertEquals(List.of(1L, 0L), sessions(engine, Step.VIEW, Step.ORDER));
+		assertEquals(List.of(0L), sessions(engine, Step.ORDER));
+	}
+
+	@Test
+	void restoredOrdersDoNotDependOnEventReplayOrder() throws IOException {
+		ConversionFunnelEngine live = new ConversionFunnelEngine(null, null, 100, 30);
+		live.accept(journey());
+		live.recordOrder(1L, BASE.plusMinutes(2));
+		ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+		live.writeSnapshot(new DataOutputStream(snapshot));
+
+		ConversionFunnelEngine restoredFirst = new ConversionFunnelEngine(null, null, 100, 30);
+		restoredFirst.readSnapshot(new DataInputStream(new ByteArrayInputStream(snapshot.toByteArray())));
+		restoredFirst.accept(journey());
+		ConversionFunnelEngine replayedFirst = new ConversionFunnelEngine(null, null, 100, 30);
+		replayedFirst.accept(journey());
+		replayedFirst.readSnapshot(new DataInputStream(new ByteArrayInputStream(snapshot.toByteArray())));
+
+		assertEquals(List.of(2L, 1L, 1L), sessions(live, Step.VIEW, Step.ADD_TO_CART, Step.ORDER));
+		assertEquals(allFunnels(live), allFunnels(restoredFirst));
+		assertEquals(allFunnels(live), allFunnels(replayedFirst));
+	}
+
+	@Test
+	void seededOrdersDoNotDependOnEventReplayOrder() {
+		ConversionFunnelEngine seededFirst = new ConversionFunnelEngine(null, null, 100, 30);
+		seededFirst.seedOrder(BASE.plusMinutes(2));
+		seededFirst.accept(journey());
+		ConversionFunnelEngine replayedFirst = new ConversionFunnelEngine(null, null, 100, 30);
+		replayedFirst.accept(journey());
+		replayedFirst.seedOrder(BASE.plusMinutes(2));
+
+		assertEquals(List.of(1L), sessions(seededFirst, Step.ORDER));
+		assertEquals(List.of(2L, 0L), sessions(seededFirst, Step.VIEW, Step.ORDER));
+		assertEquals(allFunnels(seededFirst), allFunnels(replayedFirst));
+	}
+}
@@ -0,0 +1,71 @@
+package com.example.demo.application.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CustomerFirstSeenIndexTest {
+
+	private static final LocalDateTime BASE = LocalDateTime.of(2024, 3, 1, 0, 0);
+
+	@Test
+	void countsFirstOrdersInSecondPreciseRanges() {
+		CustomerFirstSeenIndex index = new CustomerFirstSeenIndex(null, null);
+		index.record(1L, BASE.plusHours(1));
+		index.record(2L, BASE.plusHours(23).plusMinutes(59).plusSeconds(59));
+		index.record(3L, BASE.plusDays(1));
+		index.record(4L, BASE.plusDays(1).plusHours(12));
+		index.record(5L, BASE.plusDays(3));
+		// Later orders of a known customer do not move their first order
+		index.record(1L, BASE.plusDays(2));
+
+		assertEquals(5, index.countFirstSeenBetween(BASE.minusDays(1), BASE.plusDays(5)));
+		assertEquals(2, index.countFirstSeenBetween(BASE, BASE.plusHours(23).plusMinutes(59).plusSeconds(59)));
+		assertEquals(1, index.countFirstSeenBetween(BASE.plusHours(1).plusSeconds(1), BASE.plusDays(1).minusSeconds(1)));
+		assertEquals(4, index.countFirstSeenBetween(BASE.plusHours(2), BASE.plusDays(3)));
+		assertEquals(1, index.countFirstSeenBetween(BASE.plusDays(1), BASE.plusDays(1)));
+		assertEquals(0, index.countFirstSeenBetween(BASE.plusDays(2), BASE.plusDays(2).plusHours(23)));
+		assertEquals(0, index.countFirstSeenBetween(BASE.plusDays(1), BASE));
+	}
+
+	@Test
+	void movesACustomerToAnEarlierFirstOrder() {
+		CustomerFirstSeenIndex index = new CustomerFirstSeenIndex(null, null);
+		index.record(1L, BASE.plusDays(2));
+		index.record(1L, BASE.plusHours(6));
+
+		assertEquals(0, index.countFirstSeenBetween(BASE.plusDays(1), BASE.plusDays(3)));
+		assertEquals(1, index.countFirstSeenBetween(BASE, BASE.plusDays(1)));
+		assertEquals(BASE.plusHours(6), index.getFirstSeen(1L));
+		assertTrue(index.isFirstOrder(1L, BASE.plusHours(6).toEpochSecond(ZoneOffset.UTC)));
+		assertFalse(index.isFirstOrder(1L, BASE.plusDays(2).toEpochSecond(ZoneOffset.UTC)));
+	}
+
+	@Test
+	void rebuildsTheDayIndexFromASnapshot() throws IOException {
+		CustomerFirstSeenIndex index = new CustomerFirstSeenIndex(null, null);
+		for (long customer = 1; customer <= 100; customer++) {
+			index.record(customer, BASE.plusHours(customer));
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		index.writeSnapshot(new DataOutputStream(bytes));
+
+		CustomerFirstSeenIndex restored = new CustomerFirstSeenIndex(null, null);
+		restored.readSnapshot(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+		assertEquals(100, restored.getCustomerCount());
+		assertEquals(24, restored.countFirstSeenBetween(BASE.plusDays(1), BASE.plusDays(2).minusSeconds(1)));
+		assertEquals(index.countFirstSeenBetween(BASE.plusHours(30), BASE.plusHours(70)),
+				restored.countFirstSeenBetween(BASE.plusHours(30), BASE.plusHours(70)));
+	}
+}
@@ -0,0 +1,107 @@
+package com.example.demo.application.analytics.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrentRoaringBitmapTest {
+
+	@Test
+	void matchesHashSetAcrossSparseAndDenseContainers() {
+		ConcurrentRoaringBitmap bitmap = new ConcurrentRoaringBitmap();
+		Set<Long> truth = new HashSet<>();
+		Random random = new Random(3);
+		for (int i = 0; i < 50_000; i++) {
+			// A dense block past the array limit, a sparse spread and some large IDs
+			long value = switch (i % 3) {
+				case 0 -> random.nextInt(20_000);
+				case 1 -> random.nextInt(50_000_000);
+				default -> (1L << 40) + random.nextInt(1000);
+			};
+			assertEquals(truth.add(value), bitmap.add(value));
+		}
+
+		assertEquals(truth.size(), bitmap.cardinality());
+		for (long value : truth) {
+			assertTrue(bitmap.contains(value));
+		}
+		assertFalse(bitmap.contains(60_000_000L));
+		Set<Long> visited = new HashSet<>();
+		bitmap.forEach(visited::add);
+		assertEquals(truth, visited);
+	}
+
+	@Test
+	void countsUnionWithoutDoubleCounting() {
+		ConcurrentRoaringBitmap first = new ConcurrentRoaringBitmap();
+		ConcurrentRoaringBitmap second = new ConcurrentRoaringBitmap();
+		ConcurrentRoaringBitmap third = new ConcurrentRoaringBitmap();
+		for (long value = 0; value < 10_000; value++) {
+			first.add(value);
+			second.add(value + 5_000);
+		}
+		third.add(1L << 33);
+
+		assertEquals(15_001, ConcurrentRoaringBitmap.unionCardinality(List.of(first, second, third)));
+		assertEquals(10_000, ConcurrentRoaringBitmap.unionCardinality(List.of(first, first)));
+		assertEquals(0, ConcurrentRoaringBitmap.unionCardinality(List.of()));
+	}
+
+	@Test
+	void roundTripsThroughSerialization() throws Exception {
+		ConcurrentRoaringBitmap bitmap = new ConcurrentRoaringBitmap();
+		for (long value = 0; value < 70_000; value += 3) {
+			bitmap.add(value);
+		}
+		bitmap.add(Long.MAX_VALUE);
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		bitmap.writeTo(new DataOutputStream(buffer));
+
+		ConcurrentRoaringBitmap restored = ConcurrentRoaringBitmap.readFrom(
+				new DataInputStream(new ByteArrayInputStream(buffer.toByteArray())));
+
+		assertEquals(bitmap.cardinality(), restored.cardinality());
+		assertEquals(bitmap.cardinality(), ConcurrentRoaringBitmap.unionCardinality(List.of(bitmap, restored)));
+		assertTrue(restored.contains(Long.MAX_VALUE));
+	}
+
+	@Test
+	void concurrentAddsAreNotLost() throws Exception {
+		ConcurrentRoaringBitmap bitmap = new ConcurrentRoaringBitmap();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int thread = 0; thread < 4; thread++) {
+				int offset = thread;
+				futures.add(executor.submit(() -> {
+					// Overlapping ranges force racing inserts into the same containers
+					for (long value = offset * 10_000L; value < offset * 10_000L + 30_000; value++) {
+						bitmap.add(value);
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		assertEquals(60_000, bitmap.cardinality());
+	}
+}
@@ -0,0 +1,50 @@
+package com.example.demo.application.analytics.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongLongHashMapTest {
+
+	@Test
+	void matchesHashMapAcrossResizesAndRemovals() {
+		LongLongHashMap map = new LongLongHashMap(4);
+		Map<Long, Long> expected = new HashMap<>();
+		Random random = new Random(42);
+		for (int i = 0; i < 50_000; i++) {
+			long key = random.nextInt(20_000) - 10_000;
+			if (random.nextInt(4) == 0) {
+				assertEquals(expected.remove(key) != null, map.remove(key));
+			} else {
+				long delta = random.nextInt(100);
+				map.addTo(key, delta);
+				expected.merge(key, delta, Long::sum);
+			}
+		}
+
+		assertEquals(expected.size(), map.size());
+		expected.forEach((key, value) -> assertEquals(value, map.get(key, -1)));
+		Map<Long, Long> visited = new HashMap<>();
+		map.forEach(visited::put);
+		assertEquals(expected, visited);
+	}
+
+	@Test
+	void storesReservedEmptyKey() {
+		LongLongHashMap map = new LongLongHashMap();
+		assertFalse(map.containsKey(Long.MIN_VALUE));
+		map.put(Long.MIN_VALUE, 7);
+		map.put(0, 3);
+
+		assertTrue(map.containsKey(Long.MIN_VALUE));
+		assertEquals(7, map.get(Long.MIN_VALUE, -1));
+		assertEquals(3, map.get(0, -1));
+		assertEquals(2, map.size());
+	}
+}
@@ -0,0 +1,110 @@
+package com.example.demo.application.analytics.sample;
+
+import com.example.demo.application.analytics.CustomerFirstSeenIndex;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderSampleStoreTest {
+
+	private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+	private static OrderSampleStore store(int samplesPerDay, int queryBudget) {
+		return new OrderSampleStore(null, new CustomerFirstSeenIndex(null, null), null, samplesPerDay, queryBudget);
+	}
+
+	@Test
+	void fullySampledDaysAreExact() {
+		OrderSampleStore store = store(16, 1000);
+		long total = 0;
+		for (int i = 0; i < 10; i++) {
+			store.record((long) i, 1000 + i, BASE.plusHours(i));
+			total += 1000 + i;
+		}
+
+		OrderSampleStore.SampleEstimate estimate = store.estimate(BASE, BASE.plusDays(1));
+
+		assertEquals(10, estimate.getOrders().getValue(), 1e-9);
+		assertEquals(total, estimate.getRevenueCents().getValue(), 1e-6);
+		assertEquals(estimate.getRevenueCents().getValue(), estimate.getRevenueCents().getLower(), 1e-6);
+		assertEquals(estimate.getRevenueCents().getValue(), estimate.getRevenueCents().getUpper(), 1e-6);
+	}
+
+	@Test
+	void intervalCoversTrueTotal() {
+		OrderSampleStore store = store(32, 1000);
+		Random random = new Random(11);
+		LocalDateTime from = BASE.plusDays(3).plusHours(12);
+		LocalDateTime to = BASE.plusDays(25);
+		long total = 0;
+		long orders = 0;
+		for (int day = 0; day < 30; day++) {
+			for (int i = 0; i < 500; i++) {
+				LocalDateTime createdAt = BASE.plusDays(day).plusSeconds(random.nextInt(86_400));
+				long cents = 500 + random.nextInt(20_000);
+				store.record(random.nextLong(1, 10_000), cents, createdAt);
+				if (!createdAt.isBefore(from) && createdAt.isBefore(to)) {
+					total += cents;
+					orders++;
+				}
+			}
+		}
+
+		OrderSampleStore.SampleEstimate estimate = store.estimate(from, to);
+
+		// Reservoirs are random, so allow twice the 95% margin (about four standard errors)
+		assertWithinTwoMargins(total, estimate.getRevenueCents());
+		assertWithinTwoMargins(orders, estimate.getOrders());
+		assertTrue(estimate.getRevenueCents().getUpper() > estimate.getRevenueCents().getLower());
+		assertTrue(estimate.getSampledOrders() <= 22 * 32);
+	}
+
+	private static void assertWithinTwoMargins(double truth, Estimate estimate) {
+		double margin = (estimate.getUpper() - estimate.getLower()) / 2;
+		assertTrue(Math.abs(estimate.getValue() - truth) <= 2 * margin,
+				() -> truth + " outside " + estimate.getValue() + " +/- 2 * " + margin);
+	}
+
+	@Test
+	void queryBudgetLimitsSamplesRead() {
+		OrderSampleStore store = store(64, 100);
+		for (int day = 0; day < 10; day++) {
+			for (int i = 0; i < 200; i++) {
+				store.record((long) i, 100, BASE.plusDays(day).plusSeconds(i));
+			}
+		}
+
+		OrderSampleStore.SampleEstimate estimate = store.estimate(BASE, BASE.plusDays(10));
+
+		assertEquals(100, estimate.getSampledOrders());
+		assertEquals(2000, estimate.getOrders().getValue(), 1e-9);
+		assertEquals(200_000, estimate.getRevenueCents().getValue(), 1e-6);
+	}
+
+	@Test
+	void roundTripsThroughSnapshot() throws Exception {
+		OrderSampleStore store = store(8, 1000);
+		for (int i = 0; i < 50; i++) {
+			store.record((long) i, 100 + i, BASE.plusMinutes(i * 90L));
+		}
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		store.writeSnapshot(new DataOutputStream(buffer));
+
+		OrderSampleStore restored = store(8, 1000);
+		restored.readSnapshot(new DataInputStream(new ByteArrayInputStream(buffer.toByteArray())));
+
+		OrderSampleStore.SampleEstimate expected = store.estimate(BASE, BASE.plusDays(4));
+		OrderSampleStore.SampleEstimate actual = restored.estimate(BASE, BASE.plusDays(4));
+		assertEquals(store.getSampledOrderCount(), restored.getSampledOrderCount());
+		assertEquals(expected.getRevenueCents().getValue(), actual.getRevenueCents().getValue(), 1e-9);
+		assertEquals(expected.getRevenueCents().getUpper(), actual.getRevenueCents().getUpper(), 1e-9);
+	}
+}
@@ -0,0 +1,50 @@
+package com.example.demo.application.analytics.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogHistogramTest {
+
+	@Test
+	void reportsPercentilesWithinRelativeError() {
+		LogHistogram histogram = new LogHistogram(7);
+		Random random = new Random(11);
+		long[] values = new long[50_000];
+		for (int i = 0; i < values.length; i++) {
+			// Log-normal-ish spread from cents to thousands of dollars
+			values[i] = (long) Math.exp(4 + random.nextGaussian() * 2);
+			histogram.record(values[i]);
+		}
+		Arrays.sort(values);
+
+		for (double percentile : new double[] {50, 90, 99}) {
+			long exact = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+			long estimate = histogram.valueAtPercentile(percentile);
+			assertTrue(Math.abs(estimate - exact) <= Math.max(1, exact / 128), percentile + ": " + estimate + " vs " + exact);
+		}
+		assertEquals(values[0], histogram.getMin());
+		assertEquals(values[values.length - 1], histogram.getMax());
+	}
+
+	@Test
+	void mergesHistograms() {
+		LogHistogram first = new LogHistogram(7);
+		LogHistogram second = new LogHistogram(7);
+		for (long value = 1; value <= 100; value++) {
+			first.record(value);
+			second.record(value * 1000);
+		}
+
+		first.merge(second);
+
+		assertEquals(200, first.getTotalCount());
+		assertEquals(100, first.valueAtPercentile(50));
+		assertEquals(100_000, first.getMax());
+		assertTrue(Math.abs(first.valueAtPercentile(75) - 50_000) <= 50_000 / 128);
+	}
+}
@@ -0,0 +1,72 @@
+package com.example.demo.application.analytics.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpaceSavingTest {
+
+	@Test
+	void findsHeavyHittersWithinErrorBound() {
+		SpaceSaving summary = new SpaceSaving(32);
+		Random random = new Random(7);
+		long[] truth = new long[1000];
+		for (int i = 0; i < 100_000; i++) {
+			// Items 0-4 carry about half of the weight, the rest is spread over 995 items
+			int item = random.nextBoolean() ? random.nextInt(5) : 5 + random.nextInt(995);
+			int weight = 1 + random.nextInt(3);
+			truth[item] += weight;
+			summary.add(item, weight);
+		}
+
+		List<SpaceSaving.Counter> top = summary.top(5);
+		assertEquals(5, top.size());
+		for (SpaceSaving.Counter counter : top) {
+			assertTrue(counter.getItem() < 5);
+			long exact = truth[(int) counter.getItem()];
+			assertTrue(counter.getCount() >= exact);
+			assertTrue(counter.getCount() - counter.getError() <= exact);
+		}
+	}
+
+	@Test
+	void mergesSummaries() {
+		SpaceSaving first = new SpaceSaving(4);
+		SpaceSaving second = new SpaceSaving(4);
+		first.add(1, 10);
+		first.add(2, 5);
+		second.add(1, 7);
+		second.add(3, 20);
+
+		first.merge(second);
+
+		assertEquals(3, first.top(1).get(0).getItem());
+		assertEquals(17, first.count(1));
+		assertEquals(42, first.getTotal());
+	}
+
+	@Test
+	void roundTripsThroughSerialization() throws Exception {
+		SpaceSaving summary = new SpaceSaving(3);
+		for (long item = 1; item <= 6; item++) {
+			summary.add(item, item * 10);
+		}
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		summary.writeTo(new DataOutputStream(buffer));
+
+		SpaceSaving restored = SpaceSaving.readFrom(new DataInputStream(new ByteArrayInputStream(buffer.toByteArray())));
+		restored.add(7, 100);
+
+		assertEquals(summary.getTotal() + 100, restored.getTotal());
+		assertEquals(summary.count(6), restored.count(6));
+		assertEquals(7, restored.top(1).get(0).getItem());
+	}
+}
@@ -0,0 +1,87 @@
+package com.example.demo.infrastructure.eventlog;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SegmentedLogTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void replaysRecordsAcrossRolledSegmentsAfterReopen() {
+		try (SegmentedLog log = new SegmentedLog(directory, 1024, 10)) {
+			for (int i = 0; i < 100; i++) {
+				log.append(utf8("record-" + i));
+			}
+			assertTrue(log.getSegmentCount() > 1);
+		}
+
+		try (SegmentedLog reopened = new SegmentedLog(directory, 1024, 10)) {
+			reopened.append(utf8("record-100"));
+			List<String> records = readAll(reopened);
+			assertEquals(101, records.size());
+			assertEquals("record-0", records.get(0));
+			assertEquals("record-100", records.get(100));
+		}
+	}
+
+	@Test
+	void stopsAtCorruptedTailAndOverwritesIt() throws Exception {
+		try (SegmentedLog log = new SegmentedLog(directory, 1024, 10)) {
+			log.append(utf8("first"));
+			log.append(utf8("second"));
+		}
+		Path segment;
+		try (var files = Files.list(directory)) {
+			segment = files.findFirst().orElseThrow();
+		}
+		try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+			// Flip a payload byte of the second record (8 byte header + "first")
+			file.seek(8 + 5 + 8);
+			file.write('X');
+		}
+
+		try (SegmentedLog reopened = new SegmentedLog(directory, 1024, 10)) {
+			assertEquals(List.of("first"), readAll(reopened));
+			reopened.append(utf8("third"));
+			assertEquals(List.of("first", "third"), readAll(reopened));
+		}
+	}
+
+	@Test
+	void deletesOldestSegmentsBeyondRetention() {
+		try (SegmentedLog log = new SegmentedLog(directory, 1024, 2)) {
+			for (int i = 0; i < 500; i++) {
+				log.append(utf8("record-" + i));
+			}
+			assertEquals(2, log.getSegmentCount());
+			assertEquals("record-499", readAll(log).get(readAll(log).size() - 1));
+		}
+	}
+
+	private static ByteBuffer utf8(String value) {
+		return ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static List<String> readAll(SegmentedLog log) {
+		List<String> records = new ArrayList<>();
+		log.replay(record -> {
+			byte[] bytes = new byte[record.remaining()];
+			record.get(bytes);
+			records.add(new String(bytes, StandardCharsets.UTF_8));
+		});
+		return records;
+	}
+}
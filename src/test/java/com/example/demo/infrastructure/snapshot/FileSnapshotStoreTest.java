@@ -0,0 +1,59 @@
+package com.example.demo.infrastructure.snapshot;
+
+import com.example.demo.application.analytics.snapshot.AnalyticsSnapshot;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileSnapshotStoreTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void loadsTheLatestSavedSnapshot() throws Exception {
+		FileSnapshotStore store = new FileSnapshotStore(directory.toString());
+		assertTrue(store.load().isEmpty());
+
+		LocalDateTime checkpoint = LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123_000_000);
+		store.save(snapshot(checkpoint.minusMinutes(5), new byte[] {9}));
+		store.save(snapshot(checkpoint, new byte[] {1, 2, 3}));
+
+		AnalyticsSnapshot loaded = store.load().orElseThrow();
+		assertEquals(checkpoint, loaded.getCheckpointTime());
+		assertEquals(40, loaded.getFloorOrderId());
+		assertArrayEquals(new long[] {42, 45}, loaded.getAppliedOrderIds());
+		assertEquals(45, loaded.getAnchorOrderId());
+		assertEquals(2, loaded.getSections().get("engine").getVersion());
+		assertArrayEquals(new byte[] {1, 2, 3}, loaded.getSections().get("engine").getData());
+	}
+
+	@Test
+	void rejectsCorruptedSnapshot() throws Exception {
+		FileSnapshotStore store = new FileSnapshotStore(directory.toString());
+		store.save(snapshot(LocalDateTime.now(), new byte[] {1, 2, 3}));
+		try (RandomAccessFile file = new RandomAccessFile(directory.resolve("analytics.snapshot").toFile(), "rw")) {
+			file.seek(20);
+			int original = file.readByte();
+			file.seek(20);
+			file.writeByte(original ^ 0x7F);
+		}
+
+		assertThrows(IOException.class, store::load);
+	}
+
+	private static AnalyticsSnapshot snapshot(LocalDateTime checkpoint, byte[] data) {
+		return new AnalyticsSnapshot(checkpoint, 40, new long[] {42, 45}, 45, 1_700_000_000L,
+				Map.of("engine", new AnalyticsSnapshot.Section(2, data)));
+	}
+}